@@ -175,6 +175,9 @@ public abstract class Schema extends JsonProperties implements Serializable {
 
   int hashCode = NO_HASHCODE;
 
+  /** Fingerprints cached by {@link SchemaNormalization}. */
+  volatile SchemaNormalization.Fingerprints fingerprints;
+
   @Override
   public void addProp(String name, String value) {
     super.addProp(name, value);
@@ -444,7 +447,13 @@ public abstract class Schema extends JsonProperties implements Serializable {
   }
 
   final boolean equalCachedHash(Schema other) {
-    return (hashCode == other.hashCode) || (hashCode == NO_HASHCODE) || (other.hashCode == NO_HASHCODE);
+    if (!((hashCode == other.hashCode) || (hashCode == NO_HASHCODE) || (other.hashCode == NO_HASHCODE)))
+      return false;
+    // equal schemas have the same canonical form, so cached fingerprints must match
+    SchemaNormalization.Fingerprints fingerprints = this.fingerprints;
+    SchemaNormalization.Fingerprints otherFingerprints = other.fingerprints;
+    return fingerprints == null || otherFingerprints == null
+        || fingerprints.fingerprint64 == otherFingerprints.fingerprint64;
   }
 
   private static final Set<String> FIELD_RESERVED = Collections
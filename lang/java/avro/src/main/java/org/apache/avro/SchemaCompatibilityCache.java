@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.SchemaCompatibility.SchemaCompatibilityResult;
+import org.apache.avro.SchemaCompatibility.SchemaPairCompatibility;
+import org.apache.avro.util.WeakIdentityHashMap;
+
+/**
+ * A size-bounded cache of the results of
+ * {@link SchemaCompatibility#checkReaderWriterCompatibility(Schema, Schema)},
+ * shared by all threads.
+ * <p/>
+ * Entries are keyed by the 64-bit fingerprints of the full text of the reader's
+ * and writer's schemas, so equal schemas that are distinct instances share an
+ * entry. Schemas with the same {@link SchemaNormalization parsing canonical
+ * form} are compatible, so such pairs are not checked at all. When the cache is
+ * full, an arbitrary entry is evicted.
+ *
+ * @see org.apache.avro.io.ResolverCache
+ */
+public class SchemaCompatibilityCache {
+  /** System property that sets the size of the shared cache. */
+  public static final String MAX_SIZE_PROP = "org.apache.avro.compatibilitycache.size";
+  static final int DEFAULT_MAX_SIZE = 1024;
+
+  private static final SchemaCompatibilityCache SHARED = new SchemaCompatibilityCache(
+      Integer.getInteger(MAX_SIZE_PROP, DEFAULT_MAX_SIZE));
+
+  /** Fingerprints are expensive to compute, so remember them per instance. */
+  private static final Map<Schema, Long> FINGERPRINTS = Collections.synchronizedMap(new WeakIdentityHashMap<>());
+
+  private final int maxSize;
+  private final ConcurrentHashMap<Key, SchemaPairCompatibility> results = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** Return the cache shared by the whole process. */
+  public static SchemaCompatibilityCache get() {
+    return SHARED;
+  }
+
+  /** Create a cache that holds at most <i>maxSize</i> results. */
+  public SchemaCompatibilityCache(int maxSize) {
+    if (maxSize < 1)
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Return whether the reader's schema can decode data written with the writer's
+   * schema, as
+   * {@link SchemaCompatibility#checkReaderWriterCompatibility(Schema, Schema)}
+   * does. The result names the schemas passed, but its incompatibilities may
+   * refer to parts of equal schemas that were checked before.
+   */
+  public SchemaPairCompatibility checkReaderWriterCompatibility(Schema reader, Schema writer) {
+    Key key = new Key(fingerprint(reader), fingerprint(writer));
+    SchemaPairCompatibility result = results.get(key);
+    if (result != null) {
+      hits.increment();
+      if (result.getReader() == reader && result.getWriter() == writer)
+        return result;
+      return new SchemaPairCompatibility(result.getResult(), reader, writer, result.getDescription());
+    }
+    misses.increment();
+    if (reader == writer
+        || SchemaNormalization.parsingFingerprint64(reader) == SchemaNormalization.parsingFingerprint64(writer)) {
+      result = new SchemaPairCompatibility(SchemaCompatibilityResult.compatible(), reader, writer,
+          SchemaCompatibility.READER_WRITER_COMPATIBLE_MESSAGE);
+    } else {
+      result = SchemaCompatibility.checkReaderWriterCompatibility(reader, writer);
+    }
+    if (results.putIfAbsent(key, result) == null && results.size() > maxSize)
+      evict(key);
+    return result;
+  }
+
+  private void evict(Key keep) {
+    Iterator<Key> keys = results.keySet().iterator();
+    while (results.size() > maxSize && keys.hasNext()) {
+      Key key = keys.next();
+      if (!key.equals(keep) && results.remove(key) != null)
+        evictions.increment();
+    }
+  }
+
+  /** Return the number of checks answered from the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Return the number of checks that were not cached. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Return the number of results removed to keep the cache within bounds. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Return the number of cached results. */
+  public int size() {
+    return results.size();
+  }
+
+  /** Return the greatest number of results this cache holds. */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** Remove all cached results. Statistics are kept. */
+  public void clear() {
+    results.clear();
+  }
+
+  private static long fingerprint(Schema schema) {
+    Long fingerprint = FINGERPRINTS.get(schema);
+    if (fingerprint == null) {
+      fingerprint = SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+      FINGERPRINTS.put(schema, fingerprint);
+    }
+    return fingerprint;
+  }
+
+  private static final class Key {
+    private final long reader;
+    private final long writer;
+
+    Key(long reader, long writer) {
+      this.reader = reader;
+      this.writer = writer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key))
+        return false;
+      Key that = (Key) o;
+      return reader == that.reader && writer == that.writer;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(reader * 31 + writer);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Collection of static methods for generating the canonical form of schemas
@@ -63,13 +64,7 @@ public class SchemaNormalization {
    */
   public static byte[] fingerprint(String fpName, byte[] data) throws NoSuchAlgorithmException {
     if (fpName.equals("CRC-64-AVRO")) {
-      long fp = fingerprint64(data);
-      byte[] result = new byte[8];
-      for (int i = 0; i < 8; i++) {
-        result[i] = (byte) fp;
-        fp >>= 8;
-      }
-      return result;
+      return littleEndian(fingerprint64(data));
     }
 
     MessageDigest md = MessageDigest.getInstance(fpName);
@@ -92,7 +87,16 @@ public class SchemaNormalization {
    * supplied schema.
    */
   public static byte[] parsingFingerprint(String fpName, Schema s) throws NoSuchAlgorithmException {
-    return fingerprint(fpName, toParsingForm(s).getBytes(StandardCharsets.UTF_8));
+    Fingerprints fingerprints = fingerprints(s);
+    if (fpName.equals("CRC-64-AVRO")) {
+      return littleEndian(fingerprints.fingerprint64);
+    }
+    byte[] digest = fingerprints.digests.get(fpName);
+    if (digest == null) {
+      digest = fingerprint(fpName, toParsingForm(s).getBytes(StandardCharsets.UTF_8));
+      fingerprints.digests.put(fpName, digest);
+    }
+    return digest.clone();
   }
 
   /**
@@ -100,7 +104,41 @@ public class SchemaNormalization {
    * supplied schema.
    */
   public static long parsingFingerprint64(Schema s) {
-    return fingerprint64(toParsingForm(s).getBytes(StandardCharsets.UTF_8));
+    return fingerprints(s).fingerprint64;
+  }
+
+  /**
+   * Returns the fingerprints cached by a schema, computing its 64-bit
+   * fingerprint if needed. The parsing canonical form of a schema can't change
+   * once it has been computed, since it only depends on names, symbols, sizes and
+   * types, and records can only be given fields once.
+   */
+  private static Fingerprints fingerprints(Schema s) {
+    Fingerprints fingerprints = s.fingerprints;
+    if (fingerprints == null) {
+      fingerprints = new Fingerprints(fingerprint64(toParsingForm(s).getBytes(StandardCharsets.UTF_8)));
+      s.fingerprints = fingerprints;
+    }
+    return fingerprints;
+  }
+
+  private static byte[] littleEndian(long fp) {
+    byte[] result = new byte[8];
+    for (int i = 0; i < 8; i++) {
+      result[i] = (byte) fp;
+      fp >>= 8;
+    }
+    return result;
+  }
+
+  /** The fingerprints of the parsing canonical form of a schema. */
+  static final class Fingerprints {
+    final long fingerprint64;
+    final Map<String, byte[]> digests = new ConcurrentHashMap<>();
+
+    Fingerprints(long fingerprint64) {
+      this.fingerprint64 = fingerprint64;
+    }
   }
 
   private static Appendable build(Map<String, String> env, Schema s, Appendable o) throws IOException {
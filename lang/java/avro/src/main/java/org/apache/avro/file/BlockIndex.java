@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import static org.apache.avro.file.DataFileConstants.SYNC_SIZE;
+
+/**
+ * An index of the blocks in a data file, optionally written by
+ * {@link DataFileWriter#setBlockIndex(boolean)} when the file is closed. For
+ * each block it records the position of the block and the number of records
+ * before it, and, if a sort field was chosen, the least and greatest values of
+ * that field in the block.
+ * <p/>
+ * The index is stored as a final block that contains no records, so readers
+ * that do not know about it read the file's records as usual.
+ *
+ * @see DataFileReader#getBlockIndex()
+ * @see DataFileReader#seekToRecord(long)
+ */
+public class BlockIndex {
+  static final byte[] MAGIC = new byte[] { (byte) 'I', (byte) 'd', (byte) 'x', 1 };
+
+  /** Marks blocks whose bounds are unknown. Never returned to callers. */
+  static final Object UNKNOWN = new Object();
+
+  private static final int SCAN_WINDOW = 64 * 1024;
+
+  private final long position;
+  private final long[] offsets;
+  private final long[] firstRecords;
+  private final long recordCount;
+  private final Schema.Field sortField;
+  private final Object[] mins;
+  private final Object[] maxs;
+
+  private BlockIndex(long position, long[] offsets, long[] firstRecords, long recordCount, Schema.Field sortField,
+      Object[] mins, Object[] maxs) {
+    this.position = position;
+    this.offsets = offsets;
+    this.firstRecords = firstRecords;
+    this.recordCount = recordCount;
+    this.sortField = sortField;
+    this.mins = mins;
+    this.maxs = maxs;
+  }
+
+  /** Return the number of data blocks in the file. */
+  public int getBlockCount() {
+    return offsets.length;
+  }
+
+  /**
+   * Return the position of a block, a value that may be passed to
+   * {@link DataFileReader#seek(long)}.
+   */
+  public long getOffset(int block) {
+    return offsets[block];
+  }
+
+  /** Return the number of records in the file before a block. */
+  public long getFirstRecord(int block) {
+    return firstRecords[block];
+  }
+
+  /** Return the number of records in the file. */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /** Return the field whose bounds are recorded, or null if there is none. */
+  public Schema.Field getSortField() {
+    return sortField;
+  }
+
+  /**
+   * Return the least value of the sort field in a block, as generic data. Returns
+   * null if there is no sort field or if the bounds of this block are unknown,
+   * for example because it was appended with
+   * {@link DataFileWriter#appendAllFrom(DataFileStream, boolean)}.
+   */
+  public Object getMin(int block) {
+    return mins == null ? null : mins[block];
+  }
+
+  /**
+   * Return the greatest value of the sort field in a block, as generic data.
+   *
+   * @see #getMin(int)
+   */
+  public Object getMax(int block) {
+    return maxs == null ? null : maxs[block];
+  }
+
+  /** Return true if the bounds of the sort field are known for a block. */
+  public boolean hasBounds(int block) {
+    return mins != null && mins[block] != UNKNOWN;
+  }
+
+  /**
+   * Return the block that contains a record, or -1 if the record is past the end
+   * of the file.
+   */
+  public int findBlock(long record) {
+    if (record < 0)
+      throw new IllegalArgumentException("Negative record number: " + record);
+    if (record >= recordCount)
+      return -1;
+    int i = Arrays.binarySearch(firstRecords, record);
+    if (i < 0)
+      return -i - 2;
+    // skip any empty blocks that share this record number
+    while (i + 1 < firstRecords.length && firstRecords[i + 1] == record)
+      i++;
+    return i;
+  }
+
+  /** The position of the index block itself. */
+  long getPosition() {
+    return position;
+  }
+
+  /**
+   * Look for an index at the end of a file. Returns null if the last block of the
+   * file is not an index.
+   */
+  static BlockIndex read(SeekableInput in, DataFileStream.Header header, Codec codec) throws IOException {
+    long end = in.length();
+    long limit = end - SYNC_SIZE; // start of the last sync marker
+    byte[] window = new byte[SCAN_WINDOW + SYNC_SIZE];
+    // a block starts right after the previous sync marker, so scan backwards for
+    // the last marker that is followed by a block ending at the end of the file
+    for (long hi = limit - SYNC_SIZE; hi >= 0;) {
+      long lo = Math.max(0, hi - SCAN_WINDOW + 1);
+      int len = (int) (hi - lo) + SYNC_SIZE;
+      readFully(in, lo, window, len);
+      for (int i = (int) (hi - lo); i >= 0; i--) {
+        if (!matches(window, i, header.sync))
+          continue;
+        long start = lo + i + SYNC_SIZE;
+        byte[] head = new byte[(int) Math.min(20, limit - start)];
+        readFully(in, start, head, head.length);
+        BinaryDecoder d = DecoderFactory.get().binaryDecoder(head, null);
+        long count;
+        long size;
+        try {
+          count = d.readLong();
+          size = d.readLong();
+        } catch (IOException e) {
+          continue; // not a block header
+        }
+        long dataStart = start + head.length - d.inputStream().available();
+        if (count < 0 || size < 0 || dataStart + size != limit)
+          continue; // a marker inside the data of the last block
+        return count == 0 ? read(in, start, dataStart, (int) size, header.schema, codec) : null;
+      }
+      hi = lo - 1;
+    }
+    return null;
+  }
+
+  private static BlockIndex read(SeekableInput in, long position, long dataStart, int size, Schema schema,
+      Codec codec) throws IOException {
+    byte[] data = new byte[size];
+    readFully(in, dataStart, data, size);
+    ByteBuffer index = codec.decompress(ByteBuffer.wrap(data));
+    if (index.remaining() < MAGIC.length)
+      return null;
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (index.get(index.position() + i) != MAGIC[i])
+        return null;
+    }
+    BinaryDecoder d = DecoderFactory.get().binaryDecoder(index.array(),
+        index.arrayOffset() + index.position() + MAGIC.length, index.remaining() - MAGIC.length, null);
+
+    Schema.Field sortField = null;
+    if (d.readIndex() == 1) {
+      String name = d.readString();
+      sortField = schema.getType() == Schema.Type.RECORD ? schema.getField(name) : null;
+      if (sortField == null)
+        throw new AvroRuntimeException("Block index sort field not in schema: " + name);
+    }
+    DatumReader<Object> boundReader = sortField == null ? null
+        : new GenericDatumReader<>(sortField.schema(), sortField.schema(), GenericData.get());
+
+    int blocks = (int) d.readLong();
+    long[] offsets = new long[blocks];
+    long[] firstRecords = new long[blocks];
+    Object[] mins = sortField == null ? null : new Object[blocks];
+    Object[] maxs = sortField == null ? null : new Object[blocks];
+    long offset = 0;
+    long records = 0;
+    for (int i = 0; i < blocks; i++) {
+      offset += d.readLong();
+      offsets[i] = offset;
+      firstRecords[i] = records;
+      records += d.readLong();
+      if (sortField != null) {
+        if (d.readIndex() == 1) {
+          mins[i] = boundReader.read(null, d);
+          maxs[i] = boundReader.read(null, d);
+        } else {
+          mins[i] = UNKNOWN;
+          maxs[i] = UNKNOWN;
+        }
+      }
+    }
+    return new BlockIndex(position, offsets, firstRecords, records, sortField, mins, maxs);
+  }
+
+  private static boolean matches(byte[] b, int off, byte[] sync) {
+    for (int j = 0; j < SYNC_SIZE; j++) {
+      if (b[off + j] != sync[j])
+        return false;
+    }
+    return true;
+  }
+
+  private static void readFully(SeekableInput in, long position, byte[] b, int len) throws IOException {
+    in.seek(position);
+    for (int n = 0; n < len;) {
+      int read = in.read(b, n, len - n);
+      if (read < 0)
+        throw new IOException("Unexpected end of file at " + (position + n));
+      n += read;
+    }
+  }
+
+  /** Accumulates index entries as a file is written. */
+  static class Builder {
+    private final Schema.Field sortField;
+    private final DatumWriter<Object> boundWriter;
+    private long[] offsets = new long[16];
+    private long[] counts = new long[16];
+    private final List<Object> bounds = new ArrayList<>(); // min, max per block
+    private int filled; // blocks with a known record count
+    private int written; // blocks with a known offset
+
+    Builder(Schema.Field sortField) {
+      this.sortField = sortField;
+      this.boundWriter = sortField == null ? null : new GenericDatumWriter<>(sortField.schema(), GenericData.get());
+    }
+
+    /** Start a builder that continues an existing index. */
+    Builder(BlockIndex index) {
+      this(index.sortField);
+      for (int i = 0; i < index.getBlockCount(); i++) {
+        long next = i + 1 < index.getBlockCount() ? index.getFirstRecord(i + 1) : index.getRecordCount();
+        boolean known = index.hasBounds(i);
+        addBlock(next - index.getFirstRecord(i), known ? index.getMin(i) : UNKNOWN,
+            known ? index.getMax(i) : UNKNOWN);
+        setNextOffset(index.getOffset(i));
+      }
+    }
+
+    Schema.Field getSortField() {
+      return sortField;
+    }
+
+    /**
+     * Add a block in the order it was filled. Pass {@link #UNKNOWN} for bounds
+     * that were not tracked.
+     */
+    void addBlock(long count, Object min, Object max) {
+      if (filled == counts.length) {
+        counts = Arrays.copyOf(counts, filled * 2);
+        offsets = Arrays.copyOf(offsets, filled * 2);
+      }
+      counts[filled++] = count;
+      if (sortField != null) {
+        bounds.add(min);
+        bounds.add(max);
+      }
+    }
+
+    /** Record the position of the earliest block that has not been written. */
+    void setNextOffset(long offset) {
+      offsets[written++] = offset;
+    }
+
+    /** Encode the index, to be compressed and written as an empty block. */
+    ByteBuffer build() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      bytes.write(MAGIC);
+      BinaryEncoder e = EncoderFactory.get().directBinaryEncoder(bytes, null);
+      if (sortField == null) {
+        e.writeIndex(0);
+      } else {
+        e.writeIndex(1);
+        e.writeString(sortField.name());
+      }
+      e.writeLong(written);
+      long previous = 0;
+      for (int i = 0; i < written; i++) {
+        e.writeLong(offsets[i] - previous);
+        previous = offsets[i];
+        e.writeLong(counts[i]);
+        if (sortField != null) {
+          Object min = bounds.get(2 * i);
+          Object max = bounds.get(2 * i + 1);
+          if (min == UNKNOWN) {
+            e.writeIndex(0);
+          } else {
+            e.writeIndex(1);
+            boundWriter.write(min, e);
+            boundWriter.write(max, e);
+          }
+        }
+      }
+      e.flush();
+      return ByteBuffer.wrap(bytes.toByteArray());
+    }
+  }
+}
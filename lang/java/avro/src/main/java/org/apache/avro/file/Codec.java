@@ -17,8 +17,13 @@
  */
 package org.apache.avro.file;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.apache.avro.util.ByteBufferInputStream;
 
 /**
  * Interface for Avro-supported compression codecs for data files.
@@ -50,6 +55,15 @@ public abstract class Codec {
   @Override
   public abstract int hashCode();
 
+  /**
+   * True if {@link #decompress(ByteBuffer)} accepts buffers that are not backed
+   * by an array, such as slices of a memory-mapped file. Other codecs are passed
+   * a heap copy of such buffers.
+   */
+  protected boolean acceptsDirectBuffers() {
+    return false;
+  }
+
   @Override
   public String toString() {
     return getName();
@@ -61,4 +75,13 @@ public abstract class Codec {
   protected static int computeOffset(ByteBuffer data) {
     return data.arrayOffset() + data.position();
   }
+
+  // Present the remaining bytes of a buffer as a stream, without copying them
+  // when the buffer is not backed by an array.
+  protected static InputStream asInputStream(ByteBuffer data) {
+    if (data.hasArray()) {
+      return new ByteArrayInputStream(data.array(), computeOffset(data), data.remaining());
+    }
+    return new ByteBufferInputStream(Collections.singletonList(data.duplicate()));
+  }
 }
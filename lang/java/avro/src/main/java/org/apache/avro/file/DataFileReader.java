@@ -18,12 +18,13 @@
 package org.apache.avro.file;
 
 import java.io.IOException;
-import java.io.EOFException;
 import java.io.InputStream;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.apache.avro.InvalidAvroMagicException;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.avro.io.DatumReader;
@@ -36,8 +37,14 @@ import static org.apache.avro.file.DataFileConstants.MAGIC;
  * @see DataFileWriter
  */
 public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D> {
+  private static final int SYNC_WINDOW_SIZE = 64 * 1024;
+
   private SeekableInputStream sin;
   private long blockStart;
+  private BlockIndex blockIndex;
+  private boolean blockIndexRead;
+  private byte[] syncWindow;
+  private int[] syncSkip;
 
   /** Open a reader for a file. */
   public static <D> FileReader<D> openReader(File file, DatumReader<D> reader) throws IOException {
@@ -133,6 +140,7 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
     vin = DecoderFactory.get().binaryDecoder(this.sin, vin);
     datumIn = null;
     blockRemaining = 0;
+    availableBlock = false;
     blockStart = position;
   }
 
@@ -150,29 +158,122 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
       initialize(sin); // re-init to skip header
       return;
     }
-    try {
-      int i = 0, b;
-      InputStream in = vin.inputStream();
-      vin.readFixed(syncBuffer);
-      do {
-        int j = 0;
-        for (; j < SYNC_SIZE; j++) {
-          if (getHeader().sync[j] != syncBuffer[(i + j) % SYNC_SIZE])
-            break;
-        }
-        if (j == SYNC_SIZE) { // matched a complete sync
-          blockStart = position + i + SYNC_SIZE;
-          return;
-        }
-        b = in.read();
-        syncBuffer[i++ % SYNC_SIZE] = (byte) b;
-      } while (b != -1);
-    } catch (EOFException e) {
-      // fall through
+    // scan large windows read directly from the input, skipping ahead
+    // Boyer-Moore-Horspool style rather than comparing at every byte
+    byte[] sync = getHeader().sync;
+    if (syncSkip == null) {
+      syncSkip = syncSkipTable(sync);
+      syncWindow = new byte[SYNC_WINDOW_SIZE];
+    }
+    long windowStart = position;
+    int filled = 0;
+    for (int n; (n = sin.read(syncWindow, filled, syncWindow.length - filled)) > 0;) {
+      filled += n;
+      int i = indexOfSync(syncWindow, filled, sync, syncSkip);
+      if (i >= 0) { // matched a complete sync
+        seek(windowStart + i + SYNC_SIZE);
+        return;
+      }
+      // keep the bytes that may begin a sync split across windows
+      int keep = Math.min(filled, SYNC_SIZE - 1);
+      System.arraycopy(syncWindow, filled - keep, syncWindow, 0, keep);
+      windowStart += filled - keep;
+      filled = keep;
     }
     // if no match or EOF set start to the end position
-    blockStart = sin.tell();
-    // System.out.println("block start location after EOF: " + blockStart );
+    seek(sin.length());
+  }
+
+  static int[] syncSkipTable(byte[] sync) {
+    int[] skip = new int[256];
+    Arrays.fill(skip, SYNC_SIZE);
+    for (int j = 0; j < SYNC_SIZE - 1; j++) {
+      skip[sync[j] & 0xff] = SYNC_SIZE - 1 - j;
+    }
+    return skip;
+  }
+
+  /**
+   * Return the index of the first sync in the first len bytes of b, or -1. The
+   * byte aligned with the end of the sync decides how far to move on a mismatch.
+   */
+  static int indexOfSync(byte[] b, int len, byte[] sync, int[] skip) {
+    final int last = SYNC_SIZE - 1;
+    for (int i = 0; i + last < len; i += skip[b[i + last] & 0xff]) {
+      int j = last;
+      while (b[i + j] == sync[j]) {
+        if (j == 0)
+          return i;
+        j--;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return the block index written at the end of this file by
+   * {@link DataFileWriter#setBlockIndex(boolean)}, or null if the file has none.
+   */
+  public BlockIndex getBlockIndex() throws IOException {
+    if (!blockIndexRead) {
+      long position = sin.tell();
+      try {
+        blockIndex = BlockIndex.read(sin, getHeader(), resolveCodec());
+      } finally {
+        sin.seek(position);
+      }
+      blockIndexRead = true;
+    }
+    return blockIndex;
+  }
+
+  /**
+   * Move to a record, counting from zero, so that it is returned by the next call
+   * to {@link #next()}. Uses the file's {@link BlockIndex} when there is one.
+   * Otherwise block headers are read from the start of the file, skipping whole
+   * blocks without decompressing them. Records before the target within its
+   * block are skipped without being materialized. If the file has fewer records,
+   * moves to the end of the file.
+   */
+  public void seekToRecord(long record) throws IOException {
+    if (record < 0)
+      throw new IllegalArgumentException("Negative record number: " + record);
+    BlockIndex index = getBlockIndex();
+    long remaining = record;
+    if (index != null) {
+      int block = index.findBlock(record);
+      if (block < 0) {
+        seek(index.getPosition());
+        return;
+      }
+      seek(index.getOffset(block));
+      remaining -= index.getFirstRecord(block);
+    } else {
+      sync(0);
+      while (hasNextBlock() && remaining >= blockCount) {
+        remaining -= blockCount;
+        skipRawBlock();
+        blockFinished();
+      }
+      seek(previousSync()); // back to the start of the block just read
+    }
+    if (!hasNext())
+      return;
+    for (; remaining > 0; remaining--) {
+      GenericDatumReader.skip(getSchema(), datumIn);
+      blockRemaining--;
+    }
+  }
+
+  @Override
+  ByteBuffer sliceBlock(int length) throws IOException {
+    if (!(sin.in instanceof SeekableMappedFileInput))
+      return null;
+    long start = sin.tell() - vin.inputStream().available();
+    ByteBuffer slice = ((SeekableMappedFileInput) sin.in).slice(start, length);
+    if (slice != null)
+      vin.skipFixed(length);
+    return slice;
   }
 
   @Override
@@ -246,11 +347,13 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
       long position = in.tell();
       long length = in.length();
       long remaining = length - position;
-      if (remaining > skip) {
-        in.seek(skip);
+      if (skip <= 0) {
+        return 0;
+      } else if (remaining > skip) {
+        in.seek(position + skip);
         return in.tell() - position;
       } else {
-        in.seek(remaining);
+        in.seek(length);
         return in.tell() - position;
       }
     }
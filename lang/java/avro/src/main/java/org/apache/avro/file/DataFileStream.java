@@ -64,7 +64,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
 
   private DatumReader<D> reader;
   private long blockSize;
-  private boolean availableBlock = false;
+  boolean availableBlock = false;
   private Header header;
 
   /** Decoder on raw input stream. (Used for metadata.) */
@@ -209,11 +209,8 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
           }
         }
         if (hasNextBlock()) {
-          block = nextRawBlock(block);
-          block.decompressUsing(codec);
-          blockBuffer = block.getAsByteBuffer();
-          datumIn = DecoderFactory.get().binaryDecoder(blockBuffer.array(),
-              blockBuffer.arrayOffset() + blockBuffer.position(), blockBuffer.remaining(), datumIn);
+          blockBuffer = nextBlockBuffer();
+          datumIn = DecoderFactory.get().binaryDecoder(blockBuffer, datumIn);
         }
       }
       return blockRemaining != 0;
@@ -283,13 +280,18 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     try {
       if (availableBlock)
         return true;
-      if (vin.isEnd())
-        return false;
-      blockRemaining = vin.readLong(); // read block count
-      blockSize = vin.readLong(); // read block size
-      if (blockSize > Integer.MAX_VALUE || blockSize < 0) {
-        throw new IOException("Block size invalid or too large for this " + "implementation: " + blockSize);
-      }
+      do {
+        if (vin.isEnd())
+          return false;
+        blockRemaining = vin.readLong(); // read block count
+        blockSize = vin.readLong(); // read block size
+        if (blockSize > Integer.MAX_VALUE || blockSize < 0) {
+          throw new IOException("Block size invalid or too large for this " + "implementation: " + blockSize);
+        }
+        if (blockRemaining == 0) { // skip empty blocks, such as a block index
+          skipRawBlock();
+        }
+      } while (blockRemaining == 0);
       blockCount = blockRemaining;
       availableBlock = true;
       return true;
@@ -300,6 +302,33 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
   }
 
+  // Read and decompress the next block, without copying its raw data when the
+  // input can provide it in place.
+  private ByteBuffer nextBlockBuffer() throws IOException {
+    ByteBuffer data = sliceBlock((int) blockSize);
+    if (data == null) {
+      block = nextRawBlock(block);
+      block.decompressUsing(codec);
+      return block.getAsByteBuffer();
+    }
+    readSync();
+    if (!codec.acceptsDirectBuffers()) {
+      ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+      copy.put(data);
+      copy.flip();
+      data = copy;
+    }
+    return codec.decompress(data);
+  }
+
+  /**
+   * Return the raw data of the next block without copying it and advance past
+   * it, or return null if the input cannot provide it in place.
+   */
+  ByteBuffer sliceBlock(int length) throws IOException {
+    return null;
+  }
+
   DataBlock nextRawBlock(DataBlock reuse) throws IOException {
     if (!hasNextBlock()) {
       throw new NoSuchElementException();
@@ -312,11 +341,22 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
     // throws if it can't read the size requested
     vin.readFixed(reuse.data, 0, reuse.blockSize);
+    readSync();
+    return reuse;
+  }
+
+  /** Skip the data of the block whose header was read by hasNextBlock(). */
+  void skipRawBlock() throws IOException {
+    vin.skipFixed((int) blockSize);
+    readSync();
+    blockRemaining = 0;
+  }
+
+  private void readSync() throws IOException {
     vin.readFixed(syncBuffer);
     availableBlock = false;
     if (!Arrays.equals(syncBuffer, header.sync))
       throw new IOException("Invalid sync!");
-    return reuse;
   }
 
   /** Not supported. */
@@ -345,9 +385,14 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
 
     DataBlock(ByteBuffer block, long numEntries) {
-      this.data = block.array();
+      if (block.hasArray()) {
+        this.data = block.array();
+        this.offset = block.arrayOffset() + block.position();
+      } else {
+        this.data = new byte[block.remaining()];
+        block.duplicate().get(data);
+      }
       this.blockSize = block.remaining();
-      this.offset = block.arrayOffset() + block.position();
       this.numEntries = numEntries;
     }
 
@@ -24,21 +24,35 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FilterOutputStream;
+import java.io.FileOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileStream.DataBlock;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.EncoderFactory;
@@ -75,9 +89,23 @@ public class DataFileWriter<D> implements Closeable, Flushable {
 
   private boolean isOpen;
   private Codec codec;
+  private CodecFactory codecFactory;
 
   private boolean flushOnEveryBlock = true;
 
+  private int compressionThreads = 1;
+  private ExecutorService compressors; // null unless compressing in parallel
+  private BlockingQueue<Codec> codecPool; // one codec per compressor thread
+  private final ArrayDeque<Future<DataBlock>> pendingBlocks = new ArrayDeque<>();
+
+  private boolean writeBlockIndex;
+  private String sortFieldName;
+  private BlockIndex.Builder blockIndex; // null unless writing an index
+  private long startPosition; // of out in the file, when appending
+  private GenericData sortData;
+  private Object blockMin; // bounds of the sort field in the current block
+  private Object blockMax;
+
   /** Construct a writer, not yet open. */
   public DataFileWriter(DatumWriter<D> dout) {
     this.dout = dout;
@@ -99,11 +127,77 @@ public class DataFileWriter<D> implements Closeable, Flushable {
    */
   public DataFileWriter<D> setCodec(CodecFactory c) {
     assertNotOpen();
+    this.codecFactory = c;
     this.codec = c.createInstance();
     setMetaInternal(DataFileConstants.CODEC, codec.getName());
     return this;
   }
 
+  /**
+   * Configures this writer to compress blocks on a pool of the given number of
+   * threads. Blocks are still written to the file in the order they were filled,
+   * each followed by its sync marker. With the default of 1, blocks are
+   * compressed inline on the thread calling {@link #append(Object)}. May not be
+   * reset after writes have begun.
+   *
+   * At most twice the number of threads blocks are queued for compression at a
+   * time; {@link #append(Object)} blocks once that limit is reached.
+   *
+   * @param compressionThreads the number of threads used to compress blocks
+   * @return this DataFileWriter
+   */
+  public DataFileWriter<D> setCompressionThreads(int compressionThreads) {
+    assertNotOpen();
+    if (compressionThreads < 1) {
+      throw new IllegalArgumentException("Invalid compressionThreads value: " + compressionThreads);
+    }
+    this.compressionThreads = compressionThreads;
+    return this;
+  }
+
+  /** Return the number of threads used to compress blocks. */
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  /**
+   * Configures this writer to write a {@link BlockIndex} at the end of the file
+   * when it is closed, so that {@link DataFileReader#seekToRecord(long)} can find
+   * a record without reading the blocks before it. The index is written as a
+   * final block containing no records, which readers that do not know about it
+   * skip. May not be reset after writes have begun.
+   *
+   * When appending to a file that already has an index, the index is continued
+   * whether or not this is set.
+   *
+   * @param writeBlockIndex true to write an index
+   * @return this DataFileWriter
+   */
+  public DataFileWriter<D> setBlockIndex(boolean writeBlockIndex) {
+    assertNotOpen();
+    this.writeBlockIndex = writeBlockIndex;
+    this.sortFieldName = null;
+    return this;
+  }
+
+  /**
+   * Configures this writer to write a {@link BlockIndex} that also records the
+   * least and greatest values of a top-level field of the record schema in each
+   * block. Values are compared with the data model of this writer's
+   * {@link GenericDatumWriter}, or with {@link GenericData} for other datum
+   * writers.
+   *
+   * @param sortField the name of the field whose bounds are recorded
+   * @return this DataFileWriter
+   * @see #setBlockIndex(boolean)
+   */
+  public DataFileWriter<D> setBlockIndex(String sortField) {
+    assertNotOpen();
+    this.writeBlockIndex = true;
+    this.sortFieldName = sortField;
+    return this;
+  }
+
   /**
    * Set the synchronization interval for this file, in bytes. Valid values range
    * from 32 to 2^30 Suggested values are between 2K and 2M
@@ -219,22 +313,54 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     assertNotOpen();
     DataFileReader<D> reader = new DataFileReader<>(in, new GenericDatumReader<>());
     this.schema = reader.getSchema();
+    BlockIndex index = reader.getBlockIndex();
+    this.startPosition = in.length();
+    if (index != null) {
+      this.blockIndex = new BlockIndex.Builder(index);
+      if (out instanceof FileOutputStream) { // drop the old index
+        ((FileOutputStream) out).getChannel().truncate(index.getPosition());
+        this.startPosition = index.getPosition();
+      }
+    }
     this.sync = reader.getHeader().sync;
     this.meta.putAll(reader.getHeader().meta);
     byte[] codecBytes = this.meta.get(DataFileConstants.CODEC);
     if (codecBytes != null) {
       String strCodec = new String(codecBytes, StandardCharsets.UTF_8);
-      this.codec = CodecFactory.fromString(strCodec).createInstance();
+      this.codecFactory = CodecFactory.fromString(strCodec);
     } else {
-      this.codec = CodecFactory.nullCodec().createInstance();
+      this.codecFactory = CodecFactory.nullCodec();
     }
+    this.codec = codecFactory.createInstance();
 
     init(out);
 
+    if (blockIndex != null && index == null) {
+      // index the blocks already in the file
+      while (reader.hasNextBlock()) {
+        blockIndex.addBlock(reader.getBlockCount(), BlockIndex.UNKNOWN, BlockIndex.UNKNOWN);
+        blockIndex.setNextOffset(reader.previousSync());
+        reader.skipRawBlock();
+        reader.blockFinished();
+      }
+    }
     return this;
   }
 
   private void init(OutputStream outs) throws IOException {
+    if (writeBlockIndex && blockIndex == null) {
+      Schema.Field sortField = null;
+      if (sortFieldName != null) {
+        sortField = schema.getType() == Schema.Type.RECORD ? schema.getField(sortFieldName) : null;
+        if (sortField == null)
+          throw new AvroRuntimeException("Not a field of " + schema.getFullName() + ": " + sortFieldName);
+      }
+      this.blockIndex = new BlockIndex.Builder(sortField);
+    }
+    if (blockIndex != null && blockIndex.getSortField() != null) {
+      this.sortData = dout instanceof GenericDatumWriter ? ((GenericDatumWriter<?>) dout).getData()
+          : GenericData.get();
+    }
     this.underlyingStream = outs;
     this.out = new BufferedFileOutputStream(outs);
     EncoderFactory efactory = new EncoderFactory();
@@ -243,7 +369,15 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     buffer = new NonCopyingByteArrayOutputStream(Math.min((int) (syncInterval * 1.25), Integer.MAX_VALUE / 2 - 1));
     this.bufOut = efactory.binaryEncoder(buffer, null);
     if (this.codec == null) {
-      this.codec = CodecFactory.nullCodec().createInstance();
+      this.codecFactory = CodecFactory.nullCodec();
+      this.codec = codecFactory.createInstance();
+    }
+    if (compressionThreads > 1) {
+      this.codecPool = new ArrayBlockingQueue<>(compressionThreads);
+      for (int i = 0; i < compressionThreads; i++) {
+        codecPool.add(codecFactory.createInstance());
+      }
+      this.compressors = Executors.newFixedThreadPool(compressionThreads, new CompressorThreadFactory());
     }
     this.isOpen = true;
   }
@@ -312,6 +446,9 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     int usedBuffer = bufferInUse();
     try {
       dout.write(datum, bufOut);
+      if (sortData != null) {
+        updateBlockBounds(datum);
+      }
     } catch (IOException | RuntimeException e) {
       resetBufferTo(usedBuffer);
       throw new AppendWriteException(e);
@@ -320,6 +457,18 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     writeIfBlockFull();
   }
 
+  private void updateBlockBounds(D datum) {
+    if (blockMin == BlockIndex.UNKNOWN)
+      return;
+    Schema.Field field = blockIndex.getSortField();
+    Object value = sortData.getField(datum, field.name(), field.pos());
+    boolean first = blockCount == 0;
+    if (first || sortData.compare(value, blockMin, field.schema()) < 0)
+      blockMin = sortData.deepCopy(field.schema(), value);
+    if (first || sortData.compare(value, blockMax, field.schema()) > 0)
+      blockMax = sortData.deepCopy(field.schema(), value);
+  }
+
   // if there is an error encoding, flush the encoder and then
   // reset the buffer position to contain size bytes, discarding the rest.
   // Otherwise the file will be corrupt with a partial record.
@@ -338,6 +487,8 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public void appendEncoded(ByteBuffer datum) throws IOException {
     assertOpen();
     bufOut.writeFixed(datum);
+    blockMin = BlockIndex.UNKNOWN; // bounds of encoded data are not tracked
+    blockMax = BlockIndex.UNKNOWN;
     blockCount++;
     writeIfBlockFull();
   }
@@ -379,40 +530,112 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
     // flush anything written so far
     writeBlock();
+    writePendingBlocks(0);
     Codec otherCodec = otherFile.resolveCodec();
     DataBlock nextBlockRaw = null;
     if (codec.equals(otherCodec) && !recompress) {
       // copy raw bytes
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        writeCopiedBlock(nextBlockRaw);
       }
     } else {
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
         nextBlockRaw.decompressUsing(otherCodec);
         nextBlockRaw.compressUsing(codec);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        writeCopiedBlock(nextBlockRaw);
       }
     }
   }
 
+  private void writeCopiedBlock(DataBlock block) throws IOException {
+    if (blockIndex != null) {
+      blockIndex.addBlock(block.getNumEntries(), BlockIndex.UNKNOWN, BlockIndex.UNKNOWN);
+    }
+    writeBlockTo(block);
+  }
+
+  // Write a block to the file, noting its position in the index.
+  private void writeBlockTo(DataBlock block) throws IOException {
+    if (blockIndex != null) {
+      blockIndex.setNextOffset(startPosition + out.tell());
+    }
+    block.writeBlockTo(vout, sync);
+  }
+
   private void writeBlock() throws IOException {
     if (blockCount > 0) {
       try {
         bufOut.flush();
+        if (blockIndex != null) {
+          blockIndex.addBlock(blockCount, blockMin, blockMax);
+        }
         ByteBuffer uncompressed = buffer.getByteArrayAsByteBuffer();
-        DataBlock block = new DataBlock(uncompressed, blockCount);
-        block.setFlushOnWrite(flushOnEveryBlock);
-        block.compressUsing(codec);
-        block.writeBlockTo(vout, sync);
+        if (compressors != null) {
+          // the buffer is reused for the next block, so hand the workers a copy
+          byte[] data = Arrays.copyOfRange(uncompressed.array(), uncompressed.position(), uncompressed.limit());
+          DataBlock block = new DataBlock(ByteBuffer.wrap(data), blockCount);
+          block.setFlushOnWrite(flushOnEveryBlock);
+          writePendingBlocks(2 * compressionThreads - 1);
+          pendingBlocks.add(compressors.submit(() -> compressInPool(block)));
+        } else {
+          DataBlock block = new DataBlock(uncompressed, blockCount);
+          block.setFlushOnWrite(flushOnEveryBlock);
+          block.compressUsing(codec);
+          writeBlockTo(block);
+        }
       } finally {
         buffer.reset();
         blockCount = 0;
+        blockMin = null;
+        blockMax = null;
       }
     }
   }
 
+  private DataBlock compressInPool(DataBlock block) throws IOException, InterruptedException {
+    Codec c = codecPool.take();
+    try {
+      block.compressUsing(c);
+      return block;
+    } finally {
+      codecPool.add(c);
+    }
+  }
+
+  /**
+   * Writes blocks compressed by the pool, oldest first, waiting for each in turn
+   * until no more than maxPending blocks remain queued.
+   */
+  private void writePendingBlocks(int maxPending) throws IOException {
+    while (pendingBlocks.size() > maxPending) {
+      DataBlock block;
+      try {
+        block = pendingBlocks.peek().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while compressing block");
+      } catch (ExecutionException e) {
+        discardPendingBlocks();
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw new AvroRuntimeException(cause);
+      }
+      pendingBlocks.remove();
+      writeBlockTo(block);
+    }
+  }
+
+  private void discardPendingBlocks() {
+    for (Future<DataBlock> pending : pendingBlocks) {
+      pending.cancel(true);
+    }
+    pendingBlocks.clear();
+  }
+
   /**
    * Return the current position as a value that may be passed to
    * {@link DataFileReader#seek(long)}. Forces the end of the current block,
@@ -426,6 +649,7 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public long sync() throws IOException {
     assertOpen();
     writeBlock();
+    writePendingBlocks(0);
     return out.tell();
   }
 
@@ -457,9 +681,36 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   @Override
   public void close() throws IOException {
     if (isOpen) {
-      flush();
-      out.close();
-      isOpen = false;
+      try {
+        flush();
+        if (blockIndex != null) {
+          DataBlock index = new DataBlock(blockIndex.build(), 0);
+          index.compressUsing(codec);
+          index.writeBlockTo(vout, sync);
+          vout.flush();
+        }
+        out.close();
+        isOpen = false;
+      } finally {
+        if (compressors != null) {
+          discardPendingBlocks();
+          compressors.shutdownNow();
+          compressors = null;
+        }
+      }
+    }
+  }
+
+  private static class CompressorThreadFactory implements ThreadFactory {
+    private static final AtomicInteger WRITER_COUNT = new AtomicInteger();
+    private final int writer = WRITER_COUNT.incrementAndGet();
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "avro-block-compressor-" + writer + "-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
     }
   }
 
@@ -78,11 +78,26 @@ public class DeflateCodec extends Codec {
   public ByteBuffer decompress(ByteBuffer data) throws IOException {
     ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
     try (OutputStream outputStream = new InflaterOutputStream(baos, getInflater())) {
-      outputStream.write(data.array(), computeOffset(data), data.remaining());
+      if (data.hasArray()) {
+        outputStream.write(data.array(), computeOffset(data), data.remaining());
+      } else {
+        ByteBuffer source = data.duplicate();
+        byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+        while (source.hasRemaining()) {
+          int length = Math.min(source.remaining(), chunk.length);
+          source.get(chunk, 0, length);
+          outputStream.write(chunk, 0, length);
+        }
+      }
     }
     return ByteBuffer.wrap(baos.toByteArray());
   }
 
+  @Override
+  protected boolean acceptsDirectBuffers() {
+    return true;
+  }
+
   // get and initialize the inflater for use.
   private Inflater getInflater() {
     if (null == inflater) {
@@ -50,6 +50,11 @@ final class NullCodec extends Codec {
     return data;
   }
 
+  @Override
+  protected boolean acceptsDirectBuffers() {
+    return true;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other)
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream.DataBlock;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+
+/**
+ * Reads the blocks of a {@link DataFileStream} or {@link DataFileReader},
+ * decompressing and decoding the next few blocks on a pool of worker threads
+ * while the caller consumes the current one. Raw blocks are still read from the
+ * underlying input by the calling thread.
+ *
+ * Datums may be consumed either in file order, through {@link #hasNext()} and
+ * {@link #next()}, or in the order their blocks finish decoding, through
+ * {@link #spliterator()} or {@link #stream()}. Only one of the two may be used
+ * on a given reader.
+ *
+ * Reading starts at the block boundary the wrapped stream is positioned at: the
+ * stream must not be in the middle of a block, and must not be read from
+ * directly once wrapped.
+ *
+ * @see DataFileStream#nextBlock()
+ */
+public class ParallelDataFileReader<D> implements Iterator<D>, Iterable<D>, Closeable {
+  private static final AtomicInteger READER_COUNT = new AtomicInteger();
+
+  private final DataFileStream<D> in;
+  private final int prefetch;
+  private final ExecutorService workers;
+  private final ThreadLocal<Codec> codecs;
+  private final ThreadLocal<DatumReader<D>> readers;
+
+  /** A block already decompressed by the wrapped stream, if any. */
+  private DataBlock firstBlock;
+  private boolean eof;
+  private boolean ordered;
+  private boolean unordered;
+
+  private final ArrayDeque<Future<List<D>>> pending = new ArrayDeque<>();
+  private ExecutorCompletionService<List<D>> completed;
+  private int inFlight;
+  private Iterator<D> current = Collections.emptyIterator();
+
+  /**
+   * Construct a reader decoding up to twice the given number of threads blocks
+   * ahead of the caller.
+   *
+   * @param in      the stream to read blocks from.
+   * @param readers supplies one datum reader per worker thread. Its schema is set
+   *                to the file's schema; an expected schema must already be set
+   *                if needed.
+   * @param threads the number of threads decoding blocks.
+   */
+  public ParallelDataFileReader(DataFileStream<D> in, Supplier<DatumReader<D>> readers, int threads) {
+    this(in, readers, threads, 2 * threads);
+  }
+
+  /**
+   * Construct a reader.
+   *
+   * @param in       the stream to read blocks from.
+   * @param readers  supplies one datum reader per worker thread. Its schema is
+   *                 set to the file's schema; an expected schema must already be
+   *                 set if needed.
+   * @param threads  the number of threads decoding blocks.
+   * @param prefetch the maximum number of blocks being decoded or waiting to be
+   *                 consumed at any time.
+   */
+  public ParallelDataFileReader(DataFileStream<D> in, Supplier<DatumReader<D>> readers, int threads, int prefetch) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Invalid threads value: " + threads);
+    }
+    if (prefetch < 1) {
+      throw new IllegalArgumentException("Invalid prefetch value: " + prefetch);
+    }
+    if (in.blockRemaining != 0 && in.blockRemaining != in.blockCount) {
+      throw new IllegalStateException("Not at block start.");
+    }
+    this.in = in;
+    this.prefetch = prefetch;
+    this.codecs = ThreadLocal.withInitial(in::resolveCodec);
+    this.readers = ThreadLocal.withInitial(() -> {
+      DatumReader<D> reader = readers.get();
+      reader.setSchema(in.getSchema());
+      return reader;
+    });
+    if (in.blockRemaining != 0) {
+      // the stream has already read and decompressed its current block
+      long count = in.getBlockCount();
+      try {
+        this.firstBlock = new DataBlock(in.nextBlock(), count);
+      } catch (IOException e) {
+        throw new AvroRuntimeException(e);
+      }
+    }
+    int id = READER_COUNT.incrementAndGet();
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory factory = r -> {
+      Thread t = new Thread(r, "avro-block-reader-" + id + "-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+    this.workers = Executors.newFixedThreadPool(threads, factory);
+  }
+
+  /** Return the schema used in the wrapped file. */
+  public Schema getSchema() {
+    return in.getSchema();
+  }
+
+  /**
+   * Returns an iterator over entries in this file, in file order. Like
+   * {@link DataFileStream#iterator()}, this iterator is shared with other users
+   * of this reader.
+   */
+  @Override
+  public Iterator<D> iterator() {
+    return this;
+  }
+
+  /** True if more entries remain in this file. */
+  @Override
+  public boolean hasNext() {
+    if (unordered) {
+      throw new IllegalStateException("Reader already used unordered");
+    }
+    ordered = true;
+    try {
+      while (!current.hasNext()) {
+        fillPending();
+        if (pending.isEmpty()) {
+          return false;
+        }
+        current = await(pending.remove()).iterator();
+      }
+      return true;
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
+  /**
+   * Read the next datum in the file.
+   *
+   * @throws NoSuchElementException if no more remain in the file.
+   */
+  @Override
+  public D next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  /**
+   * Returns a spliterator over the entries in this file, yielding the datums of
+   * each block together, with blocks in the order they finish decoding rather
+   * than file order. The spliterator does not split: decoding already runs on
+   * this reader's threads.
+   */
+  @Override
+  public Spliterator<D> spliterator() {
+    if (ordered) {
+      throw new IllegalStateException("Reader already used in file order");
+    }
+    unordered = true;
+    completed = new ExecutorCompletionService<>(workers);
+    return new Spliterators.AbstractSpliterator<D>(Long.MAX_VALUE, 0) {
+      @Override
+      public boolean tryAdvance(Consumer<? super D> action) {
+        try {
+          while (!current.hasNext()) {
+            fillCompleted();
+            if (inFlight == 0) {
+              return false;
+            }
+            current = await(takeCompleted()).iterator();
+            inFlight--;
+          }
+        } catch (IOException e) {
+          throw new AvroRuntimeException(e);
+        }
+        action.accept(current.next());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns a sequential stream over the entries in this file, in the order their
+   * blocks finish decoding.
+   *
+   * @see #spliterator()
+   */
+  public Stream<D> stream() {
+    return StreamSupport.stream(spliterator(), false).onClose(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new AvroRuntimeException(e);
+      }
+    });
+  }
+
+  private void fillPending() throws IOException {
+    while (pending.size() < prefetch) {
+      DataBlock block = nextBlock();
+      if (block == null) {
+        return;
+      }
+      pending.add(submit(block));
+    }
+  }
+
+  private void fillCompleted() throws IOException {
+    while (inFlight < prefetch) {
+      DataBlock block = nextBlock();
+      if (block == null) {
+        return;
+      }
+      submit(block);
+      inFlight++;
+    }
+  }
+
+  private Future<List<D>> submit(DataBlock block) {
+    boolean compressed = block != firstBlock;
+    firstBlock = null;
+    if (completed != null) {
+      return completed.submit(() -> decode(block, compressed));
+    }
+    return workers.submit(() -> decode(block, compressed));
+  }
+
+  /** Reads the next raw block, or returns null at the end of the file. */
+  private DataBlock nextBlock() throws IOException {
+    if (firstBlock != null) {
+      return firstBlock;
+    }
+    if (eof || !in.hasNextBlock()) {
+      eof = true;
+      return null;
+    }
+    return in.nextRawBlock(null);
+  }
+
+  private List<D> decode(DataBlock block, boolean compressed) throws IOException {
+    if (compressed) {
+      block.decompressUsing(codecs.get());
+    }
+    DatumReader<D> reader = readers.get();
+    ByteBuffer data = block.getAsByteBuffer();
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data.array(), data.arrayOffset() + data.position(),
+        data.remaining(), null);
+    long count = block.getNumEntries();
+    List<D> datums = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+    for (long i = 0; i < count; i++) {
+      datums.add(reader.read(null, decoder));
+    }
+    if (!decoder.isEnd()) {
+      throw new IOException("Block read partially, the data may be corrupt");
+    }
+    return datums;
+  }
+
+  private Future<List<D>> takeCompleted() throws IOException {
+    try {
+      return completed.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decoding block");
+    }
+  }
+
+  private List<D> await(Future<List<D>> block) throws IOException {
+    try {
+      return block.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decoding block");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new AvroRuntimeException(cause);
+    }
+  }
+
+  /** Not supported. */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** Stop the worker threads and close the wrapped stream. */
+  @Override
+  public void close() throws IOException {
+    workers.shutdownNow();
+    in.close();
+  }
+}
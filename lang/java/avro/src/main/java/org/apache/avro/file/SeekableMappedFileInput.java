@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link SeekableInput} backed by a memory-mapped file. Files larger than a
+ * single mapping are mapped in consecutive segments.
+ * <p/>
+ * When used with {@link DataFileReader}, blocks that lie within one segment are
+ * handed to the codec as slices of the mapping rather than being copied to the
+ * heap first. With the null codec, the decoder reads the slice through its own
+ * buffer, a chunk at a time. The mapping is released when this object is
+ * garbage collected, not when it is closed.
+ */
+public class SeekableMappedFileInput implements SeekableInput {
+  static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+  private final ByteBuffer[] segments;
+  private final int segmentSize;
+  private final long length;
+  private long position;
+
+  public SeekableMappedFileInput(File file) throws IOException {
+    this(file, DEFAULT_SEGMENT_SIZE);
+  }
+
+  SeekableMappedFileInput(File file, int segmentSize) throws IOException {
+    this.segmentSize = segmentSize;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+      this.length = channel.size();
+      int count = (int) ((length + segmentSize - 1) / segmentSize);
+      this.segments = new ByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long start = (long) i * segmentSize;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, length - start));
+      }
+    }
+  }
+
+  @Override
+  public void seek(long p) throws IOException {
+    if (p < 0 || p > length)
+      throw new IOException("Illegal seek: " + p);
+    position = p;
+  }
+
+  @Override
+  public long tell() throws IOException {
+    return position;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return length;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0)
+      return 0;
+    if (position >= length)
+      return -1;
+    int n = (int) Math.min(len, length - position);
+    int read = 0;
+    while (read < n) {
+      ByteBuffer segment = segments[(int) (position / segmentSize)].duplicate();
+      segment.position((int) (position % segmentSize));
+      int chunk = Math.min(n - read, segment.remaining());
+      segment.get(b, off + read, chunk);
+      read += chunk;
+      position += chunk;
+    }
+    return read;
+  }
+
+  /**
+   * Returns a read-only view of <i>len</i> bytes starting at <i>start</i>, or
+   * null if that range spans more than one segment.
+   */
+  ByteBuffer slice(long start, int len) {
+    int index = (int) (start / segmentSize);
+    int offset = (int) (start % segmentSize);
+    if (index >= segments.length || offset + len > segments[index].capacity())
+      return null;
+    ByteBuffer view = segments[index].duplicate();
+    view.position(offset);
+    view.limit(offset + len);
+    return view.slice();
+  }
+
+  @Override
+  public void close() throws IOException {
+    // nothing to release: the channel is closed once the file is mapped
+  }
+}
@@ -17,7 +17,6 @@
  */
 package org.apache.avro.file;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -69,7 +68,7 @@ public class XZCodec extends Codec {
   @Override
   public ByteBuffer decompress(ByteBuffer data) throws IOException {
     ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
-    InputStream bytesIn = new ByteArrayInputStream(data.array(), computeOffset(data), data.remaining());
+    InputStream bytesIn = asInputStream(data);
 
     try (InputStream ios = new XZCompressorInputStream(bytesIn)) {
       IOUtils.copy(ios, baos);
@@ -77,6 +76,11 @@ public class XZCodec extends Codec {
     return ByteBuffer.wrap(baos.toByteArray());
   }
 
+  @Override
+  protected boolean acceptsDirectBuffers() {
+    return true;
+  }
+
   // get and initialize the output buffer for use.
   private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
     if (null == outputBuffer) {
@@ -17,7 +17,6 @@
  */
 package org.apache.avro.file;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -73,14 +72,18 @@ public class ZstandardCodec extends Codec {
   @Override
   public ByteBuffer decompress(ByteBuffer compressedData) throws IOException {
     ByteArrayOutputStream baos = getOutputBuffer(compressedData.remaining());
-    InputStream bytesIn = new ByteArrayInputStream(compressedData.array(), computeOffset(compressedData),
-        compressedData.remaining());
+    InputStream bytesIn = asInputStream(compressedData);
     try (InputStream ios = ZstandardLoader.input(bytesIn)) {
       IOUtils.copy(ios, baos);
     }
     return ByteBuffer.wrap(baos.toByteArray());
   }
 
+  @Override
+  protected boolean acceptsDirectBuffers() {
+    return true;
+  }
+
   // get and initialize the output buffer for use.
   private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
     if (outputBuffer == null) {
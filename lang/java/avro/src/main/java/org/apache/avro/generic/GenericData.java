@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 import org.apache.avro.AvroMissingFieldException;
@@ -52,7 +53,9 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.io.FastReaderBuilder;
+import org.apache.avro.io.FastWriterBuilder;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 import org.apache.avro.util.internal.Accessor;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -88,6 +91,56 @@ public class GenericData {
       s.addProp(GenericData.STRING_PROP, GenericData.STRING_TYPE_STRING);
   }
 
+  /**
+   * A string schema property that, when true, makes readers return a shared
+   * instance for each distinct value, from a bounded {@link Utf8Interner}, rather
+   * than decoding each value into a new or reused one.
+   */
+  public static final String INTERN_PROP = "avro.java.intern";
+
+  /**
+   * Intern the values read with this schema. Suits strings with few distinct
+   * values, such as codes or categories. Interned {@link Utf8} values are shared
+   * and must not be modified. For a string schema this adds
+   * {@link #INTERN_PROP}; for any other schema it does so for every string schema
+   * within it. Readers find the interned schemas when they start reading, so mark
+   * schemas before reading with them.
+   */
+  public static void setInterned(Schema s) {
+    setInterned(s, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  private static void setInterned(Schema s, Set<Schema> seen) {
+    if (!seen.add(s))
+      return;
+    switch (s.getType()) {
+    case STRING:
+      if (!isInterned(s))
+        s.addProp(INTERN_PROP, true);
+      break;
+    case RECORD:
+      for (Field f : s.getFields())
+        setInterned(f.schema(), seen);
+      break;
+    case ARRAY:
+      setInterned(s.getElementType(), seen);
+      break;
+    case MAP:
+      setInterned(s.getValueType(), seen);
+      break;
+    case UNION:
+      for (Schema branch : s.getTypes())
+        setInterned(branch, seen);
+      break;
+    default:
+    }
+  }
+
+  /** Return true if values read with a string schema are interned. */
+  public static boolean isInterned(Schema s) {
+    return Boolean.TRUE.equals(s.getObjectProp(INTERN_PROP));
+  }
+
   /** Return the singleton instance. */
   public static GenericData get() {
     return INSTANCE;
@@ -199,6 +252,26 @@ public class GenericData {
     return this.fastReaderBuilder;
   }
 
+  public static final String FAST_WRITER_PROP = "org.apache.avro.fastwrite";
+  private boolean fastWriterEnabled = "true".equalsIgnoreCase(System.getProperty(FAST_WRITER_PROP));
+  private FastWriterBuilder fastWriterBuilder = null;
+
+  public GenericData setFastWriterEnabled(boolean flag) {
+    this.fastWriterEnabled = flag;
+    return this;
+  }
+
+  public boolean isFastWriterEnabled() {
+    return fastWriterEnabled && FastWriterBuilder.isSupportedData(this);
+  }
+
+  public FastWriterBuilder getFastWriterBuilder() {
+    if (fastWriterBuilder == null) {
+      fastWriterBuilder = new FastWriterBuilder(this);
+    }
+    return this.fastWriterBuilder;
+  }
+
   /**
    * Default implementation of {@link GenericRecord}. Note that this
    * implementation does not fill in default values for fields if they are not
@@ -1369,18 +1442,29 @@ public class GenericData {
 
   /**
    * Called to create new array instances. Subclasses may override to use a
-   * different array implementation. By default, this returns a
-   * {@link GenericData.Array}.
+   * different array implementation. By default, this returns one of the
+   * {@link PrimitivesArrays} for arrays of primitive elements that have no
+   * conversion, and a {@link GenericData.Array} otherwise. The primitive arrays
+   * reject null elements and elements of other types.
    */
   public Object newArray(Object old, int size, Schema schema) {
-    if (old instanceof GenericArray) {
+    boolean primitive = getConversionFor(schema.getElementType().getLogicalType()) == null;
+    if (old instanceof PrimitivesArrays.PrimitiveArray) {
+      // only reuse if the element types still match
+      GenericArray<?> array = (GenericArray<?>) old;
+      if (primitive && array.getSchema().getElementType().getType() == schema.getElementType().getType()) {
+        array.reset();
+        return array;
+      }
+    } else if (old instanceof GenericArray) {
       ((GenericArray<?>) old).reset();
       return old;
     } else if (old instanceof Collection) {
       ((Collection<?>) old).clear();
       return old;
-    } else
-      return new GenericData.Array<Object>(size, schema);
+    }
+    GenericArray<?> array = primitive ? PrimitivesArrays.newArray(size, schema) : null;
+    return array != null ? array : new GenericData.Array<Object>(size, schema);
   }
 
   /**
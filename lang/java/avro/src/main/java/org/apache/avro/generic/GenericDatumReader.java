@@ -22,9 +22,11 @@ import java.nio.ByteBuffer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Conversion;
@@ -35,9 +37,10 @@ import org.apache.avro.Schema.Field;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.ResolverCache;
 import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.util.Utf8;
-import org.apache.avro.util.WeakIdentityHashMap;
+import org.apache.avro.util.Utf8Interner;
 
 /** {@link DatumReader} for generic Java objects. */
 public class GenericDatumReader<D> implements DatumReader<D> {
@@ -48,6 +51,7 @@ public class GenericDatumReader<D> implements DatumReader<D> {
 
   private ResolvingDecoder creatorResolver = null;
   private final Thread creator;
+  private volatile Resolution resolution = null;
 
   public GenericDatumReader() {
     this(null, null, GenericData.get());
@@ -92,6 +96,7 @@ public class GenericDatumReader<D> implements DatumReader<D> {
     }
     creatorResolver = null;
     fastDatumReader = null;
+    interners = null;
   }
 
   /** Get the reader's schema. */
@@ -103,33 +108,28 @@ public class GenericDatumReader<D> implements DatumReader<D> {
   public void setExpected(Schema reader) {
     this.expected = reader;
     creatorResolver = null;
+    interners = null;
   }
 
-  private static final ThreadLocal<Map<Schema, Map<Schema, ResolvingDecoder>>> RESOLVER_CACHE = ThreadLocal
-      .withInitial(WeakIdentityHashMap::new);
-
   /**
    * Gets a resolving decoder for use by this GenericDatumReader. Unstable API.
-   * Currently uses a thread local cache to prevent constructing the resolvers too
-   * often, because that is very expensive.
+   * Resolvers are shared by all threads through {@link ResolverCache#get()},
+   * because constructing them is very expensive. The decoder returned to the
+   * thread that created this reader is reused; other threads get a new decoder
+   * around the shared resolver.
    */
   protected final ResolvingDecoder getResolver(Schema actual, Schema expected) throws IOException {
     Thread currThread = Thread.currentThread();
-    ResolvingDecoder resolver;
     if (currThread == creator && creatorResolver != null) {
       return creatorResolver;
     }
 
-    Map<Schema, ResolvingDecoder> cache = RESOLVER_CACHE.get().get(actual);
-    if (cache == null) {
-      cache = new WeakIdentityHashMap<>();
-      RESOLVER_CACHE.get().put(actual, cache);
-    }
-    resolver = cache.get(expected);
-    if (resolver == null) {
-      resolver = DecoderFactory.get().resolvingDecoder(Schema.applyAliases(actual, expected), expected, null);
-      cache.put(expected, resolver);
+    Resolution resolution = this.resolution;
+    if (resolution == null || resolution.actual != actual || resolution.expected != expected) {
+      resolution = new Resolution(actual, expected, ResolverCache.get().getResolver(actual, expected));
+      this.resolution = resolution;
     }
+    ResolvingDecoder resolver = DecoderFactory.get().resolvingDecoder(resolution.resolver, null);
 
     if (currThread == creator) {
       creatorResolver = resolver;
@@ -290,6 +290,9 @@ public class GenericDatumReader<D> implements DatumReader<D> {
       LogicalType logicalType = expectedType.getLogicalType();
       Conversion<?> conversion = getData().getConversionFor(logicalType);
       Object array = newArray(old, (int) l, expected);
+      if (array instanceof PrimitivesArrays.PrimitiveArray) {
+        return readPrimitiveArray((PrimitivesArrays.PrimitiveArray<?>) array, l, in);
+      }
       do {
         if (logicalType != null && conversion != null) {
           for (long i = 0; i < l; i++) {
@@ -309,6 +312,15 @@ public class GenericDatumReader<D> implements DatumReader<D> {
     }
   }
 
+  // Fill an array of primitives without boxing its elements.
+  private static Object readPrimitiveArray(PrimitivesArrays.PrimitiveArray<?> array, long l, ResolvingDecoder in)
+      throws IOException {
+    do {
+      array.readElements(in, l);
+    } while ((l = in.arrayNext()) > 0);
+    return array;
+  }
+
   private Object pruneArray(Object object) {
     if (object instanceof GenericArray<?>) {
       ((GenericArray<?>) object).prune();
@@ -455,6 +467,25 @@ public class GenericDatumReader<D> implements DatumReader<D> {
    */
   protected Object readString(Object old, Schema expected, Decoder in) throws IOException {
     Class stringClass = getStringClass(expected);
+    Map<Schema, Utf8Interner> interners = this.interners;
+    if (interners == null) {
+      interners = findInterners(this.expected);
+      this.interners = interners;
+    }
+    Utf8Interner interner = interners.get(expected);
+    if (interner == null) {
+      interner = addInterner(expected);
+    }
+    if (interner != NOT_INTERNED) {
+      Utf8 interned = in.readInternedString(interner);
+      if (stringClass == String.class) {
+        return interned.toString();
+      }
+      if (stringClass == CharSequence.class) {
+        return interned;
+      }
+      return newInstanceFromString(stringClass, interned.toString());
+    }
     if (stringClass == String.class) {
       return in.readString();
     }
@@ -511,6 +542,72 @@ public class GenericDatumReader<D> implements DatumReader<D> {
     return c;
   }
 
+  // The tables of the interned string schemas within the reader's schema,
+  // found on the first string read after the schemas are set, as the fast
+  // reader does when it is built. Other string schemas map to NOT_INTERNED.
+  // Shared by threads, as interned values may be, so it is copied on write.
+  private volatile Map<Schema, Utf8Interner> interners = null;
+
+  private static final Utf8Interner NOT_INTERNED = new Utf8Interner(1);
+
+  /**
+   * Add the table for a string schema that is not within the reader's schema,
+   * such as an equal instance that a subclass or a cached grammar reads with.
+   */
+  private synchronized Utf8Interner addInterner(Schema schema) {
+    Map<Schema, Utf8Interner> interners = this.interners;
+    if (interners == null) {
+      interners = findInterners(this.expected);
+    }
+    Utf8Interner interner = interners.get(schema);
+    if (interner == null) {
+      interner = GenericData.isInterned(schema) ? new Utf8Interner() : NOT_INTERNED;
+      interners = new IdentityHashMap<>(interners);
+      interners.put(schema, interner);
+      this.interners = interners;
+    }
+    return interner;
+  }
+
+  /**
+   * Return a table for each string schema within a schema, or
+   * {@link #NOT_INTERNED} for those whose values are not interned.
+   *
+   * @see GenericData#INTERN_PROP
+   */
+  private static Map<Schema, Utf8Interner> findInterners(Schema schema) {
+    Map<Schema, Utf8Interner> result = new IdentityHashMap<>();
+    if (schema != null) {
+      findInterners(schema, result, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+    return result;
+  }
+
+  private static void findInterners(Schema s, Map<Schema, Utf8Interner> result, Set<Schema> seen) {
+    if (!seen.add(s))
+      return;
+    switch (s.getType()) {
+    case STRING:
+      result.put(s, GenericData.isInterned(s) ? new Utf8Interner() : NOT_INTERNED);
+      break;
+    case RECORD:
+      for (Field f : s.getFields())
+        findInterners(f.schema(), result, seen);
+      break;
+    case ARRAY:
+      findInterners(s.getElementType(), result, seen);
+      break;
+    case MAP:
+      findInterners(s.getValueType(), result, seen);
+      break;
+    case UNION:
+      for (Schema branch : s.getTypes())
+        findInterners(branch, result, seen);
+      break;
+    default:
+    }
+  }
+
   private final Map<Class, Constructor> stringCtorCache = new HashMap<>();
 
   @SuppressWarnings("unchecked")
@@ -626,4 +723,16 @@ public class GenericDatumReader<D> implements DatumReader<D> {
     }
   }
 
+  /** A pair of schemas and their resolver. */
+  private static final class Resolution {
+    private final Schema actual;
+    private final Schema expected;
+    private final Object resolver;
+
+    Resolution(Schema actual, Schema expected, Object resolver) {
+      this.actual = actual;
+      this.expected = expected;
+      this.resolver = resolver;
+    }
+  }
 }
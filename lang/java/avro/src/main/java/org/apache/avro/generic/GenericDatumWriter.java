@@ -41,6 +41,7 @@ import org.apache.avro.io.Encoder;
 public class GenericDatumWriter<D> implements DatumWriter<D> {
   private final GenericData data;
   private Schema root;
+  private DatumWriter<Object> fastDatumWriter = null;
 
   public GenericDatumWriter() {
     this(GenericData.get());
@@ -67,10 +68,20 @@ public class GenericDatumWriter<D> implements DatumWriter<D> {
 
   public void setSchema(Schema root) {
     this.root = root;
+    this.fastDatumWriter = null;
   }
 
   public void write(D datum, Encoder out) throws IOException {
     Objects.requireNonNull(out, "Encoder cannot be null");
+    // subclasses may override any of the methods below, so only use the
+    // specialized writer when they cannot
+    if (getClass() == GenericDatumWriter.class && data.isFastWriterEnabled()) {
+      if (this.fastDatumWriter == null) {
+        this.fastDatumWriter = data.getFastWriterBuilder().createDatumWriter(root);
+      }
+      fastDatumWriter.write(datum, out);
+      return;
+    }
     write(root, datum, out);
   }
 
@@ -253,6 +264,11 @@ public class GenericDatumWriter<D> implements DatumWriter<D> {
    */
   protected void writeArray(Schema schema, Object datum, Encoder out) throws IOException {
     Schema element = schema.getElementType();
+    if (datum instanceof PrimitivesArrays.PrimitiveArray
+        && ((PrimitivesArrays.PrimitiveArray<?>) datum).getSchema().getElementType().getType() == element.getType()) {
+      writePrimitiveArray((PrimitivesArrays.PrimitiveArray<?>) datum, out);
+      return;
+    }
     long size = getArraySize(datum);
     long actualSize = 0;
     out.writeArrayStart();
@@ -269,6 +285,14 @@ public class GenericDatumWriter<D> implements DatumWriter<D> {
     }
   }
 
+  // Write an array of primitives without boxing its elements.
+  private static void writePrimitiveArray(PrimitivesArrays.PrimitiveArray<?> array, Encoder out) throws IOException {
+    out.writeArrayStart();
+    out.setItemCount(array.size());
+    array.writeElements(out);
+    out.writeArrayEnd();
+  }
+
   /**
    * Called to find the index for a datum within a union. By default calls
    * {@link GenericData#resolveUnion(Schema,Object)}.
@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+/**
+ * {@link GenericArray} implementations for arrays of primitive types, which
+ * store their elements unboxed. {@link GenericData#newArray(Object, int, Schema)}
+ * returns these for arrays of int, long, float, double and boolean whose
+ * elements have no logical type conversion. Besides the {@link java.util.List}
+ * methods, which box, each provides primitive accessors that do not.
+ * <p/>
+ * Unlike {@link GenericData.Array}, these hold only values of their element
+ * type: adding or setting null throws {@link NullPointerException}, and adding
+ * an element of another type throws {@link ClassCastException}. Code that
+ * builds arrays of other values should create a {@link GenericData.Array}.
+ */
+public final class PrimitivesArrays {
+  private PrimitivesArrays() {
+  }
+
+  /**
+   * Return a primitive array for a schema, or null if its elements are not of a
+   * primitive type.
+   */
+  static GenericArray<?> newArray(int capacity, Schema schema) {
+    switch (schema.getElementType().getType()) {
+    case INT:
+      return new IntArray(capacity, schema);
+    case LONG:
+      return new LongArray(capacity, schema);
+    case FLOAT:
+      return new FloatArray(capacity, schema);
+    case DOUBLE:
+      return new DoubleArray(capacity, schema);
+    case BOOLEAN:
+      return new BooleanArray(capacity, schema);
+    default:
+      return null;
+    }
+  }
+
+  /** Base class of the primitive arrays. */
+  public abstract static class PrimitiveArray<T> extends AbstractList<T>
+      implements GenericArray<T>, Comparable<GenericArray<T>> {
+    private final Schema schema;
+    protected int size;
+
+    PrimitiveArray(Schema schema, Type elementType) {
+      if (schema == null || !Type.ARRAY.equals(schema.getType()))
+        throw new AvroRuntimeException("Not an array schema: " + schema);
+      if (schema.getElementType().getType() != elementType)
+        throw new AvroRuntimeException("Not an array of " + elementType.getName() + ": " + schema);
+      this.schema = schema;
+    }
+
+    @Override
+    public Schema getSchema() {
+      return schema;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      size = 0;
+    }
+
+    /** Primitive elements are never reused. */
+    @Override
+    public T peek() {
+      return null;
+    }
+
+    @Override
+    public int compareTo(GenericArray<T> that) {
+      return GenericData.get().compare(this, that, this.getSchema());
+    }
+
+    /** Expert: append <i>count</i> elements read from a decoder. */
+    public abstract void readElements(Decoder in, long count) throws IOException;
+
+    /**
+     * Expert: write the elements as the items of an array whose start and item
+     * count have already been written.
+     */
+    public abstract void writeElements(Encoder out) throws IOException;
+
+    protected void checkIndex(int i) {
+      if (i >= size || i < 0)
+        throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+
+    protected void checkLocation(int location) {
+      if (location > size || location < 0)
+        throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
+    }
+
+    // Increase size by 1.5x + 1, as GenericData.Array does
+    protected static int grownCapacity(int size) {
+      return size + (size >> 1) + 1;
+    }
+  }
+
+  /** An array of int values, stored unboxed. */
+  public static class IntArray extends PrimitiveArray<Integer> {
+    private static final int[] EMPTY = new int[0];
+    private int[] elements = EMPTY;
+
+    public IntArray(int capacity, Schema schema) {
+      super(schema, Type.INT);
+      if (capacity != 0)
+        elements = new int[capacity];
+    }
+
+    @Override
+    public void readElements(Decoder in, long count) throws IOException {
+      int needed = (int) (size + count);
+      if (needed > elements.length)
+        elements = Arrays.copyOf(elements, Math.max(needed, grownCapacity(size)));
+      for (int i = 0; i < count; i++)
+        elements[size++] = in.readInt();
+    }
+
+    @Override
+    public void writeElements(Encoder out) throws IOException {
+      for (int i = 0; i < size; i++) {
+        out.startItem();
+        out.writeInt(elements[i]);
+      }
+    }
+
+    /** Return an element without boxing it. */
+    public int getInt(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Append an element without boxing it. */
+    public void addInt(int value) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      elements[size++] = value;
+    }
+
+    /** Replace an element without boxing it, returning the previous value. */
+    public int setInt(int i, int value) {
+      checkIndex(i);
+      int previous = elements[i];
+      elements[i] = value;
+      return previous;
+    }
+
+    @Override
+    public Integer get(int i) {
+      return getInt(i);
+    }
+
+    @Override
+    public boolean add(Integer o) {
+      addInt(o);
+      return true;
+    }
+
+    @Override
+    public void add(int location, Integer o) {
+      checkLocation(location);
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Integer set(int i, Integer o) {
+      return setInt(i, o);
+    }
+
+    @Override
+    public Integer remove(int i) {
+      checkIndex(i);
+      int result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        int tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+  }
+
+  /** An array of long values, stored unboxed. */
+  public static class LongArray extends PrimitiveArray<Long> {
+    private static final long[] EMPTY = new long[0];
+    private long[] elements = EMPTY;
+
+    public LongArray(int capacity, Schema schema) {
+      super(schema, Type.LONG);
+      if (capacity != 0)
+        elements = new long[capacity];
+    }
+
+    @Override
+    public void readElements(Decoder in, long count) throws IOException {
+      int needed = (int) (size + count);
+      if (needed > elements.length)
+        elements = Arrays.copyOf(elements, Math.max(needed, grownCapacity(size)));
+      for (int i = 0; i < count; i++)
+        elements[size++] = in.readLong();
+    }
+
+    @Override
+    public void writeElements(Encoder out) throws IOException {
+      for (int i = 0; i < size; i++) {
+        out.startItem();
+        out.writeLong(elements[i]);
+      }
+    }
+
+    /** Return an element without boxing it. */
+    public long getLong(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Append an element without boxing it. */
+    public void addLong(long value) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      elements[size++] = value;
+    }
+
+    /** Replace an element without boxing it, returning the previous value. */
+    public long setLong(int i, long value) {
+      checkIndex(i);
+      long previous = elements[i];
+      elements[i] = value;
+      return previous;
+    }
+
+    @Override
+    public Long get(int i) {
+      return getLong(i);
+    }
+
+    @Override
+    public boolean add(Long o) {
+      addLong(o);
+      return true;
+    }
+
+    @Override
+    public void add(int location, Long o) {
+      checkLocation(location);
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Long set(int i, Long o) {
+      return setLong(i, o);
+    }
+
+    @Override
+    public Long remove(int i) {
+      checkIndex(i);
+      long result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        long tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+  }
+
+  /** An array of float values, stored unboxed. */
+  public static class FloatArray extends PrimitiveArray<Float> {
+    private static final float[] EMPTY = new float[0];
+    private float[] elements = EMPTY;
+
+    public FloatArray(int capacity, Schema schema) {
+      super(schema, Type.FLOAT);
+      if (capacity != 0)
+        elements = new float[capacity];
+    }
+
+    @Override
+    public void readElements(Decoder in, long count) throws IOException {
+      int needed = (int) (size + count);
+      if (needed > elements.length)
+        elements = Arrays.copyOf(elements, Math.max(needed, grownCapacity(size)));
+      for (int i = 0; i < count; i++)
+        elements[size++] = in.readFloat();
+    }
+
+    @Override
+    public void writeElements(Encoder out) throws IOException {
+      for (int i = 0; i < size; i++) {
+        out.startItem();
+        out.writeFloat(elements[i]);
+      }
+    }
+
+    /** Return an element without boxing it. */
+    public float getFloat(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Append an element without boxing it. */
+    public void addFloat(float value) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      elements[size++] = value;
+    }
+
+    /** Replace an element without boxing it, returning the previous value. */
+    public float setFloat(int i, float value) {
+      checkIndex(i);
+      float previous = elements[i];
+      elements[i] = value;
+      return previous;
+    }
+
+    @Override
+    public Float get(int i) {
+      return getFloat(i);
+    }
+
+    @Override
+    public boolean add(Float o) {
+      addFloat(o);
+      return true;
+    }
+
+    @Override
+    public void add(int location, Float o) {
+      checkLocation(location);
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Float set(int i, Float o) {
+      return setFloat(i, o);
+    }
+
+    @Override
+    public Float remove(int i) {
+      checkIndex(i);
+      float result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        float tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+  }
+
+  /** An array of double values, stored unboxed. */
+  public static class DoubleArray extends PrimitiveArray<Double> {
+    private static final double[] EMPTY = new double[0];
+    private double[] elements = EMPTY;
+
+    public DoubleArray(int capacity, Schema schema) {
+      super(schema, Type.DOUBLE);
+      if (capacity != 0)
+        elements = new double[capacity];
+    }
+
+    @Override
+    public void readElements(Decoder in, long count) throws IOException {
+      int needed = (int) (size + count);
+      if (needed > elements.length)
+        elements = Arrays.copyOf(elements, Math.max(needed, grownCapacity(size)));
+      for (int i = 0; i < count; i++)
+        elements[size++] = in.readDouble();
+    }
+
+    @Override
+    public void writeElements(Encoder out) throws IOException {
+      for (int i = 0; i < size; i++) {
+        out.startItem();
+        out.writeDouble(elements[i]);
+      }
+    }
+
+    /** Return an element without boxing it. */
+    public double getDouble(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Append an element without boxing it. */
+    public void addDouble(double value) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      elements[size++] = value;
+    }
+
+    /** Replace an element without boxing it, returning the previous value. */
+    public double setDouble(int i, double value) {
+      checkIndex(i);
+      double previous = elements[i];
+      elements[i] = value;
+      return previous;
+    }
+
+    @Override
+    public Double get(int i) {
+      return getDouble(i);
+    }
+
+    @Override
+    public boolean add(Double o) {
+      addDouble(o);
+      return true;
+    }
+
+    @Override
+    public void add(int location, Double o) {
+      checkLocation(location);
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Double set(int i, Double o) {
+      return setDouble(i, o);
+    }
+
+    @Override
+    public Double remove(int i) {
+      checkIndex(i);
+      double result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        double tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+  }
+
+  /** An array of boolean values, stored unboxed. */
+  public static class BooleanArray extends PrimitiveArray<Boolean> {
+    private static final boolean[] EMPTY = new boolean[0];
+    private boolean[] elements = EMPTY;
+
+    public BooleanArray(int capacity, Schema schema) {
+      super(schema, Type.BOOLEAN);
+      if (capacity != 0)
+        elements = new boolean[capacity];
+    }
+
+    @Override
+    public void readElements(Decoder in, long count) throws IOException {
+      int needed = (int) (size + count);
+      if (needed > elements.length)
+        elements = Arrays.copyOf(elements, Math.max(needed, grownCapacity(size)));
+      for (int i = 0; i < count; i++)
+        elements[size++] = in.readBoolean();
+    }
+
+    @Override
+    public void writeElements(Encoder out) throws IOException {
+      for (int i = 0; i < size; i++) {
+        out.startItem();
+        out.writeBoolean(elements[i]);
+      }
+    }
+
+    /** Return an element without boxing it. */
+    public boolean getBoolean(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Append an element without boxing it. */
+    public void addBoolean(boolean value) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      elements[size++] = value;
+    }
+
+    /** Replace an element without boxing it, returning the previous value. */
+    public boolean setBoolean(int i, boolean value) {
+      checkIndex(i);
+      boolean previous = elements[i];
+      elements[i] = value;
+      return previous;
+    }
+
+    @Override
+    public Boolean get(int i) {
+      return getBoolean(i);
+    }
+
+    @Override
+    public boolean add(Boolean o) {
+      addBoolean(o);
+      return true;
+    }
+
+    @Override
+    public void add(int location, Boolean o) {
+      checkLocation(location);
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, grownCapacity(size));
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Boolean set(int i, Boolean o) {
+      return setBoolean(i, o);
+    }
+
+    @Override
+    public Boolean remove(int i) {
+      checkIndex(i);
+      boolean result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        boolean tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+  }
+}
@@ -0,0 +1,765 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.EOFException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.util.WeakIdentityHashMap;
+
+/**
+ * Compares and hashes binary encoded data of a schema, without decoding it.
+ * <p/>
+ * The schema is compiled once into a tree of comparators, so that each call
+ * does not walk the schema again, and data is read straight from the byte
+ * arrays. Results are the same as those of
+ * {@link BinaryData#compare(byte[], int, int, byte[], int, int, Schema)} and
+ * {@link BinaryData#hashCode(byte[], int, int, Schema)}, which use the
+ * comparator cached for their schema.
+ * <p/>
+ * A comparator can also write a <i>normalized key</i> for a datum: a byte
+ * prefix that sorts, compared as unsigned bytes, in the same order as the data.
+ * When two keys differ, their order is the order of the data, and only data
+ * with equal keys needs to be compared with
+ * {@link #compare(byte[], int, int, byte[], int, int)}. Keys cover the leading
+ * fields of a record up to and including the first field that is not of a
+ * fixed size, such as a string.
+ * <p/>
+ * Comparators are immutable and thread-safe.
+ */
+public class BinaryComparator {
+
+  private static final ThreadLocal<Map<Schema, BinaryComparator>> CACHE = ThreadLocal
+      .withInitial(WeakIdentityHashMap::new);
+
+  // the cached comparators hold no reference to their schema, so that the
+  // weak keys can be collected
+  private final Node root;
+
+  /** Returns a comparator for a schema, reusing one from a per-thread cache. */
+  public static BinaryComparator get(Schema schema) {
+    return CACHE.get().computeIfAbsent(schema, BinaryComparator::new);
+  }
+
+  /** Compiles a comparator for a schema. */
+  public BinaryComparator(Schema schema) {
+    this.root = compile(schema, new IdentityHashMap<>());
+  }
+
+  /**
+   * Compare binary encoded data. If equal, return zero. If greater-than, return
+   * a positive value, if less than return a negative value. Order is consistent
+   * with that of
+   * {@link org.apache.avro.generic.GenericData#compare(Object, Object, Schema)}.
+   */
+  public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    Cursor c1 = new Cursor(b1, s1, l1);
+    Cursor c2 = new Cursor(b2, s2, l2);
+    try {
+      return root.compare(c1, c2);
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw eof(e);
+    }
+  }
+
+  /**
+   * Hash binary encoded data. Consistent with
+   * {@link org.apache.avro.generic.GenericData#hashCode(Object, Schema)}.
+   */
+  public int hashCode(byte[] bytes, int start, int length) {
+    try {
+      return root.hash(new Cursor(bytes, start, length));
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw eof(e);
+    }
+  }
+
+  /**
+   * Returns the length of the normalized keys that decide every comparison, or
+   * -1 if keys of any length may be equal for data that is not.
+   */
+  public int getNormalizedKeyLength() {
+    return root.keyWidth();
+  }
+
+  /**
+   * Writes the normalized key of binary encoded data. Keys longer than the data
+   * needs are padded with zeros.
+   *
+   * @param bytes     the encoded data
+   * @param start     the position of the data in {@code bytes}
+   * @param length    the length of the data
+   * @param key       the array to write the key to
+   * @param keyStart  the position of the key in {@code key}
+   * @param keyLength the number of bytes of key to write
+   */
+  public void writeNormalizedKey(byte[] bytes, int start, int length, byte[] key, int keyStart, int keyLength) {
+    Key k = new Key(key, keyStart, keyLength);
+    try {
+      root.key(new Cursor(bytes, start, length), k, false);
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw eof(e);
+    }
+    k.pad(false);
+  }
+
+  private static AvroRuntimeException eof(ArrayIndexOutOfBoundsException e) {
+    EOFException eof = new EOFException();
+    eof.initCause(e);
+    return new AvroRuntimeException(eof);
+  }
+
+  /** A position in binary encoded data. */
+  private static final class Cursor {
+    final byte[] buf;
+    int pos;
+    final int limit;
+
+    Cursor(byte[] buf, int start, int length) {
+      this.buf = buf;
+      this.pos = start;
+      this.limit = start + length;
+    }
+
+    int readInt() {
+      int n = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = buf[pos++] & 0xff;
+        n |= (b & 0x7f) << shift;
+        shift += 7;
+      } while (b > 0x7f && shift < 35);
+      if (b > 0x7f) {
+        throw new AvroRuntimeException("Invalid int encoding");
+      }
+      return (n >>> 1) ^ -(n & 1);
+    }
+
+    long readLong() {
+      long n = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = buf[pos++] & 0xff;
+        n |= (long) (b & 0x7f) << shift;
+        shift += 7;
+      } while (b > 0x7f && shift < 70);
+      if (b > 0x7f) {
+        throw new AvroRuntimeException("Invalid long encoding");
+      }
+      return (n >>> 1) ^ -(n & 1);
+    }
+
+    int readInt32() {
+      return (buf[pos++] & 0xff) | ((buf[pos++] & 0xff) << 8) | ((buf[pos++] & 0xff) << 16)
+          | ((buf[pos++] & 0xff) << 24);
+    }
+
+    long readInt64() {
+      return (readInt32() & 0xffffffffL) | ((long) readInt32() << 32);
+    }
+
+    /** Returns the current position and skips over length bytes. */
+    int skip(int length) {
+      if (length < 0) {
+        throw new AvroRuntimeException("Malformed data. Length is negative: " + length);
+      }
+      int start = pos;
+      pos += length;
+      if (pos > limit) {
+        throw new ArrayIndexOutOfBoundsException(pos);
+      }
+      return start;
+    }
+
+    /** Returns the item count of the next array block. */
+    long readBlockCount() {
+      long count = readLong();
+      if (count < 0) {
+        readLong(); // the byte size of the block
+        count = -count;
+      }
+      return count;
+    }
+  }
+
+  /** A normalized key being written. */
+  private static final class Key {
+    final byte[] buf;
+    int pos;
+    final int limit;
+
+    Key(byte[] buf, int start, int length) {
+      this.buf = buf;
+      this.pos = start;
+      this.limit = start + length;
+    }
+
+    boolean isFull() {
+      return pos >= limit;
+    }
+
+    /** Writes the low bytes of a value, most significant first. */
+    void put(long value, int bytes, boolean descending) {
+      if (descending) {
+        value = ~value;
+      }
+      for (int shift = (bytes - 1) * 8; shift >= 0 && pos < limit; shift -= 8) {
+        buf[pos++] = (byte) (value >>> shift);
+      }
+    }
+
+    void put(byte[] bytes, int start, int length, boolean descending) {
+      int end = start + Math.min(length, limit - pos);
+      for (int i = start; i < end; i++) {
+        buf[pos++] = descending ? (byte) ~bytes[i] : bytes[i];
+      }
+    }
+
+    /** Fills the rest of the key with a byte that sorts before any data. */
+    void pad(boolean descending) {
+      while (pos < limit) {
+        buf[pos++] = descending ? (byte) 0xff : 0;
+      }
+    }
+  }
+
+  private abstract static class Node {
+    private final int keyWidth;
+
+    Node(int keyWidth) {
+      this.keyWidth = keyWidth;
+    }
+
+    /** The width of this node's key, or -1 if it varies or is incomplete. */
+    int keyWidth() {
+      return keyWidth;
+    }
+
+    abstract int compare(Cursor c1, Cursor c2);
+
+    abstract int hash(Cursor c);
+
+    abstract void skip(Cursor c);
+
+    /**
+     * Writes the key of a value.
+     *
+     * @return whether the keys of later values may follow this one
+     */
+    abstract boolean key(Cursor c, Key key, boolean descending);
+  }
+
+  private static Node compile(Schema schema, Map<Schema, RecordNode> records) {
+    switch (schema.getType()) {
+    case NULL:
+      return NULL;
+    case BOOLEAN:
+      return BOOLEAN;
+    case INT:
+    case ENUM:
+      return INT;
+    case LONG:
+      return LONG;
+    case FLOAT:
+      return FLOAT;
+    case DOUBLE:
+      return DOUBLE;
+    case STRING:
+      return STRING;
+    case BYTES:
+      return BYTES;
+    case FIXED:
+      return new FixedNode(schema.getFixedSize());
+    case ARRAY:
+      return new ArrayNode(compile(schema.getElementType(), records));
+    case MAP:
+      return new MapNode(compile(schema.getValueType(), records));
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      Node[] branches = new Node[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = compile(types.get(i), records);
+      }
+      return new UnionNode(branches);
+    case RECORD:
+      RecordNode record = records.get(schema);
+      if (record == null) {
+        // registered before its fields, so recursive records end
+        record = new RecordNode();
+        records.put(schema, record);
+        record.initialize(schema, records);
+      }
+      return record;
+    default:
+      throw new AvroRuntimeException("Unexpected schema to compare!");
+    }
+  }
+
+  private static final Node NULL = new Node(0) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return 0;
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return 0;
+    }
+
+    @Override
+    void skip(Cursor c) {
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      return true;
+    }
+  };
+
+  private static final Node BOOLEAN = new Node(1) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return Boolean.compare(c1.buf[c1.pos++] != 0, c2.buf[c2.pos++] != 0);
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return Boolean.hashCode(c.buf[c.pos++] != 0);
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.pos++;
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      key.put(c.buf[c.pos++] != 0 ? 1 : 0, 1, descending);
+      return true;
+    }
+  };
+
+  private static final Node INT = new Node(4) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return Integer.compare(c1.readInt(), c2.readInt());
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return c.readInt();
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.readLong();
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      key.put(c.readInt() ^ Integer.MIN_VALUE, 4, descending);
+      return true;
+    }
+  };
+
+  private static final Node LONG = new Node(8) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return Long.compare(c1.readLong(), c2.readLong());
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return Long.hashCode(c.readLong());
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.readLong();
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      key.put(c.readLong() ^ Long.MIN_VALUE, 8, descending);
+      return true;
+    }
+  };
+
+  private static final Node FLOAT = new Node(4) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return Float.compare(Float.intBitsToFloat(c1.readInt32()), Float.intBitsToFloat(c2.readInt32()));
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return Float.hashCode(Float.intBitsToFloat(c.readInt32()));
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.skip(4);
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      // the order of Float.compare, with negative numbers reversed
+      int bits = Float.floatToIntBits(Float.intBitsToFloat(c.readInt32()));
+      key.put(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE, 4, descending);
+      return true;
+    }
+  };
+
+  private static final Node DOUBLE = new Node(8) {
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return Double.compare(Double.longBitsToDouble(c1.readInt64()), Double.longBitsToDouble(c2.readInt64()));
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return Double.hashCode(Double.longBitsToDouble(c.readInt64()));
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.skip(8);
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      long bits = Double.doubleToLongBits(Double.longBitsToDouble(c.readInt64()));
+      key.put(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE, 8, descending);
+      return true;
+    }
+  };
+
+  /** Strings and bytes compare the same way, but hash differently. */
+  private static class BytesNode extends Node {
+    private final int hashInit;
+    private final boolean hashReversed;
+
+    BytesNode(int hashInit, boolean hashReversed) {
+      super(-1);
+      this.hashInit = hashInit;
+      this.hashReversed = hashReversed;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      int l1 = c1.readInt();
+      int l2 = c2.readInt();
+      return BinaryData.compareBytes(c1.buf, c1.skip(l1), l1, c2.buf, c2.skip(l2), l2);
+    }
+
+    @Override
+    int hash(Cursor c) {
+      int length = c.readInt();
+      int start = c.skip(length);
+      int hashCode = hashInit;
+      byte[] bytes = c.buf;
+      if (hashReversed) {
+        for (int i = start + length - 1; i >= start; i--)
+          hashCode = hashCode * 31 + bytes[i];
+      } else {
+        for (int i = start; i < start + length; i++)
+          hashCode = hashCode * 31 + bytes[i];
+      }
+      return hashCode;
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.skip(c.readInt());
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      int length = c.readInt();
+      key.put(c.buf, c.skip(length), length, descending);
+      // padding sorts shorter data first; a longer value with the same prefix
+      // and trailing zeros has an equal key
+      key.pad(descending);
+      return false;
+    }
+  }
+
+  private static final Node STRING = new BytesNode(0, false);
+  private static final Node BYTES = new BytesNode(1, true);
+
+  private static class FixedNode extends Node {
+    private final int size;
+
+    FixedNode(int size) {
+      super(size);
+      this.size = size;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      return BinaryData.compareBytes(c1.buf, c1.skip(size), size, c2.buf, c2.skip(size), size);
+    }
+
+    @Override
+    int hash(Cursor c) {
+      int start = c.skip(size);
+      int hashCode = 1;
+      for (int i = start; i < start + size; i++)
+        hashCode = hashCode * 31 + c.buf[i];
+      return hashCode;
+    }
+
+    @Override
+    void skip(Cursor c) {
+      c.skip(size);
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      key.put(c.buf, c.skip(size), size, descending);
+      return true;
+    }
+  }
+
+  private static class ArrayNode extends Node {
+    private final Node element;
+
+    ArrayNode(Node element) {
+      super(-1);
+      this.element = element;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      long r1 = 0, r2 = 0; // remaining in current block
+      while (true) {
+        if (r1 == 0) {
+          r1 = c1.readBlockCount();
+        }
+        if (r2 == 0) {
+          r2 = c2.readBlockCount();
+        }
+        if (r1 == 0 || r2 == 0) {
+          // one array has ended; the other is greater if it has not
+          return Boolean.compare(r1 != 0, r2 != 0);
+        }
+        long n = Math.min(r1, r2);
+        for (long i = 0; i < n; i++) {
+          int c = element.compare(c1, c2);
+          if (c != 0)
+            return c;
+        }
+        r1 -= n;
+        r2 -= n;
+      }
+    }
+
+    @Override
+    int hash(Cursor c) {
+      int hashCode = 1;
+      for (long l = c.readBlockCount(); l != 0; l = c.readBlockCount()) {
+        for (long i = 0; i < l; i++) {
+          hashCode = hashCode * 31 + element.hash(c);
+        }
+      }
+      return hashCode;
+    }
+
+    @Override
+    void skip(Cursor c) {
+      for (long count = c.readLong(); count != 0; count = c.readLong()) {
+        if (count < 0) {
+          c.skip((int) c.readLong());
+        } else {
+          for (long i = 0; i < count; i++) {
+            element.skip(c);
+          }
+        }
+      }
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      return false;
+    }
+  }
+
+  /** Maps cannot be compared, but are skipped when their field is ignored. */
+  private static class MapNode extends Node {
+    private final Node value;
+
+    MapNode(Node value) {
+      super(-1);
+      this.value = value;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      throw new AvroRuntimeException("Can't compare maps!");
+    }
+
+    @Override
+    int hash(Cursor c) {
+      throw new AvroRuntimeException("Can't hashCode maps!");
+    }
+
+    @Override
+    void skip(Cursor c) {
+      for (long count = c.readLong(); count != 0; count = c.readLong()) {
+        if (count < 0) {
+          c.skip((int) c.readLong());
+        } else {
+          for (long i = 0; i < count; i++) {
+            STRING.skip(c);
+            value.skip(c);
+          }
+        }
+      }
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      return false;
+    }
+  }
+
+  private static class UnionNode extends Node {
+    private final Node[] branches;
+
+    UnionNode(Node[] branches) {
+      super(-1);
+      this.branches = branches;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      int i1 = c1.readInt();
+      int i2 = c2.readInt();
+      int c = Integer.compare(i1, i2);
+      return c == 0 ? branches[i1].compare(c1, c2) : c;
+    }
+
+    @Override
+    int hash(Cursor c) {
+      return branches[c.readInt()].hash(c);
+    }
+
+    @Override
+    void skip(Cursor c) {
+      branches[c.readInt()].skip(c);
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      int index = c.readInt();
+      key.put(index, branches.length <= 256 ? 1 : 4, descending);
+      // branches differ in width, so later keys could not be lined up
+      branches[index].key(c, key, descending);
+      return false;
+    }
+  }
+
+  private static class RecordNode extends Node {
+    private Node[] fields;
+    /** 1 for ascending fields, -1 for descending ones, 0 for ignored ones. */
+    private int[] orders;
+    private int keyWidth = -1;
+
+    RecordNode() {
+      super(-1);
+    }
+
+    void initialize(Schema schema, Map<Schema, RecordNode> records) {
+      List<Field> schemaFields = schema.getFields();
+      fields = new Node[schemaFields.size()];
+      orders = new int[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        Field field = schemaFields.get(i);
+        fields[i] = compile(field.schema(), records);
+        orders[i] = field.order() == Field.Order.IGNORE ? 0 : field.order() == Field.Order.DESCENDING ? -1 : 1;
+      }
+      int width = 0;
+      for (int i = 0; i < fields.length && width >= 0; i++) {
+        if (orders[i] != 0) {
+          width = fields[i].keyWidth() < 0 ? -1 : width + fields[i].keyWidth();
+        }
+      }
+      keyWidth = width;
+    }
+
+    @Override
+    int keyWidth() {
+      return keyWidth;
+    }
+
+    @Override
+    int compare(Cursor c1, Cursor c2) {
+      for (int i = 0; i < fields.length; i++) {
+        if (orders[i] == 0) {
+          fields[i].skip(c1);
+          fields[i].skip(c2);
+          continue;
+        }
+        int c = fields[i].compare(c1, c2);
+        if (c != 0) {
+          return orders[i] > 0 ? c : -c;
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    int hash(Cursor c) {
+      int hashCode = 1;
+      for (int i = 0; i < fields.length; i++) {
+        if (orders[i] == 0) {
+          fields[i].skip(c);
+          continue;
+        }
+        hashCode = hashCode * 31 + fields[i].hash(c);
+      }
+      return hashCode;
+    }
+
+    @Override
+    void skip(Cursor c) {
+      for (Node field : fields) {
+        field.skip(c);
+      }
+    }
+
+    @Override
+    boolean key(Cursor c, Key key, boolean descending) {
+      for (int i = 0; i < fields.length && !key.isFull(); i++) {
+        if (orders[i] == 0) {
+          fields[i].skip(c);
+        } else if (!fields[i].key(c, key, descending ^ orders[i] < 0)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.InvalidNumberEncodingException;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 
 /**
  * An {@link Decoder} for binary-format data.
@@ -98,6 +99,11 @@ public class BinaryDecoder extends Decoder {
     configure(data, offset, length);
   }
 
+  BinaryDecoder(ByteBuffer data, int bufferSize) {
+    super();
+    configure(data, bufferSize);
+  }
+
   BinaryDecoder configure(InputStream in, int bufferSize) {
     configureSource(bufferSize, new InputStreamByteSource(in));
     return this;
@@ -108,6 +114,11 @@ public class BinaryDecoder extends Decoder {
     return this;
   }
 
+  BinaryDecoder configure(ByteBuffer data, int bufferSize) {
+    configureSource(bufferSize, new ByteBufferByteSource(data));
+    return this;
+  }
+
   /**
    * Initializes this decoder with a new ByteSource. Detaches the old source (if
    * it exists) from this Decoder. The old source's state no longer depends on
@@ -283,7 +294,7 @@ public class BinaryDecoder extends Decoder {
     if (length < 0L) {
       throw new AvroRuntimeException("Malformed data. Length is negative: " + length);
     }
-    Utf8 result = (old != null ? old : new Utf8());
+    Utf8 result = (old != null && !Utf8Interner.isInterned(old) ? old : new Utf8());
     result.setByteLength((int) length);
     if (0L != length) {
       doReadBytes(result.getBytes(), 0, (int) length);
@@ -291,6 +302,28 @@ public class BinaryDecoder extends Decoder {
     return result;
   }
 
+  @Override
+  public Utf8 readInternedString(Utf8Interner interner) throws IOException {
+    long length = readLong();
+    if (length > MAX_ARRAY_SIZE) {
+      throw new UnsupportedOperationException("Cannot read strings longer than " + MAX_ARRAY_SIZE + " bytes");
+    }
+    if (length < 0L) {
+      throw new AvroRuntimeException("Malformed data. Length is negative: " + length);
+    }
+    if (buf != null && length <= limit - pos) {
+      // the whole string is buffered, so look it up in place
+      Utf8 result = interner.intern(buf, pos, (int) length);
+      pos += (int) length;
+      return result;
+    }
+    scratchUtf8.setByteLength((int) length);
+    if (0L != length) {
+      doReadBytes(scratchUtf8.getBytes(), 0, (int) length);
+    }
+    return interner.intern(scratchUtf8.getBytes(), 0, (int) length);
+  }
+
   private final Utf8 scratchUtf8 = new Utf8();
 
   @Override
@@ -1010,4 +1043,65 @@ public class BinaryDecoder extends Decoder {
       return (remaining == 0);
     }
   }
+
+  /**
+   * A source that reads from a {@link ByteBuffer}, typically a direct one, whose
+   * contents cannot be used as the decoder's buffer. Bytes are copied from the
+   * buffer to the decoder's buffer in bulk, as they are needed, rather than the
+   * whole buffer being copied to the heap up front. The position of the buffer
+   * passed in is not changed.
+   */
+  private static class ByteBufferByteSource extends ByteSource {
+    private final ByteBuffer data;
+
+    private ByteBufferByteSource(ByteBuffer data) {
+      super();
+      this.data = data.duplicate();
+    }
+
+    @Override
+    protected void skipSourceBytes(long length) throws IOException {
+      if (trySkipBytes(length) < length) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    protected long trySkipBytes(long length) throws IOException {
+      int skipped = (int) Math.min(length, data.remaining());
+      data.position(data.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    protected void readRaw(byte[] data, int off, int len) throws IOException {
+      if (tryReadRaw(data, off, len) < len) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    protected int tryReadRaw(byte[] data, int off, int len) throws IOException {
+      int read = Math.min(len, this.data.remaining());
+      this.data.get(data, off, read);
+      return read;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (ba.getLim() - ba.getPos() == 0) {
+        return data.hasRemaining() ? data.get() & 0xff : -1;
+      } else {
+        int position = ba.getPos();
+        int result = ba.getBuf()[position] & 0xff;
+        ba.setPos(position + 1);
+        return result;
+      }
+    }
+
+    @Override
+    public boolean isEof() {
+      return !data.hasRemaining();
+    }
+  }
 }
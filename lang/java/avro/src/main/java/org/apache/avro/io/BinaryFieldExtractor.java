@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Reads selected fields of binary encoded records, without decoding the rest of
+ * the record.
+ * <p/>
+ * The extractor is built from the writer's schema and a list of paths, each a
+ * list of field names separated by dots, such as {@code "user.address.zip"}.
+ * This is compiled into a plan that skips over the fields that no path needs,
+ * using the byte sizes of array and map blocks where the
+ * {@link BlockingBinaryEncoder} wrote them, and reads only the values at the
+ * end of the paths.
+ * <p/>
+ * A path may go through unions: the field is looked up in each branch that is
+ * a record, and when the data is in a branch without the field, the value of
+ * the path is null. The values are those {@link GenericDatumReader} reads with
+ * {@link GenericData}, with no logical type conversions: strings are read as
+ * {@link Utf8}, enums as {@link GenericData.EnumSymbol}, and so on.
+ * <p/>
+ * An extractor is thread-safe, and can be shared once built.
+ */
+public class BinaryFieldExtractor {
+
+  private final Schema schema;
+  private final List<String> paths;
+  private final Node root;
+
+  private static final ThreadLocal<BinaryDecoder> DECODERS = ThreadLocal
+      .withInitial(() -> new BinaryDecoder(new byte[0], 0, 0));
+
+  /**
+   * Builds an extractor for records written with a schema.
+   *
+   * @param writerSchema the schema the data was written with
+   * @param paths        the fields to extract, each a list of field names
+   *                     separated by dots
+   * @throws AvroRuntimeException     if a path does not name a field
+   * @throws IllegalArgumentException if a path is empty, repeated, or is inside
+   *                                  another path
+   */
+  public BinaryFieldExtractor(Schema writerSchema, String... paths) {
+    this(writerSchema, Arrays.asList(paths));
+  }
+
+  /**
+   * Builds an extractor for records written with a schema.
+   *
+   * @see #BinaryFieldExtractor(Schema, String...)
+   */
+  public BinaryFieldExtractor(Schema writerSchema, List<String> paths) {
+    this.schema = writerSchema;
+    this.paths = Collections.unmodifiableList(new ArrayList<>(paths));
+    PathTree tree = new PathTree();
+    for (int slot = 0; slot < paths.size(); slot++) {
+      String path = paths.get(slot);
+      if (path.isEmpty()) {
+        throw new IllegalArgumentException("Empty path");
+      }
+      tree.add(path, path.split("\\.", -1), 0, slot);
+    }
+    this.root = compile(writerSchema, tree, "", false);
+  }
+
+  /** Returns the schema the data was written with. */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the paths this extracts, in the order of the values returned by
+   * {@link #extract(byte[])}.
+   */
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  /**
+   * Reads the values of the paths from a single binary encoded datum.
+   *
+   * @return the value of each path, in the order of {@link #getPaths()}
+   */
+  public Object[] extract(byte[] bytes) throws IOException {
+    return extract(bytes, 0, bytes.length, null);
+  }
+
+  /**
+   * Reads the values of the paths from a single binary encoded datum. Reading
+   * stops once the last value is read, so the bytes that follow are not checked.
+   *
+   * @param reuse an array of values to reuse, or null
+   * @return the value of each path, in the order of {@link #getPaths()}
+   */
+  public Object[] extract(byte[] bytes, int start, int length, Object[] reuse) throws IOException {
+    BinaryDecoder in = DECODERS.get();
+    in.setBuf(bytes, start, length);
+    try {
+      Object[] values = values(reuse);
+      root.read(in, values, false);
+      return values;
+    } finally {
+      in.clearBuf();
+    }
+  }
+
+  /**
+   * Reads the values of the paths from the next datum of a decoder. The whole
+   * datum is read, so the decoder is left at the start of the next one.
+   *
+   * @param reuse an array of values to reuse, or null
+   * @return the value of each path, in the order of {@link #getPaths()}
+   */
+  public Object[] extract(BinaryDecoder in, Object[] reuse) throws IOException {
+    Object[] values = values(reuse);
+    root.read(in, values, true);
+    return values;
+  }
+
+  private Object[] values(Object[] reuse) {
+    return reuse != null && reuse.length == paths.size() ? reuse : new Object[paths.size()];
+  }
+
+  /** The paths below a field, and the slot of the value if a path ends there. */
+  private static class PathTree {
+    final Map<String, PathTree> children = new LinkedHashMap<>();
+    int slot = -1;
+
+    void add(String path, String[] names, int depth, int slot) {
+      if (depth == names.length) {
+        if (this.slot >= 0) {
+          throw new IllegalArgumentException("Repeated path: " + path);
+        }
+        if (!children.isEmpty()) {
+          throw new IllegalArgumentException("Path " + path + " contains other paths");
+        }
+        this.slot = slot;
+        return;
+      }
+      if (this.slot >= 0) {
+        throw new IllegalArgumentException("Path " + path + " is inside another path");
+      }
+      String name = names[depth];
+      if (name.isEmpty()) {
+        throw new IllegalArgumentException("Empty field name in path: " + path);
+      }
+      children.computeIfAbsent(name, n -> new PathTree()).add(path, names, depth + 1, slot);
+    }
+
+    /** All the slots below this. */
+    void slots(List<Integer> slots) {
+      if (slot >= 0) {
+        slots.add(slot);
+      }
+      for (PathTree child : children.values()) {
+        child.slots(slots);
+      }
+    }
+  }
+
+  /**
+   * Compiles the paths below a value of a schema.
+   *
+   * @param inUnion whether the value is in a union branch, where fields that are
+   *                missing are left null
+   * @return the node, or null if the schema has none of the fields in a union
+   */
+  private static Node compile(Schema schema, PathTree tree, String prefix, boolean inUnion) {
+    if (tree.slot >= 0) {
+      return leaf(schema, tree.slot);
+    }
+    switch (schema.getType()) {
+    case RECORD:
+      return compileRecord(schema, tree, prefix, inUnion);
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      Node[] branches = new Node[types.size()];
+      boolean found = false;
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = compile(types.get(i), tree, prefix, true);
+        if (branches[i] == null) {
+          branches[i] = new SkipNode(BinarySkipper.forSchema(types.get(i)));
+        } else {
+          found = true;
+        }
+      }
+      if (!found) {
+        if (inUnion) {
+          return null;
+        }
+        throw notFound(schema, tree, prefix);
+      }
+      List<Integer> slots = new ArrayList<>();
+      tree.slots(slots);
+      return new UnionNode(branches, slots.stream().mapToInt(Integer::intValue).toArray());
+    default:
+      if (inUnion) {
+        return null;
+      }
+      throw notFound(schema, tree, prefix);
+    }
+  }
+
+  private static AvroRuntimeException notFound(Schema schema, PathTree tree, String prefix) {
+    String name = tree.children.keySet().iterator().next();
+    return new AvroRuntimeException("No field " + prefix + name + " in " + schema);
+  }
+
+  private static Node compileRecord(Schema schema, PathTree tree, String prefix, boolean inUnion) {
+    Map<String, PathTree> wanted = new LinkedHashMap<>(tree.children);
+    List<Field> fields = schema.getFields();
+    List<Node> steps = new ArrayList<>();
+    List<Field> skipped = new ArrayList<>();
+    int last = -1;
+    for (int i = 0; i < fields.size() && !wanted.isEmpty(); i++) {
+      Field field = fields.get(i);
+      PathTree child = wanted.remove(field.name());
+      Node step = child == null ? null : compile(field.schema(), child, prefix + field.name() + ".", inUnion);
+      if (step == null) {
+        skipped.add(field);
+        continue;
+      }
+      if (!skipped.isEmpty()) {
+        steps.add(new SkipNode(BinarySkipper.forFields(skipped)));
+        skipped.clear();
+      }
+      steps.add(step);
+      last = i;
+    }
+    if (!inUnion && !wanted.isEmpty()) {
+      throw new AvroRuntimeException(
+          "No field " + prefix + wanted.keySet().iterator().next() + " in " + schema.getFullName());
+    }
+    if (steps.isEmpty()) {
+      return null;
+    }
+    BinarySkipper rest = last + 1 < fields.size() ? BinarySkipper.forFields(fields.subList(last + 1, fields.size()))
+        : null;
+    return new RecordNode(steps.toArray(new Node[0]), rest);
+  }
+
+  private static Node leaf(Schema schema, int slot) {
+    switch (schema.getType()) {
+    case NULL:
+      return (in, values, rest) -> values[slot] = null;
+    case BOOLEAN:
+      return (in, values, rest) -> values[slot] = in.readBoolean();
+    case INT:
+      return (in, values, rest) -> values[slot] = in.readInt();
+    case LONG:
+      return (in, values, rest) -> values[slot] = in.readLong();
+    case FLOAT:
+      return (in, values, rest) -> values[slot] = in.readFloat();
+    case DOUBLE:
+      return (in, values, rest) -> values[slot] = in.readDouble();
+    case STRING:
+      return (in, values, rest) -> {
+        Object old = values[slot];
+        values[slot] = in.readString(old instanceof Utf8 ? (Utf8) old : null);
+      };
+    case BYTES:
+      return (in, values, rest) -> {
+        Object old = values[slot];
+        values[slot] = in.readBytes(old instanceof ByteBuffer ? (ByteBuffer) old : null);
+      };
+    case ENUM:
+      List<String> names = schema.getEnumSymbols();
+      GenericData.EnumSymbol[] symbols = new GenericData.EnumSymbol[names.size()];
+      for (int i = 0; i < symbols.length; i++) {
+        symbols[i] = new GenericData.EnumSymbol(schema, names.get(i));
+      }
+      return (in, values, rest) -> {
+        int index = in.readEnum();
+        if (index < 0 || index >= symbols.length) {
+          throw new AvroTypeException("Enum index out of range: " + index);
+        }
+        values[slot] = symbols[index];
+      };
+    case FIXED:
+      int size = schema.getFixedSize();
+      return (in, values, rest) -> {
+        Object old = values[slot];
+        GenericData.Fixed fixed = old instanceof GenericData.Fixed && ((GenericData.Fixed) old).getSchema() == schema
+            ? (GenericData.Fixed) old
+            : new GenericData.Fixed(schema);
+        in.readFixed(fixed.bytes(), 0, size);
+        values[slot] = fixed;
+      };
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      Node[] branches = new Node[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = leaf(types.get(i), slot);
+      }
+      return new UnionNode(branches, new int[0]);
+    default:
+      // records, arrays and maps are read whole
+      GenericDatumReader<Object> reader = new GenericDatumReader<>(schema, schema, GenericData.get());
+      return (in, values, rest) -> values[slot] = reader.read(values[slot], in);
+    }
+  }
+
+  private interface Node {
+    /**
+     * Reads the values below this node.
+     *
+     * @param rest whether to read the data that follows the last value
+     */
+    void read(BinaryDecoder in, Object[] values, boolean rest) throws IOException;
+  }
+
+  private static class SkipNode implements Node {
+    private final BinarySkipper skipper;
+
+    SkipNode(BinarySkipper skipper) {
+      this.skipper = skipper;
+    }
+
+    @Override
+    public void read(BinaryDecoder in, Object[] values, boolean rest) throws IOException {
+      skipper.skip(in);
+    }
+  }
+
+  private static class RecordNode implements Node {
+    private final Node[] steps;
+    private final BinarySkipper rest;
+
+    RecordNode(Node[] steps, BinarySkipper rest) {
+      this.steps = steps;
+      this.rest = rest;
+    }
+
+    @Override
+    public void read(BinaryDecoder in, Object[] values, boolean rest) throws IOException {
+      int last = steps.length - 1;
+      for (int i = 0; i < last; i++) {
+        steps[i].read(in, values, true);
+      }
+      steps[last].read(in, values, rest);
+      if (rest && this.rest != null) {
+        this.rest.skip(in);
+      }
+    }
+  }
+
+  private static class UnionNode implements Node {
+    private final Node[] branches;
+    private final int[] slots;
+
+    UnionNode(Node[] branches, int[] slots) {
+      this.branches = branches;
+      this.slots = slots;
+    }
+
+    @Override
+    public void read(BinaryDecoder in, Object[] values, boolean rest) throws IOException {
+      int index = in.readIndex();
+      if (index < 0 || index >= branches.length) {
+        throw new AvroTypeException("Union index out of range: " + index);
+      }
+      for (int slot : slots) {
+        values[slot] = null;
+      }
+      branches[index].read(in, values, rest);
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+
+/**
+ * Skips over a binary encoded value of a schema. Skippers are built once per
+ * schema, so skipping does not switch on the type of each value. Values with a
+ * fixed encoded size, and arrays and maps of them, are skipped as a single run
+ * of bytes, as are array and map blocks that were written with their byte size
+ * by a {@link BlockingBinaryEncoder}.
+ */
+abstract class BinarySkipper {
+
+  /** The encoded size of every value, or -1 if the size varies. */
+  final int size;
+
+  BinarySkipper(int size) {
+    this.size = size;
+  }
+
+  abstract void skip(BinaryDecoder in) throws IOException;
+
+  /** Returns a skipper for values of a schema. */
+  static BinarySkipper forSchema(Schema schema) {
+    return forSchema(schema, new IdentityHashMap<>());
+  }
+
+  private static BinarySkipper forSchema(Schema schema, Map<Schema, RecordSkipper> records) {
+    switch (schema.getType()) {
+    case NULL:
+      return fixed(0);
+    case BOOLEAN:
+      return fixed(1);
+    case FLOAT:
+      return fixed(4);
+    case DOUBLE:
+      return fixed(8);
+    case FIXED:
+      return fixed(schema.getFixedSize());
+    case INT:
+    case LONG:
+    case ENUM:
+      return VARINT;
+    case STRING:
+    case BYTES:
+      return LENGTH_PREFIXED;
+    case ARRAY:
+      return new BlockSkipper(null, forSchema(schema.getElementType(), records));
+    case MAP:
+      return new BlockSkipper(LENGTH_PREFIXED, forSchema(schema.getValueType(), records));
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      BinarySkipper[] branches = new BinarySkipper[types.size()];
+      for (int i = 0; i < branches.length; i++) {
+        branches[i] = forSchema(types.get(i), records);
+      }
+      return new UnionSkipper(branches);
+    case RECORD:
+      RecordSkipper record = records.get(schema);
+      if (record == null) {
+        // registered before its fields, so recursive records end
+        record = new RecordSkipper();
+        records.put(schema, record);
+        record.initialize(forFields(schema, records));
+      }
+      return record;
+    default:
+      throw new AvroRuntimeException("Unknown type: " + schema);
+    }
+  }
+
+  private static BinarySkipper forFields(Schema schema, Map<Schema, RecordSkipper> records) {
+    List<Field> fields = schema.getFields();
+    BinarySkipper[] skippers = new BinarySkipper[fields.size()];
+    for (int i = 0; i < skippers.length; i++) {
+      skippers[i] = forSchema(fields.get(i).schema(), records);
+    }
+    return sequence(skippers);
+  }
+
+  /** Returns a skipper for a list of record fields. */
+  static BinarySkipper forFields(List<Field> fields) {
+    Map<Schema, RecordSkipper> records = new IdentityHashMap<>();
+    BinarySkipper[] skippers = new BinarySkipper[fields.size()];
+    for (int i = 0; i < skippers.length; i++) {
+      skippers[i] = forSchema(fields.get(i).schema(), records);
+    }
+    return sequence(skippers);
+  }
+
+  private static BinarySkipper sequence(BinarySkipper[] skippers) {
+    int size = 0;
+    for (BinarySkipper skipper : skippers) {
+      size = (size < 0 || skipper.size < 0) ? -1 : size + skipper.size;
+    }
+    return size >= 0 ? fixed(size) : new SequenceSkipper(skippers);
+  }
+
+  static void skipBytes(BinaryDecoder in, long length) throws IOException {
+    if (length < 0) {
+      throw new AvroRuntimeException("Malformed data. Length is negative: " + length);
+    }
+    in.doSkipBytes(length);
+  }
+
+  private static BinarySkipper fixed(int size) {
+    return size == 0 ? NOTHING : new BinarySkipper(size) {
+      @Override
+      void skip(BinaryDecoder in) throws IOException {
+        in.doSkipBytes(size);
+      }
+    };
+  }
+
+  private static final BinarySkipper NOTHING = new BinarySkipper(0) {
+    @Override
+    void skip(BinaryDecoder in) {
+    }
+  };
+
+  private static final BinarySkipper VARINT = new BinarySkipper(-1) {
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      in.readLong();
+    }
+  };
+
+  private static final BinarySkipper LENGTH_PREFIXED = new BinarySkipper(-1) {
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      skipBytes(in, in.readLong());
+    }
+  };
+
+  private static class BlockSkipper extends BinarySkipper {
+    private final BinarySkipper keys;
+    private final BinarySkipper values;
+
+    /** Keys is null for arrays. */
+    BlockSkipper(BinarySkipper keys, BinarySkipper values) {
+      super(-1);
+      this.keys = keys;
+      this.values = values;
+    }
+
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      for (long count = in.readLong(); count != 0; count = in.readLong()) {
+        if (count < 0) {
+          // a block written with its size in bytes
+          skipBytes(in, in.readLong());
+        } else if (keys == null && values.size >= 0) {
+          skipBytes(in, Math.multiplyExact(count, (long) values.size));
+        } else {
+          for (long i = 0; i < count; i++) {
+            if (keys != null) {
+              keys.skip(in);
+            }
+            values.skip(in);
+          }
+        }
+      }
+    }
+  }
+
+  private static class UnionSkipper extends BinarySkipper {
+    private final BinarySkipper[] branches;
+
+    UnionSkipper(BinarySkipper[] branches) {
+      super(-1);
+      this.branches = branches;
+    }
+
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      int index = in.readIndex();
+      if (index < 0 || index >= branches.length) {
+        throw new AvroTypeException("Union index out of range: " + index);
+      }
+      branches[index].skip(in);
+    }
+  }
+
+  private static class SequenceSkipper extends BinarySkipper {
+    private final BinarySkipper[] skippers;
+
+    SequenceSkipper(BinarySkipper[] skippers) {
+      super(-1);
+      this.skippers = skippers;
+    }
+
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      for (BinarySkipper skipper : skippers) {
+        skipper.skip(in);
+      }
+    }
+  }
+
+  /**
+   * The size of a record is not known while its fields are being built, so
+   * records are always skipped through their fields.
+   */
+  private static class RecordSkipper extends BinarySkipper {
+    private BinarySkipper fields;
+
+    RecordSkipper() {
+      super(-1);
+    }
+
+    void initialize(BinarySkipper fields) {
+      this.fields = fields;
+    }
+
+    @Override
+    void skip(BinaryDecoder in) throws IOException {
+      fields.skip(in);
+    }
+  }
+}
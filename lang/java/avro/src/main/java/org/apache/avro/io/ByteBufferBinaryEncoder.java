@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link Encoder} for Avro's binary encoding that writes into a
+ * {@link ByteBuffer} supplied by the caller, which may be a direct buffer.
+ * <p/>
+ * Values are put at the buffer's position, which advances as they are written,
+ * so no flush is needed. The buffer does not grow: a write that does not fit
+ * throws {@link java.nio.BufferOverflowException}.
+ * <p/>
+ * To construct, use
+ * {@link EncoderFactory#byteBufferEncoder(ByteBuffer, BinaryEncoder)}
+ * <p/>
+ * ByteBufferBinaryEncoder is not thread-safe
+ *
+ * @see BinaryEncoder
+ * @see EncoderFactory
+ * @see Encoder
+ */
+public class ByteBufferBinaryEncoder extends BinaryEncoder {
+  private ByteBuffer out;
+  // the buffer is used for writing floats, doubles, and large ints and longs.
+  private final byte[] buf = new byte[12];
+
+  ByteBufferBinaryEncoder(ByteBuffer out) {
+    configure(out);
+  }
+
+  ByteBufferBinaryEncoder configure(ByteBuffer out) {
+    Objects.requireNonNull(out, "ByteBuffer cannot be null");
+    this.out = out;
+    return this;
+  }
+
+  /** Return the buffer being written to. */
+  public ByteBuffer getByteBuffer() {
+    return out;
+  }
+
+  @Override
+  public void flush() throws IOException {
+  }
+
+  @Override
+  public void writeBoolean(boolean b) throws IOException {
+    out.put(b ? (byte) 1 : (byte) 0);
+  }
+
+  @Override
+  public void writeInt(int n) throws IOException {
+    int val = (n << 1) ^ (n >> 31);
+    if ((val & ~0x7F) == 0) {
+      out.put((byte) val);
+      return;
+    }
+    int len = BinaryData.encodeInt(n, buf, 0);
+    out.put(buf, 0, len);
+  }
+
+  @Override
+  public void writeLong(long n) throws IOException {
+    long val = (n << 1) ^ (n >> 63); // move sign to low-order bit
+    if ((val & ~0x7FL) == 0) {
+      out.put((byte) val);
+      return;
+    }
+    int len = BinaryData.encodeLong(n, buf, 0);
+    out.put(buf, 0, len);
+  }
+
+  @Override
+  public void writeFloat(float f) throws IOException {
+    int len = BinaryData.encodeFloat(f, buf, 0);
+    out.put(buf, 0, len);
+  }
+
+  @Override
+  public void writeDouble(double d) throws IOException {
+    int len = BinaryData.encodeDouble(d, buf, 0);
+    out.put(buf, 0, len);
+  }
+
+  @Override
+  public void writeFixed(byte[] bytes, int start, int len) throws IOException {
+    out.put(bytes, start, len);
+  }
+
+  @Override
+  public void writeFixed(ByteBuffer bytes) throws IOException {
+    // copies buffer to buffer, without an intermediate array
+    out.put(bytes.duplicate());
+  }
+
+  @Override
+  protected void writeZero() throws IOException {
+    out.put((byte) 0);
+  }
+
+  @Override
+  public int bytesBuffered() {
+    return 0;
+  }
+}
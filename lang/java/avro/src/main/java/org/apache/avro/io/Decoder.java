@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 
 /**
  * Low-level support for de-serializing Avro values.
@@ -108,6 +109,20 @@ public abstract class Decoder {
    */
   public abstract String readString() throws IOException;
 
+  /**
+   * Reads a char-string written by {@link Encoder#writeString}, returning the
+   * instance held by <tt>interner</tt> for its bytes. The default implementation
+   * reads a new {@link Utf8} and then interns it; binary decoders look up
+   * strings in their buffer without copying them.
+   *
+   * @throws AvroTypeException If this is a stateful reader and char-string is not
+   *                           the type of the next value to be read
+   */
+  public Utf8 readInternedString(Utf8Interner interner) throws IOException {
+    Utf8 s = readString(null);
+    return interner.intern(s.getBytes(), 0, s.getByteLength());
+  }
+
   /**
    * Discards a char-string written by {@link Encoder#writeString}.
    * 
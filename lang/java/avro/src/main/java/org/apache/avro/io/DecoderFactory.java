@@ -19,6 +19,7 @@ package org.apache.avro.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.Schema;
 
@@ -238,6 +239,37 @@ public class DecoderFactory {
     return binaryDecoder(bytes, 0, bytes.length, reuse);
   }
 
+  /**
+   * Creates or reinitializes a {@link BinaryDecoder} with the bytes between the
+   * position and the limit of a {@link ByteBuffer} as the source of data. The
+   * position of the buffer is not changed.
+   * <p/>
+   * If the buffer is backed by an array, the array is used as the decoder's
+   * buffer, as {@link #binaryDecoder(byte[], int, int, BinaryDecoder)} does.
+   * Otherwise, for example for a direct buffer, bytes are copied in chunks of up
+   * to {@link #getConfiguredBufferSize()} bytes into the decoder's buffer as they
+   * are read, so the data is never copied to the heap as a whole.
+   *
+   * @param buffer The ByteBuffer to read from
+   * @param reuse  The BinaryDecoder to attempt to reinitialize. if null a new
+   *               BinaryDecoder is created.
+   * @return A BinaryDecoder that uses <i>buffer</i> as its source of data. If
+   *         <i>reuse</i> is null, this will be a new instance. <i>reuse</i> may
+   *         be reinitialized if appropriate, otherwise a new instance is
+   *         returned. Clients must not assume that <i>reuse</i> is reinitialized
+   *         and returned.
+   */
+  public BinaryDecoder binaryDecoder(ByteBuffer buffer, BinaryDecoder reuse) {
+    if (buffer.hasArray()) {
+      return binaryDecoder(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), reuse);
+    }
+    if (null == reuse || !reuse.getClass().equals(BinaryDecoder.class)) {
+      return new BinaryDecoder(buffer, binaryDecoderBufferSize);
+    } else {
+      return reuse.configure(buffer, binaryDecoderBufferSize);
+    }
+  }
+
   /**
    * Creates a {@link JsonDecoder} using the InputStream provided for reading data
    * that conforms to the Schema provided.
@@ -266,6 +298,31 @@ public class DecoderFactory {
     return new JsonDecoder(schema, input);
   }
 
+  /**
+   * Creates an {@link OrderedKeyDecoder} for reading a datum written by an
+   * {@link OrderedKeyEncoder} from part of a byte array.
+   *
+   * @param schema The Schema the datum was written with. Cannot be null.
+   * @param bytes  The byte array to read from.
+   * @param offset The offset of the datum in the array.
+   * @param length The length of the datum.
+   * @return An OrderedKeyDecoder configured with <i>bytes</i> and <i>schema</i>
+   * @see OrderedKeyDecoder#configure(byte[], int, int)
+   */
+  public OrderedKeyDecoder orderedKeyDecoder(Schema schema, byte[] bytes, int offset, int length) {
+    return new OrderedKeyDecoder(schema, bytes, offset, length);
+  }
+
+  /**
+   * Creates an {@link OrderedKeyDecoder} for reading a datum written by an
+   * {@link OrderedKeyEncoder} from a byte array.
+   *
+   * @see #orderedKeyDecoder(Schema, byte[], int, int)
+   */
+  public OrderedKeyDecoder orderedKeyDecoder(Schema schema, byte[] bytes) {
+    return new OrderedKeyDecoder(schema, bytes, 0, bytes.length);
+  }
+
   /**
    * Creates a {@link ValidatingDecoder} wrapping the Decoder provided. This
    * ValidatingDecoder will ensure that operations against it conform to the
@@ -297,6 +354,23 @@ public class DecoderFactory {
     return new ResolvingDecoder(writer, reader, wrapped);
   }
 
+  /**
+   * Creates a {@link ResolvingDecoder} wrapping the Decoder provided, using a
+   * resolver returned by {@link ResolvingDecoder#resolve(Schema, Schema)} or
+   * {@link ResolverCache#getResolver(Schema, Schema)}. Resolvers are immutable
+   * and may be shared by many decoders, so this is much cheaper than resolving
+   * the schemas again.
+   *
+   * @param resolver The resolver to use.
+   * @param wrapped  The Decoder to wrap.
+   * @return A ResolvingDecoder that uses <i>resolver</i> to read from
+   *         <i>wrapped</i>
+   * @throws IOException
+   */
+  public ResolvingDecoder resolvingDecoder(Object resolver, Decoder wrapped) throws IOException {
+    return new ResolvingDecoder(resolver, wrapped);
+  }
+
   private static class DefaultDecoderFactory extends DecoderFactory {
     @Override
     public DecoderFactory configureDecoderBufferSize(int bufferSize) {
@@ -19,6 +19,7 @@ package org.apache.avro.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
@@ -177,6 +178,34 @@ public class EncoderFactory {
     }
   }
 
+  /**
+   * Creates or reinitializes a {@link BinaryEncoder} that writes into a
+   * {@link ByteBuffer}, which may be a direct buffer. If <i>reuse</i> is
+   * provided, an attempt will be made to reconfigure <i>reuse</i> rather than
+   * construct a new instance, but this is not guaranteed, a new instance may be
+   * returned.
+   * <p/>
+   * Data is put at the position of <i>buffer</i>, which advances as values are
+   * written. The buffer does not grow; a value that does not fit in the remaining
+   * space causes a {@link java.nio.BufferOverflowException}.
+   * <p/>
+   * {@link BinaryEncoder} instances returned by this method are not thread-safe.
+   *
+   * @param buffer The ByteBuffer to write into. Cannot be null.
+   * @param reuse  The BinaryEncoder to <i>attempt</i> to reuse. If null, a new
+   *               instance is returned.
+   * @return A BinaryEncoder that writes into <i>buffer</i>.
+   * @see ByteBufferBinaryEncoder
+   * @see Encoder
+   */
+  public BinaryEncoder byteBufferEncoder(ByteBuffer buffer, BinaryEncoder reuse) {
+    if (null == reuse || !reuse.getClass().equals(ByteBufferBinaryEncoder.class)) {
+      return new ByteBufferBinaryEncoder(buffer);
+    } else {
+      return ((ByteBufferBinaryEncoder) reuse).configure(buffer);
+    }
+  }
+
   /**
    * Creates or reinitializes a {@link BinaryEncoder} with the OutputStream
    * provided as the destination for written data. If <i>reuse</i> is provided, an
@@ -316,6 +345,26 @@ public class EncoderFactory {
     return new JsonEncoder(schema, gen);
   }
 
+  /**
+   * Creates an {@link OrderedKeyEncoder} using the OutputStream provided for
+   * writing data conforming to the Schema provided. The bytes written for each
+   * datum sort, as unsigned bytes, in the order of the data.
+   * <p/>
+   * {@link OrderedKeyEncoder} buffers its output. Data may not appear on the
+   * underlying OutputStream until {@link Encoder#flush()} is called.
+   * <p/>
+   * {@link OrderedKeyEncoder} is not thread-safe.
+   *
+   * @param schema The Schema for data written to this encoder. Cannot be null,
+   *               and cannot contain maps.
+   * @param out    The OutputStream to write to. Cannot be null.
+   * @return An OrderedKeyEncoder configured with <i>out</i> and <i>schema</i>
+   * @see OrderedKeyEncoder#configure(OutputStream)
+   */
+  public OrderedKeyEncoder orderedKeyEncoder(Schema schema, OutputStream out) {
+    return new OrderedKeyEncoder(schema, out);
+  }
+
   /**
    * Creates a {@link ValidatingEncoder} that wraps the Encoder provided. This
    * ValidatingEncoder will ensure that operations against it conform to the
@@ -0,0 +1,606 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Writes datums as Avro JSON, producing the same output as a
+ * {@link GenericDatumWriter} with a non-pretty {@link JsonEncoder}.
+ * <p/>
+ * The schema is walked once, when the writer is created, into a tree of
+ * writers for each type. Field names, enum symbols and union branch labels are
+ * encoded and quoted up front, and datums are written straight into a reusable
+ * byte buffer, without the grammar that {@link JsonEncoder} checks each value
+ * against or a {@link com.fasterxml.jackson.core.JsonGenerator}.
+ * <p/>
+ * FastJsonWriter is not thread-safe.
+ *
+ * @see JsonEncoder
+ * @see FastWriterBuilder
+ */
+public class FastJsonWriter<D> {
+
+  private final GenericData data;
+  private final boolean includeNamespace;
+  private final Map<Schema, RecordWriter> recordWriters = new IdentityHashMap<>();
+  private final ValueWriter root;
+  private final JsonBuffer buffer = new JsonBuffer();
+
+  public FastJsonWriter(Schema schema) {
+    this(schema, GenericData.get());
+  }
+
+  public FastJsonWriter(Schema schema, GenericData data) {
+    this(schema, data, true);
+  }
+
+  /**
+   * @param includeNamespace whether non-null union values are wrapped in an
+   *                         object naming their branch, as
+   *                         {@link JsonEncoder#setIncludeNamespace(boolean)}
+   */
+  public FastJsonWriter(Schema schema, GenericData data, boolean includeNamespace) {
+    this.data = data;
+    this.includeNamespace = includeNamespace;
+    this.root = getWriterFor(schema);
+    recordWriters.clear();
+  }
+
+  /** Writes a datum as a single JSON value, with no separator. */
+  public void write(D datum, OutputStream out) throws IOException {
+    buffer.reset();
+    writeTo(datum, buffer);
+    out.write(buffer.buf, 0, buffer.count);
+  }
+
+  /** Returns a datum as a single JSON value, encoded as UTF-8. */
+  public byte[] toByteArray(D datum) throws IOException {
+    buffer.reset();
+    writeTo(datum, buffer);
+    return Arrays.copyOf(buffer.buf, buffer.count);
+  }
+
+  private void writeTo(D datum, JsonBuffer out) throws IOException {
+    try {
+      root.write(datum, out);
+    } catch (NullPointerException e) {
+      throw FastWriterBuilder.npe(e, "");
+    }
+  }
+
+  private ValueWriter getWriterFor(Schema schema) {
+    ValueWriter baseWriter = getNonConvertedWriter(schema);
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType == null) {
+      return baseWriter;
+    }
+    // as in GenericDatumWriter, the conversion depends on the class of the datum
+    return (datum, out) -> {
+      if (datum != null) {
+        Conversion<?> conversion = data.getConversionByClass(datum.getClass(), logicalType);
+        if (conversion != null) {
+          datum = convert(schema, logicalType, conversion, datum);
+        }
+      }
+      baseWriter.write(datum, out);
+    };
+  }
+
+  private static Object convert(Schema schema, LogicalType logicalType, Conversion<?> conversion, Object datum) {
+    try {
+      return Conversions.convertToRawType(datum, schema, logicalType, conversion);
+    } catch (AvroRuntimeException e) {
+      Throwable cause = e.getCause();
+      if (cause != null && cause.getClass() == ClassCastException.class) {
+        throw (ClassCastException) cause;
+      }
+      throw e;
+    }
+  }
+
+  private ValueWriter getNonConvertedWriter(Schema schema) {
+    switch (schema.getType()) {
+    case RECORD:
+      return createRecordWriter(schema);
+    case ENUM:
+      return createEnumWriter(schema);
+    case ARRAY:
+      return createArrayWriter(schema);
+    case MAP:
+      return createMapWriter(schema);
+    case UNION:
+      return createUnionWriter(schema);
+    case FIXED:
+      int size = schema.getFixedSize();
+      return (datum, out) -> {
+        byte[] bytes = ((GenericFixed) datum).bytes();
+        if (bytes.length != size) {
+          throw new AvroTypeException(
+              "Incorrect length for fixed binary: expected " + size + " but received " + bytes.length + " bytes.");
+        }
+        out.writeLatin1(bytes, 0, size);
+      };
+    case STRING:
+      return (datum, out) -> {
+        if (datum instanceof Utf8) {
+          Utf8 utf8 = (Utf8) datum;
+          out.writeUtf8(utf8.getBytes(), utf8.getByteLength());
+        } else {
+          out.writeString(((CharSequence) datum).toString());
+        }
+      };
+    case BYTES:
+      return (datum, out) -> {
+        ByteBuffer bytes = (ByteBuffer) datum;
+        if (bytes.hasArray()) {
+          out.writeLatin1(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+          byte[] b = new byte[bytes.remaining()];
+          bytes.duplicate().get(b);
+          out.writeLatin1(b, 0, b.length);
+        }
+      };
+    case INT:
+      return (datum, out) -> out.writeLong(((Number) datum).intValue());
+    case LONG:
+      return (datum, out) -> out.writeLong((Long) datum);
+    case FLOAT:
+      return (datum, out) -> {
+        float f = (Float) datum;
+        out.writeNumber(Float.toString(f), Float.isNaN(f) || Float.isInfinite(f));
+      };
+    case DOUBLE:
+      return (datum, out) -> {
+        double d = (Double) datum;
+        out.writeNumber(Double.toString(d), Double.isNaN(d) || Double.isInfinite(d));
+      };
+    case BOOLEAN:
+      return (datum, out) -> out.writeRaw((Boolean) datum ? TRUE : FALSE);
+    case NULL:
+      return (datum, out) -> out.writeRaw(NULL);
+    default:
+      throw new AvroTypeException("Unknown type: " + schema);
+    }
+  }
+
+  private RecordWriter createRecordWriter(Schema schema) {
+    // record writers are registered before their fields are, to prevent endless
+    // loops on recursive types
+    RecordWriter recordWriter = recordWriters.get(schema);
+    if (recordWriter == null) {
+      recordWriter = new RecordWriter(schema);
+      recordWriters.put(schema, recordWriter);
+      List<Field> fields = schema.getFields();
+      ValueWriter[] fieldWriters = new ValueWriter[fields.size()];
+      byte[][] names = new byte[fields.size()][];
+      for (int i = 0; i < fieldWriters.length; i++) {
+        // each name is preceded by the separator from the previous field
+        names[i] = JsonBuffer.encode((i == 0 ? "{" : ",") + JsonBuffer.quote(fields.get(i).name()) + ":");
+        fieldWriters[i] = getWriterFor(fields.get(i).schema());
+      }
+      recordWriter.initialize(names, fieldWriters);
+    }
+    return recordWriter;
+  }
+
+  private ValueWriter createEnumWriter(Schema schema) {
+    // the same test as GenericData.isEnum and SpecificData.isEnum
+    boolean javaEnums = data instanceof SpecificData;
+    List<String> enumSymbols = schema.getEnumSymbols();
+    byte[][] symbols = new byte[enumSymbols.size()][];
+    for (int i = 0; i < symbols.length; i++) {
+      symbols[i] = JsonBuffer.encode(JsonBuffer.quote(enumSymbols.get(i)));
+    }
+    return (datum, out) -> {
+      if (!(datum instanceof GenericEnumSymbol || (javaEnums && datum instanceof Enum)))
+        throw new AvroTypeException("Not an enum: " + datum + " for schema: " + schema);
+      String symbol = datum.toString();
+      if (!schema.hasEnumSymbol(symbol))
+        throw new AvroTypeException("Not an enum symbol of " + schema.getFullName() + ": " + symbol);
+      out.writeRaw(symbols[schema.getEnumOrdinal(symbol)]);
+    };
+  }
+
+  private ValueWriter createArrayWriter(Schema schema) {
+    ValueWriter elementWriter = getWriterFor(schema.getElementType());
+    return (datum, out) -> {
+      Collection<?> array = (Collection<?>) datum;
+      long size = array.size();
+      long actualSize = 0;
+      out.writeByte('[');
+      for (Object element : array) {
+        if (actualSize++ > 0) {
+          out.writeByte(',');
+        }
+        elementWriter.write(element, out);
+      }
+      out.writeByte(']');
+      if (actualSize != size) {
+        throw new ConcurrentModificationException(
+            "Size of array written was " + size + ", but number of elements written was " + actualSize + ". ");
+      }
+    };
+  }
+
+  private ValueWriter createMapWriter(Schema schema) {
+    ValueWriter valueWriter = getWriterFor(schema.getValueType());
+    return (datum, out) -> {
+      Map<?, ?> map = (Map<?, ?>) datum;
+      int size = map.size();
+      int actualSize = 0;
+      out.writeByte('{');
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (actualSize++ > 0) {
+          out.writeByte(',');
+        }
+        out.writeString(entry.getKey().toString());
+        out.writeByte(':');
+        valueWriter.write(entry.getValue(), out);
+      }
+      out.writeByte('}');
+      if (actualSize != size) {
+        throw new ConcurrentModificationException(
+            "Size of map written was " + size + ", but number of entries written was " + actualSize + ". ");
+      }
+    };
+  }
+
+  private ValueWriter createUnionWriter(Schema schema) {
+    List<Schema> types = schema.getTypes();
+    ValueWriter[] branchWriters = new ValueWriter[types.size()];
+    byte[][] labels = new byte[types.size()][];
+    for (int i = 0; i < branchWriters.length; i++) {
+      Schema type = types.get(i);
+      branchWriters[i] = getWriterFor(type);
+      if (includeNamespace && type.getType() != Schema.Type.NULL) {
+        labels[i] = JsonBuffer.encode("{" + JsonBuffer.quote(type.getFullName()) + ":");
+      }
+    }
+    return (datum, out) -> {
+      int index = data.resolveUnion(schema, datum);
+      if (index < 0) {
+        throw new AvroTypeException("Not in union " + schema + ": " + datum);
+      }
+      byte[] label = labels[index];
+      if (label == null) {
+        branchWriters[index].write(datum, out);
+      } else {
+        out.writeRaw(label);
+        branchWriters[index].write(datum, out);
+        out.writeByte('}');
+      }
+    };
+  }
+
+  private static final byte[] TRUE = JsonBuffer.encode("true");
+  private static final byte[] FALSE = JsonBuffer.encode("false");
+  private static final byte[] NULL = JsonBuffer.encode("null");
+
+  private interface ValueWriter {
+    void write(Object datum, JsonBuffer out) throws IOException;
+  }
+
+  private static class RecordWriter implements ValueWriter {
+    private static final byte[] EMPTY = JsonBuffer.encode("{");
+
+    private final Schema schema;
+    private byte[][] names;
+    private ValueWriter[] fieldWriters;
+
+    RecordWriter(Schema schema) {
+      this.schema = schema;
+    }
+
+    void initialize(byte[][] names, ValueWriter[] fieldWriters) {
+      this.names = names;
+      this.fieldWriters = fieldWriters;
+    }
+
+    @Override
+    public void write(Object datum, JsonBuffer out) throws IOException {
+      IndexedRecord record = (IndexedRecord) datum;
+      if (fieldWriters.length == 0) {
+        out.writeRaw(EMPTY);
+      }
+      for (int i = 0; i < fieldWriters.length; i++) {
+        out.writeRaw(names[i]);
+        try {
+          fieldWriters[i].write(record.get(i), out);
+        } catch (NullPointerException e) {
+          Field field = schema.getFields().get(i);
+          throw FastWriterBuilder.npe(e, " of " + field.schema().getFullName() + " in field " + field.name());
+        }
+      }
+      out.writeByte('}');
+    }
+  }
+
+  /**
+   * A growable buffer of UTF-8 encoded JSON, which escapes strings as Jackson
+   * does by default.
+   */
+  static final class JsonBuffer {
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /** For each ASCII character, 0 if it is written as is, -1 for a \\u escape. */
+    private static final int[] ESCAPES = new int[128];
+    static {
+      for (int i = 0; i < 32; i++) {
+        ESCAPES[i] = -1;
+      }
+      ESCAPES['"'] = '"';
+      ESCAPES['\\'] = '\\';
+      ESCAPES['\b'] = 'b';
+      ESCAPES['\t'] = 't';
+      ESCAPES['\f'] = 'f';
+      ESCAPES['\n'] = 'n';
+      ESCAPES['\r'] = 'r';
+    }
+
+    private byte[] buf = new byte[256];
+    private int count = 0;
+
+    void reset() {
+      count = 0;
+    }
+
+    private void ensure(int n) {
+      if (count + n > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + n));
+      }
+    }
+
+    void writeByte(int b) {
+      ensure(1);
+      buf[count++] = (byte) b;
+    }
+
+    void writeRaw(byte[] bytes) {
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, buf, count, bytes.length);
+      count += bytes.length;
+    }
+
+    void writeLong(long n) {
+      if (n == Long.MIN_VALUE) {
+        writeAscii(Long.toString(n));
+        return;
+      }
+      ensure(20);
+      if (n < 0) {
+        buf[count++] = '-';
+        n = -n;
+      }
+      int digits = 1;
+      for (long m = n; m >= 10; m /= 10) {
+        digits++;
+      }
+      for (int i = count + digits - 1; i >= count; i--) {
+        buf[i] = (byte) ('0' + (n % 10));
+        n /= 10;
+      }
+      count += digits;
+    }
+
+    /** Non-finite numbers are quoted, as Jackson does. */
+    void writeNumber(String n, boolean quote) {
+      if (quote) {
+        writeByte('"');
+        writeAscii(n);
+        writeByte('"');
+      } else {
+        writeAscii(n);
+      }
+    }
+
+    private void writeAscii(String s) {
+      int len = s.length();
+      ensure(len);
+      for (int i = 0; i < len; i++) {
+        buf[count++] = (byte) s.charAt(i);
+      }
+    }
+
+    /**
+     * Writes a quoted string from bytes that are already UTF-8 encoded. Malformed
+     * bytes are replaced with U+FFFD, as {@link Utf8#toString()} does.
+     */
+    void writeUtf8(byte[] bytes, int len) {
+      int start = count;
+      ensure(len + 2);
+      buf[count++] = '"';
+      for (int i = 0; i < len;) {
+        byte b = bytes[i];
+        if (b >= 0) {
+          if (ESCAPES[b] != 0) {
+            writeEscape(b);
+          } else {
+            ensure(2);
+            buf[count++] = b;
+          }
+          i++;
+          continue;
+        }
+        int n = sequenceLength(bytes, i, len);
+        if (n == 0) {
+          // rare, so decode the whole string the way the JsonEncoder does
+          count = start;
+          writeString(new String(bytes, 0, len, StandardCharsets.UTF_8));
+          return;
+        } else if (n == 4) {
+          // a supplementary character, which is escaped as a surrogate pair
+          int cp = ((b & 0x07) << 18) | ((bytes[i + 1] & 0x3f) << 12) | ((bytes[i + 2] & 0x3f) << 6)
+              | (bytes[i + 3] & 0x3f);
+          writeEscape(Character.highSurrogate(cp));
+          writeEscape(Character.lowSurrogate(cp));
+        } else {
+          ensure(n + 1);
+          System.arraycopy(bytes, i, buf, count, n);
+          count += n;
+        }
+        i += n;
+      }
+      writeByte('"');
+    }
+
+    /**
+     * Returns the length of the well-formed multi-byte sequence at a position, or
+     * 0 if it is malformed, truncated, overlong or encodes a surrogate.
+     */
+    private static int sequenceLength(byte[] bytes, int i, int len) {
+      int b = bytes[i] & 0xff;
+      int n;
+      int min = 0x80;
+      int max = 0xbf;
+      if (b >= 0xc2 && b <= 0xdf) {
+        n = 2;
+      } else if (b >= 0xe0 && b <= 0xef) {
+        n = 3;
+        if (b == 0xe0) {
+          min = 0xa0;
+        } else if (b == 0xed) {
+          max = 0x9f;
+        }
+      } else if (b >= 0xf0 && b <= 0xf4) {
+        n = 4;
+        if (b == 0xf0) {
+          min = 0x90;
+        } else if (b == 0xf4) {
+          max = 0x8f;
+        }
+      } else {
+        return 0;
+      }
+      if (i + n > len) {
+        return 0;
+      }
+      int second = bytes[i + 1] & 0xff;
+      if (second < min || second > max) {
+        return 0;
+      }
+      for (int j = i + 2; j < i + n; j++) {
+        if ((bytes[j] & 0xc0) != 0x80) {
+          return 0;
+        }
+      }
+      return n;
+    }
+
+    /** Writes a quoted string of the characters of bytes, as ISO-8859-1. */
+    void writeLatin1(byte[] bytes, int start, int len) {
+      ensure(len + 2);
+      buf[count++] = '"';
+      for (int i = start; i < start + len; i++) {
+        int c = bytes[i] & 0xff;
+        if (c < 0x80) {
+          if (ESCAPES[c] != 0) {
+            writeEscape(c);
+          } else {
+            ensure(2);
+            buf[count++] = (byte) c;
+          }
+        } else {
+          ensure(3);
+          buf[count++] = (byte) (0xc0 | (c >> 6));
+          buf[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+      writeByte('"');
+    }
+
+    void writeString(String s) {
+      int len = s.length();
+      ensure(len + 2);
+      buf[count++] = '"';
+      for (int i = 0; i < len; i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          if (ESCAPES[c] != 0) {
+            writeEscape(c);
+          } else {
+            ensure(2);
+            buf[count++] = (byte) c;
+          }
+        } else if (c < 0x800) {
+          ensure(3);
+          buf[count++] = (byte) (0xc0 | (c >> 6));
+          buf[count++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+          // Jackson escapes surrogates rather than combining pairs
+          writeEscape(c);
+        } else {
+          ensure(4);
+          buf[count++] = (byte) (0xe0 | (c >> 12));
+          buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+          buf[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+      writeByte('"');
+    }
+
+    private void writeEscape(int c) {
+      ensure(7);
+      buf[count++] = '\\';
+      int escape = c < ESCAPES.length ? ESCAPES[c] : -1;
+      if (escape > 0) {
+        buf[count++] = (byte) escape;
+      } else {
+        buf[count++] = 'u';
+        buf[count++] = HEX[c >> 12];
+        buf[count++] = HEX[(c >> 8) & 0xf];
+        buf[count++] = HEX[(c >> 4) & 0xf];
+        buf[count++] = HEX[c & 0xf];
+      }
+    }
+
+    /** Returns a quoted, escaped JSON string. */
+    static String quote(String s) {
+      JsonBuffer b = new JsonBuffer();
+      b.writeString(s);
+      return new String(b.buf, 0, b.count, StandardCharsets.UTF_8);
+    }
+
+    static byte[] encode(String json) {
+      return json.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
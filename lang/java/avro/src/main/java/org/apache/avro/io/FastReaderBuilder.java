@@ -47,12 +47,14 @@ import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.generic.PrimitivesArrays;
 import org.apache.avro.io.FastReaderBuilder.RecordReader.Stage;
 import org.apache.avro.io.parsing.ResolvingGrammarGenerator;
 import org.apache.avro.reflect.ReflectionUtil;
 import org.apache.avro.specific.SpecificData;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 import org.apache.avro.util.WeakIdentityHashMap;
 import org.apache.avro.util.internal.Accessor;
 
@@ -170,7 +172,7 @@ public class FastReaderBuilder {
       readSteps[i] = getDefaultingStep(action.readerOrder[fieldCounter++]);
     }
 
-    recordReader.finishInitialization(readSteps, action.reader, action.instanceSupplier);
+    recordReader.finishInitialization(readSteps, action.fieldActions.length, action.reader, action.instanceSupplier);
     return recordReader;
   }
 
@@ -215,7 +217,7 @@ public class FastReaderBuilder {
   }
 
   private Utf8 readUtf8(Object reuse, Utf8 newValue) {
-    if (reuse instanceof Utf8) {
+    if (reuse instanceof Utf8 && !Utf8Interner.isInterned((Utf8) reuse)) {
       Utf8 oldUtf8 = (Utf8) reuse;
       oldUtf8.set(newValue);
       return oldUtf8;
@@ -375,7 +377,14 @@ public class FastReaderBuilder {
 
   private FieldReader createSimpleStringReader(Schema readerSchema) {
     String stringProperty = readerSchema.getProp(GenericData.STRING_PROP);
-    if (GenericData.StringType.String.name().equals(stringProperty)) {
+    if (GenericData.isInterned(readerSchema)) {
+      Utf8Interner interner = new Utf8Interner();
+      if (GenericData.StringType.String.name().equals(stringProperty)) {
+        return (old, decoder) -> decoder.readInternedString(interner).toString();
+      } else {
+        return (old, decoder) -> decoder.readInternedString(interner);
+      }
+    } else if (GenericData.StringType.String.name().equals(stringProperty)) {
       return (old, decoder) -> decoder.readString();
     } else {
       return (old, decoder) -> decoder.readString(old instanceof Utf8 ? (Utf8) old : null);
@@ -396,7 +405,7 @@ public class FastReaderBuilder {
   }
 
   private Utf8 getUtf8FromByteBuffer(Object old, ByteBuffer buffer) {
-    return (old instanceof Utf8) ? ((Utf8) old).set(new Utf8(buffer.array())) : new Utf8(buffer.array());
+    return (old instanceof Utf8 && !Utf8Interner.isInterned((Utf8) old)) ? ((Utf8) old).set(new Utf8(buffer.array())) : new Utf8(buffer.array());
   }
 
   private FieldReader createUnionReader(WriterUnion action) throws IOException {
@@ -456,9 +465,29 @@ public class FastReaderBuilder {
   @SuppressWarnings("unchecked")
   private FieldReader createArrayReader(Schema readerSchema, Container action) throws IOException {
     FieldReader elementReader = getReaderFor(action.elementAction, null);
+    boolean unboxed = action.elementAction.type == Action.Type.DO_NOTHING && action.elementAction.conversion == null;
 
     return reusingReader((reuse, decoder) -> {
-      if (reuse instanceof GenericArray) {
+      if (unboxed && (reuse == null || reuse instanceof PrimitivesArrays.PrimitiveArray)) {
+        long l = decoder.readArrayStart();
+        Object array = data.newArray(reuse, (int) l, readerSchema);
+        if (array instanceof PrimitivesArrays.PrimitiveArray) {
+          PrimitivesArrays.PrimitiveArray<?> primitives = (PrimitivesArrays.PrimitiveArray<?>) array;
+          while (l > 0) {
+            primitives.readElements(decoder, l);
+            l = decoder.arrayNext();
+          }
+          return primitives;
+        }
+        List<Object> list = (List<Object>) array;
+        while (l > 0) {
+          for (long i = 0; i < l; i++) {
+            list.add(elementReader.read(null, decoder));
+          }
+          l = decoder.arrayNext();
+        }
+        return list;
+      } else if (reuse instanceof GenericArray) {
         GenericArray<Object> reuseArray = (GenericArray<Object>) reuse;
         long l = decoder.readArrayStart();
         reuseArray.clear();
@@ -541,6 +570,7 @@ public class FastReaderBuilder {
     }
 
     private ExecutionStep[] readSteps;
+    private int writerFieldCount;
     private InstanceSupplier supplier;
     private Schema schema;
     private Stage stage = Stage.NEW;
@@ -558,7 +588,18 @@ public class FastReaderBuilder {
     }
 
     public void finishInitialization(ExecutionStep[] readSteps, Schema schema, InstanceSupplier supp) {
+      finishInitialization(readSteps, readSteps.length, schema, supp);
+    }
+
+    /**
+     * @param writerFieldCount the number of steps that read the writer's fields,
+     *                         in the writer's order; any further steps set
+     *                         defaults
+     */
+    public void finishInitialization(ExecutionStep[] readSteps, int writerFieldCount, Schema schema,
+        InstanceSupplier supp) {
       this.readSteps = readSteps;
+      this.writerFieldCount = writerFieldCount;
       this.schema = schema;
       this.supplier = supp;
       this.stage = Stage.INITIALIZED;
@@ -572,11 +613,30 @@ public class FastReaderBuilder {
     @Override
     public Object read(Object reuse, Decoder decoder) throws IOException {
       Object object = supplier.newInstance(reuse, schema);
+      if (decoder instanceof JsonDecoder) {
+        readJsonFields(object, (JsonDecoder) decoder);
+        return object;
+      }
       for (ExecutionStep thisStep : readSteps) {
         thisStep.execute(object, decoder);
       }
       return object;
     }
+
+    /**
+     * Reads fields in the order they appear in the JSON input, straight into
+     * their slots, so fields out of the schema's order are not buffered.
+     */
+    private void readJsonFields(Object object, JsonDecoder decoder) throws IOException {
+      decoder.readRecordStart();
+      int i;
+      while ((i = decoder.readFieldIndex()) >= 0) {
+        readSteps[i].execute(object, decoder);
+      }
+      for (i = writerFieldCount; i < readSteps.length; i++) {
+        readSteps[i].execute(object, decoder);
+      }
+    }
   }
 
   public static class MapReader implements FieldReader {
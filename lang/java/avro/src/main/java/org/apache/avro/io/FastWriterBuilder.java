@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.generic.PrimitivesArrays;
+import org.apache.avro.util.WeakIdentityHashMap;
+
+/**
+ * Builds {@link DatumWriter}s that are specialized for a schema: the schema is
+ * walked once, producing a tree of writers in which each node handles a single
+ * type, so that writing a datum no longer switches on the schema type. This is
+ * the writing counterpart of {@link FastReaderBuilder}.
+ */
+public class FastWriterBuilder {
+
+  /** GenericData instance that provides unions and conversions */
+  private final GenericData data;
+
+  private final Map<Schema, RecordWriter> writerCache = Collections.synchronizedMap(new WeakIdentityHashMap<>());
+
+  public static FastWriterBuilder get() {
+    return new FastWriterBuilder(GenericData.get());
+  }
+
+  /**
+   * Only plain {@link GenericData} is supported: subclasses such as
+   * SpecificData change how enums, strings and records are written, which the
+   * writers built here do not do.
+   */
+  public static boolean isSupportedData(GenericData data) {
+    return data.getClass() == GenericData.class;
+  }
+
+  public FastWriterBuilder(GenericData parentData) {
+    this.data = parentData;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <D> DatumWriter<D> createDatumWriter(Schema schema) {
+    FieldWriter writer = getWriterFor(schema);
+    return (DatumWriter<D>) (FieldWriter) (datum, out) -> {
+      try {
+        writer.write(datum, out);
+      } catch (NullPointerException e) {
+        throw npe(e, " of " + schema.getFullName());
+      }
+    };
+  }
+
+  private FieldWriter getWriterFor(Schema schema) {
+    FieldWriter baseWriter = getNonConvertedWriter(schema);
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType == null) {
+      return baseWriter;
+    }
+    // as in GenericDatumWriter, the conversion depends on the class of the datum
+    return (datum, out) -> {
+      if (datum != null) {
+        Conversion<?> conversion = data.getConversionByClass(datum.getClass(), logicalType);
+        if (conversion != null) {
+          datum = convert(schema, logicalType, conversion, datum);
+        }
+      }
+      baseWriter.write(datum, out);
+    };
+  }
+
+  private static Object convert(Schema schema, LogicalType logicalType, Conversion<?> conversion, Object datum) {
+    try {
+      return Conversions.convertToRawType(datum, schema, logicalType, conversion);
+    } catch (AvroRuntimeException e) {
+      Throwable cause = e.getCause();
+      if (cause != null && cause.getClass() == ClassCastException.class) {
+        // GenericDatumWriter throws the ClassCastException itself
+        throw (ClassCastException) cause;
+      }
+      throw e;
+    }
+  }
+
+  private FieldWriter getNonConvertedWriter(Schema schema) {
+    switch (schema.getType()) {
+    case RECORD:
+      return createRecordWriter(schema);
+    case ENUM:
+      return createEnumWriter(schema);
+    case ARRAY:
+      return createArrayWriter(schema);
+    case MAP:
+      return createMapWriter(schema);
+    case UNION:
+      return createUnionWriter(schema);
+    case FIXED:
+      int size = schema.getFixedSize();
+      return (datum, out) -> out.writeFixed(((GenericFixed) datum).bytes(), 0, size);
+    case STRING:
+      return (datum, out) -> out.writeString((CharSequence) datum);
+    case BYTES:
+      return (datum, out) -> out.writeBytes((ByteBuffer) datum);
+    case INT:
+      return (datum, out) -> out.writeInt(((Number) datum).intValue());
+    case LONG:
+      return (datum, out) -> out.writeLong((Long) datum);
+    case FLOAT:
+      return (datum, out) -> out.writeFloat((Float) datum);
+    case DOUBLE:
+      return (datum, out) -> out.writeDouble((Double) datum);
+    case BOOLEAN:
+      return (datum, out) -> out.writeBoolean((Boolean) datum);
+    case NULL:
+      return (datum, out) -> out.writeNull();
+    default:
+      throw new AvroTypeException("Unknown type: " + schema);
+    }
+  }
+
+  private RecordWriter createRecordWriter(Schema schema) {
+    // record writers are registered before they are initialized, to prevent
+    // endless loops on recursive types
+    RecordWriter recordWriter = writerCache.computeIfAbsent(schema, RecordWriter::new);
+    synchronized (recordWriter) {
+      // only need to initialize once
+      if (recordWriter.getInitializationStage() == RecordWriter.Stage.NEW) {
+        recordWriter.startInitialization();
+        List<Field> fields = schema.getFields();
+        FieldWriter[] fieldWriters = new FieldWriter[fields.size()];
+        for (int i = 0; i < fieldWriters.length; i++) {
+          fieldWriters[i] = getWriterFor(fields.get(i).schema());
+        }
+        recordWriter.finishInitialization(fieldWriters);
+      }
+    }
+    return recordWriter;
+  }
+
+  private FieldWriter createEnumWriter(Schema schema) {
+    return (datum, out) -> {
+      // the same test as GenericData.isEnum
+      if (!(datum instanceof GenericEnumSymbol))
+        throw new AvroTypeException("Not an enum: " + datum + " for schema: " + schema);
+      out.writeEnum(schema.getEnumOrdinal(datum.toString()));
+    };
+  }
+
+  private FieldWriter createArrayWriter(Schema schema) {
+    Schema.Type elementType = schema.getElementType().getType();
+    FieldWriter elementWriter = getWriterFor(schema.getElementType());
+    return (datum, out) -> {
+      if (datum instanceof PrimitivesArrays.PrimitiveArray
+          && ((PrimitivesArrays.PrimitiveArray<?>) datum).getSchema().getElementType().getType() == elementType) {
+        PrimitivesArrays.PrimitiveArray<?> array = (PrimitivesArrays.PrimitiveArray<?>) datum;
+        out.writeArrayStart();
+        out.setItemCount(array.size());
+        array.writeElements(out);
+        out.writeArrayEnd();
+        return;
+      }
+      Collection<?> array = (Collection<?>) datum;
+      long size = array.size();
+      long actualSize = 0;
+      out.writeArrayStart();
+      out.setItemCount(size);
+      for (Object element : array) {
+        out.startItem();
+        elementWriter.write(element, out);
+        actualSize++;
+      }
+      out.writeArrayEnd();
+      if (actualSize != size) {
+        throw new ConcurrentModificationException(
+            "Size of array written was " + size + ", but number of elements written was " + actualSize + ". ");
+      }
+    };
+  }
+
+  private FieldWriter createMapWriter(Schema schema) {
+    FieldWriter valueWriter = getWriterFor(schema.getValueType());
+    return (datum, out) -> {
+      Map<?, ?> map = (Map<?, ?>) datum;
+      int size = map.size();
+      int actualSize = 0;
+      out.writeMapStart();
+      out.setItemCount(size);
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        out.startItem();
+        out.writeString(entry.getKey().toString());
+        valueWriter.write(entry.getValue(), out);
+        actualSize++;
+      }
+      out.writeMapEnd();
+      if (actualSize != size) {
+        throw new ConcurrentModificationException(
+            "Size of map written was " + size + ", but number of entries written was " + actualSize + ". ");
+      }
+    };
+  }
+
+  private FieldWriter createUnionWriter(Schema schema) {
+    List<Schema> types = schema.getTypes();
+    FieldWriter[] branchWriters = new FieldWriter[types.size()];
+    for (int i = 0; i < branchWriters.length; i++) {
+      branchWriters[i] = getWriterFor(types.get(i));
+    }
+    Integer nullIndex = schema.getIndexNamed(Schema.Type.NULL.getName());
+    if (nullIndex != null) {
+      // optional values are common, so resolve null without a lookup
+      int nullBranch = nullIndex;
+      return (datum, out) -> {
+        int index = datum == null ? nullBranch : data.resolveUnion(schema, datum);
+        if (index < 0) {
+          writeUnresolvedUnion(schema, branchWriters, datum, out);
+          return;
+        }
+        out.writeIndex(index);
+        branchWriters[index].write(datum, out);
+      };
+    }
+    return (datum, out) -> {
+      int index = data.resolveUnion(schema, datum);
+      if (index < 0) {
+        writeUnresolvedUnion(schema, branchWriters, datum, out);
+        return;
+      }
+      out.writeIndex(index);
+      branchWriters[index].write(datum, out);
+    };
+  }
+
+  // As GenericDatumWriter.writeUnion does, resolve the elements of an iterable
+  // datum individually.
+  private void writeUnresolvedUnion(Schema schema, FieldWriter[] branchWriters, Object datum, Encoder out)
+      throws IOException {
+    Iterable<?> elements = datum instanceof Iterable ? (Iterable<?>) datum : Collections.singletonList(datum);
+    for (Object element : elements) {
+      int index = data.resolveUnion(schema, element);
+      out.writeIndex(index);
+      if (index < 0) {
+        throw new IOException(String.valueOf(element));
+      }
+      branchWriters[index].write(element, out);
+    }
+  }
+
+  static NullPointerException npe(NullPointerException e, String s) {
+    NullPointerException result = new NullPointerException(e.getMessage() + s);
+    result.initCause(e.getCause() == null ? e : e.getCause());
+    return result;
+  }
+
+  public interface FieldWriter extends DatumWriter<Object> {
+    @Override
+    void write(Object datum, Encoder out) throws IOException;
+
+    @Override
+    default void setSchema(Schema schema) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public static class RecordWriter implements FieldWriter {
+    public enum Stage {
+      NEW, INITIALIZING, INITIALIZED
+    }
+
+    private final Schema schema;
+    private FieldWriter[] fieldWriters;
+    private Stage stage = Stage.NEW;
+
+    RecordWriter(Schema schema) {
+      this.schema = schema;
+    }
+
+    public Stage getInitializationStage() {
+      return this.stage;
+    }
+
+    public void startInitialization() {
+      this.stage = Stage.INITIALIZING;
+    }
+
+    public void finishInitialization(FieldWriter[] fieldWriters) {
+      this.fieldWriters = fieldWriters;
+      this.stage = Stage.INITIALIZED;
+    }
+
+    @Override
+    public void write(Object datum, Encoder out) throws IOException {
+      IndexedRecord record = (IndexedRecord) datum;
+      for (int i = 0; i < fieldWriters.length; i++) {
+        Object value = record.get(i);
+        try {
+          fieldWriters[i].write(value, out);
+        } catch (NullPointerException e) {
+          Field field = schema.getFields().get(i);
+          throw npe(e, " of " + field.schema().getFullName() + " in field " + field.name());
+        }
+      }
+    }
+  }
+}
@@ -22,7 +22,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Stack;
@@ -56,6 +61,40 @@ public class JsonDecoder extends ParsingDecoder implements Parser.ActionHandler
     public JsonParser origParser = null;
   }
 
+  /** The records being read field by field, innermost first. */
+  private final ArrayDeque<FieldFrame> fieldFrames = new ArrayDeque<>();
+  private final Map<Symbol, RecordFields> recordFields = new IdentityHashMap<>();
+
+  /** The grammar of each field of a record, taken off the parser's stack. */
+  private static class RecordFields {
+    static final RecordFields EMPTY = new RecordFields(0, new String[0], new Symbol[0][], new HashMap<>());
+
+    final int stackSize;
+    final String[] names;
+    final Symbol[][] symbols; // in the order they are pushed
+    final Map<String, Integer> positions;
+
+    RecordFields(int stackSize, String[] names, Symbol[][] symbols, Map<String, Integer> positions) {
+      this.stackSize = stackSize;
+      this.names = names;
+      this.symbols = symbols;
+      this.positions = positions;
+    }
+  }
+
+  private static class FieldFrame {
+    final RecordFields fields;
+    final int depth; // of the parser, with the record's end on top
+    final boolean[] seen;
+    int seenCount = 0;
+
+    FieldFrame(RecordFields fields, int depth) {
+      this.fields = fields;
+      this.depth = depth;
+      this.seen = new boolean[fields.names.length];
+    }
+  }
+
   private JsonDecoder(Symbol root, InputStream in) throws IOException {
     super(root);
     configure(in);
@@ -97,6 +136,7 @@ public class JsonDecoder extends ParsingDecoder implements Parser.ActionHandler
     parser.reset();
     reorderBuffers.clear();
     currentReorderBuffer = null;
+    fieldFrames.clear();
     this.in = jsonFactory.createParser(in);
     this.in.nextToken();
     return this;
@@ -120,6 +160,7 @@ public class JsonDecoder extends ParsingDecoder implements Parser.ActionHandler
     parser.reset();
     reorderBuffers.clear();
     currentReorderBuffer = null;
+    fieldFrames.clear();
     this.in = new JsonFactory().createParser(in);
     this.in.nextToken();
     return this;
@@ -414,6 +455,151 @@ public class JsonDecoder extends ParsingDecoder implements Parser.ActionHandler
     return 0;
   }
 
+  /**
+   * Starts reading a record whose fields may be read in the order they appear
+   * in the input, rather than the order of the schema. Call
+   * {@link #readFieldIndex()} to find out which field comes next, then read its
+   * value as usual.
+   * <p/>
+   * Fields that are read this way are never buffered, however they are ordered
+   * in the input.
+   *
+   * @throws AvroTypeException if a record is not expected or the input does not
+   *                           start an object
+   */
+  public void readRecordStart() throws IOException {
+    parser.processTrailingImplicitActions();
+    if (in.getCurrentToken() == null && parser.depth() == 1)
+      throw new EOFException();
+    for (;;) {
+      Symbol top = parser.popSymbol();
+      if (top == Symbol.RECORD_START) {
+        break;
+      } else if (top.kind == Symbol.Kind.IMPLICIT_ACTION) {
+        doAction(null, top);
+      } else if (top.kind == Symbol.Kind.TERMINAL) {
+        throw new AvroTypeException("Attempt to process a record when a " + top + " was expected.");
+      } else {
+        parser.pushProduction(top);
+      }
+    }
+    doAction(null, Symbol.RECORD_START);
+    RecordFields fields = popRecordFields();
+    fieldFrames.push(new FieldFrame(fields, parser.depth()));
+  }
+
+  /**
+   * Returns the position, in the schema, of the next field of the record started
+   * by {@link #readRecordStart()}, and prepares to read its value. Returns -1
+   * once all of the record's fields have been read, which ends the record.
+   *
+   * @throws AvroTypeException if a field is unknown, repeated, or missing
+   */
+  public int readFieldIndex() throws IOException {
+    FieldFrame frame = fieldFrames.peek();
+    if (frame == null) {
+      throw new AvroTypeException("Not reading the fields of a record");
+    }
+    // finish the previous field's value
+    while (parser.depth() > frame.depth) {
+      Symbol top = parser.popSymbol();
+      if (top.kind != Symbol.Kind.IMPLICIT_ACTION) {
+        throw new AvroTypeException("Attempt to process a field when a " + top + " was expected.");
+      }
+      doAction(null, top);
+    }
+    RecordFields fields = frame.fields;
+    JsonToken token = in.getCurrentToken();
+    if (token == JsonToken.FIELD_NAME) {
+      String name = in.getText();
+      Integer position = fields.positions.get(name);
+      if (position == null) {
+        throw new AvroTypeException("Unknown field: " + name);
+      }
+      int n = position;
+      if (frame.seen[n]) {
+        throw new AvroTypeException("Duplicate field: " + name);
+      }
+      frame.seen[n] = true;
+      frame.seenCount++;
+      in.nextToken();
+      for (Symbol symbol : fields.symbols[n]) {
+        parser.pushSymbol(symbol);
+      }
+      return n;
+    } else if (token == JsonToken.END_OBJECT) {
+      if (frame.seenCount < fields.names.length) {
+        for (int n = 0; n < frame.seen.length; n++) {
+          if (!frame.seen[n]) {
+            throw new AvroTypeException("Expected field name not found: " + fields.names[n]);
+          }
+        }
+      }
+      fieldFrames.pop();
+      doAction(null, parser.popSymbol());
+      return -1;
+    } else {
+      throw error("field-name");
+    }
+  }
+
+  /**
+   * Takes the fields of the record just started off the parser's stack, leaving
+   * its {@link Symbol#RECORD_END}. Records are flattened into the grammar, so
+   * their fields are found by scanning the stack to the matching record end.
+   */
+  private RecordFields popRecordFields() throws IOException {
+    Symbol first = parser.topSymbol();
+    if (first == Symbol.RECORD_END) {
+      return RecordFields.EMPTY;
+    }
+    RecordFields fields = recordFields.get(first);
+    if (fields != null) {
+      for (int i = 0; i < fields.stackSize; i++) {
+        parser.popSymbol();
+      }
+      return fields;
+    }
+
+    List<String> names = new ArrayList<>();
+    List<Symbol[]> symbols = new ArrayList<>();
+    Map<String, Integer> positions = new HashMap<>();
+    List<Symbol> current = new ArrayList<>();
+    int stackSize = 0;
+    int depth = 0;
+    for (;;) {
+      Symbol top = parser.topSymbol();
+      if (depth == 0 && top == Symbol.RECORD_END) {
+        break;
+      }
+      parser.popSymbol();
+      stackSize++;
+      if (top == Symbol.RECORD_START) {
+        depth++;
+      } else if (top == Symbol.RECORD_END) {
+        depth--;
+      }
+      if (depth == 0 && top instanceof Symbol.FieldAdjustAction) {
+        Symbol.FieldAdjustAction field = (Symbol.FieldAdjustAction) top;
+        positions.put(field.fname, names.size());
+        for (String alias : field.aliases) {
+          positions.putIfAbsent(alias, names.size());
+        }
+        names.add(field.fname);
+      } else if (depth == 0 && top == Symbol.FIELD_END) {
+        current.add(top);
+        Collections.reverse(current);
+        symbols.add(current.toArray(new Symbol[0]));
+        current.clear();
+      } else {
+        current.add(top);
+      }
+    }
+    fields = new RecordFields(stackSize, names.toArray(new String[0]), symbols.toArray(new Symbol[0][]), positions);
+    recordFields.put(first, fields);
+    return fields;
+  }
+
   @Override
   public int readIndex() throws IOException {
     advance(Symbol.UNION);
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+
+/**
+ * Follows the values of a schema as they are written to an
+ * {@link OrderedKeyEncoder} or read from an {@link OrderedKeyDecoder}, and
+ * tracks whether each value is in a descending or ignored field.
+ * <p/>
+ * The values still to come are kept on a stack. Records are replaced by their
+ * fields when they reach the top, since encoders are not told where records
+ * start. Arrays leave a frame on the stack until they end, and each item
+ * pushes the element schema above it.
+ */
+final class OrderedKeyCursor {
+  private static final byte DESCENDING = 1;
+  private static final byte IGNORED = 2;
+  private static final byte ARRAY = 4;
+
+  private final Schema root;
+  private Schema[] schemas = new Schema[16];
+  private byte[] flags = new byte[16];
+  private int depth = 0;
+
+  /** Whether the last value returned by {@link #next} is descending. */
+  boolean descending;
+  /** Whether the last value returned by {@link #next} is ignored. */
+  boolean ignored;
+
+  OrderedKeyCursor(Schema root) {
+    check(root, new IdentityHashMap<>());
+    this.root = root;
+  }
+
+  /** Maps have no order, so schemas with maps cannot be encoded. */
+  private static void check(Schema schema, Map<Schema, Schema> seen) {
+    switch (schema.getType()) {
+    case MAP:
+      throw new AvroRuntimeException("Can't order maps!");
+    case ARRAY:
+      check(schema.getElementType(), seen);
+      break;
+    case UNION:
+      for (Schema type : schema.getTypes()) {
+        check(type, seen);
+      }
+      break;
+    case RECORD:
+      if (seen.put(schema, schema) == null) {
+        for (Field field : schema.getFields()) {
+          check(field.schema(), seen);
+        }
+      }
+      break;
+    default:
+    }
+  }
+
+  /** Starts again at the root schema. */
+  void reset() {
+    Arrays.fill(schemas, 0, depth, null);
+    depth = 0;
+  }
+
+  private void push(Schema schema, int flag) {
+    if (depth == schemas.length) {
+      schemas = Arrays.copyOf(schemas, depth * 2);
+      flags = Arrays.copyOf(flags, depth * 2);
+    }
+    schemas[depth] = schema;
+    flags[depth++] = (byte) flag;
+  }
+
+  /** Replaces records on the top of the stack by their fields. */
+  private void expandRecords() {
+    while (depth > 0 && (flags[depth - 1] & ARRAY) == 0 && schemas[depth - 1].getType() == Schema.Type.RECORD) {
+      Schema record = schemas[--depth];
+      int flag = flags[depth];
+      schemas[depth] = null;
+      List<Field> fields = record.getFields();
+      for (int i = fields.size() - 1; i >= 0; i--) {
+        Field field = fields.get(i);
+        int fieldFlag = flag;
+        if (field.order() == Field.Order.DESCENDING) {
+          fieldFlag ^= DESCENDING;
+        } else if (field.order() == Field.Order.IGNORE) {
+          fieldFlag |= IGNORED;
+        }
+        push(field.schema(), fieldFlag);
+      }
+    }
+  }
+
+  /**
+   * Returns the schema of the next value, which must be of a type.
+   *
+   * @throws AvroTypeException if the next value is of another type
+   */
+  Schema next(Schema.Type type) {
+    if (depth == 0) {
+      push(root, 0);
+    }
+    expandRecords();
+    if (depth == 0 || (flags[depth - 1] & ARRAY) != 0) {
+      throw new AvroTypeException("Expected the end of an array or a new item, but found " + type);
+    }
+    Schema schema = schemas[--depth];
+    int flag = flags[depth];
+    schemas[depth] = null;
+    if (schema.getType() != type) {
+      throw new AvroTypeException("Expected " + schema.getType() + " but found " + type);
+    }
+    descending = (flag & DESCENDING) != 0;
+    ignored = (flag & IGNORED) != 0;
+    return schema;
+  }
+
+  /** Selects the branch of the union last returned by {@link #next}. */
+  void branch(Schema union, int index) {
+    List<Schema> types = union.getTypes();
+    if (index < 0 || index >= types.size()) {
+      throw new AvroTypeException("Union index out of range: " + index);
+    }
+    push(types.get(index), (descending ? DESCENDING : 0) | (ignored ? IGNORED : 0));
+  }
+
+  /** Starts the array last returned by {@link #next}. */
+  void startArray(Schema array) {
+    push(array.getElementType(), ARRAY | (descending ? DESCENDING : 0) | (ignored ? IGNORED : 0));
+  }
+
+  /** Starts an item of the current array, and sets the flags of the array. */
+  void startItem() {
+    int flag = arrayFrame();
+    push(schemas[depth - 1], flag & ~ARRAY);
+  }
+
+  /**
+   * Returns true if the next event is the start of an item or the end of an
+   * array, and if so sets the flags of the array.
+   */
+  boolean inArray() {
+    expandRecords();
+    if (depth == 0 || (flags[depth - 1] & ARRAY) == 0) {
+      return false;
+    }
+    arrayFrame();
+    return true;
+  }
+
+  /** Ends the current array, and sets the flags of the array. */
+  void endArray() {
+    arrayFrame();
+    schemas[--depth] = null;
+  }
+
+  private int arrayFrame() {
+    expandRecords();
+    if (depth == 0 || (flags[depth - 1] & ARRAY) == 0) {
+      throw new AvroTypeException("Not in an array, or an item was not completed");
+    }
+    int flag = flags[depth - 1];
+    descending = (flag & DESCENDING) != 0;
+    ignored = (flag & IGNORED) != 0;
+    return flag;
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
+
+/**
+ * A {@link Decoder} for data written by an {@link OrderedKeyEncoder}.
+ * <p/>
+ * Fields whose order is ignore are not written by the encoder, so they are read
+ * as zero values: 0, false, empty strings and bytes, zero-filled fixed values,
+ * empty arrays, the first enum symbol and the first branch of unions.
+ * <p/>
+ * To construct, use {@link DecoderFactory#orderedKeyDecoder(Schema, byte[])}.
+ * <p/>
+ * OrderedKeyDecoder is not thread-safe.
+ *
+ * @see OrderedKeyEncoder
+ */
+public class OrderedKeyDecoder extends Decoder {
+  private final OrderedKeyCursor cursor;
+  private byte[] buf;
+  private int pos;
+  private int limit;
+
+  OrderedKeyDecoder(Schema schema, byte[] bytes, int offset, int length) {
+    this.cursor = new OrderedKeyCursor(schema);
+    configure(bytes, offset, length);
+  }
+
+  /** Reconfigures this decoder to read another datum from a byte array. */
+  public OrderedKeyDecoder configure(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array " + bytes.length);
+    }
+    this.buf = bytes;
+    this.pos = offset;
+    this.limit = offset + length;
+    cursor.reset();
+    return this;
+  }
+
+  /** Returns true if all of the input has been read. */
+  public boolean isEnd() {
+    return pos == limit;
+  }
+
+  /** Reads a value of some bytes, most significant first. */
+  private long get(int bytes) throws IOException {
+    if (cursor.ignored) {
+      return 0;
+    }
+    if (limit - pos < bytes) {
+      throw new EOFException();
+    }
+    long value = 0;
+    for (int i = 0; i < bytes; i++) {
+      value = (value << 8) | (buf[pos++] & 0xff);
+    }
+    return cursor.descending ? ~value : value;
+  }
+
+  /** Reads a run of bytes written by {@link OrderedKeyEncoder}, or skips it. */
+  private byte[] getTerminated(boolean skip) throws IOException {
+    if (cursor.ignored) {
+      return skip ? null : new byte[0];
+    }
+    int mask = cursor.descending ? 0xff : 0;
+    byte[] result = skip ? null : new byte[16];
+    int len = 0;
+    while (true) {
+      if (limit - pos < 2) {
+        throw new EOFException();
+      }
+      int b = (buf[pos++] ^ mask) & 0xff;
+      if (b == 0) {
+        int next = (buf[pos++] ^ mask) & 0xff;
+        if (next == 1) {
+          return skip ? null : Arrays.copyOf(result, len);
+        } else if (next != 0xff) {
+          throw new AvroTypeException("Invalid escape in ordered key: " + next);
+        }
+      }
+      if (!skip) {
+        if (len == result.length) {
+          result = Arrays.copyOf(result, len * 2);
+        }
+        result[len++] = (byte) b;
+      }
+    }
+  }
+
+  @Override
+  public void readNull() throws IOException {
+    cursor.next(Schema.Type.NULL);
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    cursor.next(Schema.Type.BOOLEAN);
+    long b = get(1) & 0xff;
+    if (b > 1) {
+      throw new AvroTypeException("Invalid boolean in ordered key: " + b);
+    }
+    return b == 1;
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    cursor.next(Schema.Type.INT);
+    return cursor.ignored ? 0 : (int) get(4) ^ Integer.MIN_VALUE;
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    cursor.next(Schema.Type.LONG);
+    return cursor.ignored ? 0 : get(8) ^ Long.MIN_VALUE;
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    cursor.next(Schema.Type.FLOAT);
+    if (cursor.ignored) {
+      return 0;
+    }
+    int bits = (int) get(4);
+    return Float.intBitsToFloat(bits < 0 ? bits ^ Integer.MIN_VALUE : ~bits);
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    cursor.next(Schema.Type.DOUBLE);
+    if (cursor.ignored) {
+      return 0;
+    }
+    long bits = get(8);
+    return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+  }
+
+  @Override
+  public Utf8 readString(Utf8 old) throws IOException {
+    cursor.next(Schema.Type.STRING);
+    byte[] bytes = getTerminated(false);
+    Utf8 result = old != null && !Utf8Interner.isInterned(old) ? old : new Utf8();
+    result.setByteLength(bytes.length);
+    System.arraycopy(bytes, 0, result.getBytes(), 0, bytes.length);
+    return result;
+  }
+
+  @Override
+  public String readString() throws IOException {
+    return readString(null).toString();
+  }
+
+  @Override
+  public void skipString() throws IOException {
+    cursor.next(Schema.Type.STRING);
+    getTerminated(true);
+  }
+
+  @Override
+  public ByteBuffer readBytes(ByteBuffer old) throws IOException {
+    cursor.next(Schema.Type.BYTES);
+    byte[] bytes = getTerminated(false);
+    if (old != null && bytes.length <= old.capacity()) {
+      old.clear();
+      old.put(bytes);
+      old.flip();
+      return old;
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  @Override
+  public void skipBytes() throws IOException {
+    cursor.next(Schema.Type.BYTES);
+    getTerminated(true);
+  }
+
+  @Override
+  public void readFixed(byte[] bytes, int start, int length) throws IOException {
+    Schema schema = cursor.next(Schema.Type.FIXED);
+    if (length != schema.getFixedSize()) {
+      throw new AvroTypeException(
+          "Incorrect length for fixed binary: expected " + schema.getFixedSize() + " but received " + length + " bytes.");
+    }
+    if (cursor.ignored) {
+      Arrays.fill(bytes, start, start + length, (byte) 0);
+      return;
+    }
+    if (limit - pos < length) {
+      throw new EOFException();
+    }
+    int mask = cursor.descending ? 0xff : 0;
+    for (int i = start; i < start + length; i++) {
+      bytes[i] = (byte) (buf[pos++] ^ mask);
+    }
+  }
+
+  @Override
+  public void skipFixed(int length) throws IOException {
+    Schema schema = cursor.next(Schema.Type.FIXED);
+    if (length != schema.getFixedSize()) {
+      throw new AvroTypeException(
+          "Incorrect length for fixed binary: expected " + schema.getFixedSize() + " but received " + length + " bytes.");
+    }
+    if (!cursor.ignored) {
+      if (limit - pos < length) {
+        throw new EOFException();
+      }
+      pos += length;
+    }
+  }
+
+  @Override
+  public int readEnum() throws IOException {
+    Schema schema = cursor.next(Schema.Type.ENUM);
+    if (cursor.ignored) {
+      return 0;
+    }
+    int e = (int) get(4) ^ Integer.MIN_VALUE;
+    if (e < 0 || e >= schema.getEnumSymbols().size()) {
+      throw new AvroTypeException("Enumeration out of range: max is " + schema.getEnumSymbols().size() + " but received " + e);
+    }
+    return e;
+  }
+
+  /** Reads the marker before each array item, or at the end of the array. */
+  private long item() throws IOException {
+    long marker = cursor.ignored ? 0 : get(1) & 0xff;
+    if (marker == 1) {
+      cursor.startItem();
+      return 1;
+    } else if (marker == 0) {
+      cursor.endArray();
+      return 0;
+    }
+    throw new AvroTypeException("Invalid array marker in ordered key: " + marker);
+  }
+
+  @Override
+  public long readArrayStart() throws IOException {
+    cursor.startArray(cursor.next(Schema.Type.ARRAY));
+    return item();
+  }
+
+  @Override
+  public long arrayNext() throws IOException {
+    if (!cursor.inArray()) {
+      throw new AvroTypeException("Not in an array, or an item was not completed");
+    }
+    return item();
+  }
+
+  /**
+   * Items are not preceded by their size, so this returns one item at a time for
+   * the caller to skip.
+   */
+  @Override
+  public long skipArray() throws IOException {
+    return cursor.inArray() ? item() : readArrayStart();
+  }
+
+  @Override
+  public long readMapStart() throws IOException {
+    throw new AvroTypeException("Can't order maps!");
+  }
+
+  @Override
+  public long mapNext() throws IOException {
+    throw new AvroTypeException("Can't order maps!");
+  }
+
+  @Override
+  public long skipMap() throws IOException {
+    throw new AvroTypeException("Can't order maps!");
+  }
+
+  @Override
+  public int readIndex() throws IOException {
+    Schema union = cursor.next(Schema.Type.UNION);
+    int index = (int) get(union.getTypes().size() <= 256 ? 1 : 4);
+    if (union.getTypes().size() <= 256) {
+      index &= 0xff;
+    }
+    cursor.branch(union, index);
+    return index;
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.util.Utf8;
+
+/**
+ * An {@link Encoder} for an encoding whose bytes sort in the order of the data.
+ * <p/>
+ * Encoded datums compare, as unsigned bytes, in the sort order of the Avro
+ * specification, as implemented by
+ * {@link BinaryData#compare(byte[], int, byte[], int, Schema)}, so they can be
+ * sorted with a plain byte comparison, as by a radix sort, or used as keys of a
+ * sorted key-value store. Fields whose order is descending are written
+ * with their bits flipped, and fields whose order is ignore are not written.
+ * <p/>
+ * The encoding follows the schema, which must not contain maps:
+ * <ul>
+ * <li>ints, longs and enum ordinals are big-endian, with the sign bit
+ * flipped;</li>
+ * <li>floats and doubles are big-endian, with the sign bit flipped, or with all
+ * bits flipped if negative;</li>
+ * <li>booleans are a single byte of 0 or 1, and nulls take no bytes;</li>
+ * <li>strings and bytes have each 0 byte written as 0, 0xff and end with 0,
+ * 1;</li>
+ * <li>fixed values are written as they are;</li>
+ * <li>each array item is preceded by 1, and arrays end with 0;</li>
+ * <li>union branches are a single byte, or an int for more than 256
+ * branches.</li>
+ * </ul>
+ * Use {@link OrderedKeyDecoder} to read it back. The encoding is not the Avro
+ * binary encoding, and is longer than it.
+ * <p/>
+ * To construct, use {@link EncoderFactory#orderedKeyEncoder(Schema, OutputStream)}.
+ * <p/>
+ * OrderedKeyEncoder buffers output, and is not thread-safe.
+ *
+ * @see OrderedKeyDecoder
+ */
+public class OrderedKeyEncoder extends Encoder {
+  private final OrderedKeyCursor cursor;
+  private final byte[] buf = new byte[1024];
+  private int pos;
+  private OutputStream out;
+
+  OrderedKeyEncoder(Schema schema, OutputStream out) {
+    this.cursor = new OrderedKeyCursor(schema);
+    configure(out);
+  }
+
+  /**
+   * Reconfigures this encoder to write to another stream, starting with a new
+   * datum. Unflushed output is discarded.
+   */
+  public OrderedKeyEncoder configure(OutputStream out) {
+    Objects.requireNonNull(out, "OutputStream cannot be null");
+    this.out = out;
+    this.pos = 0;
+    cursor.reset();
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.write(buf, 0, pos);
+    pos = 0;
+    out.flush();
+  }
+
+  private void ensure(int n) throws IOException {
+    if (pos + n > buf.length) {
+      out.write(buf, 0, pos);
+      pos = 0;
+    }
+  }
+
+  /** Writes the low bytes of a value, most significant first. */
+  private void put(long value, int bytes) throws IOException {
+    if (cursor.ignored) {
+      return;
+    }
+    if (cursor.descending) {
+      value = ~value;
+    }
+    ensure(bytes);
+    for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+      buf[pos++] = (byte) (value >>> shift);
+    }
+  }
+
+  /** Writes a run of bytes that ends with 0, 1, with each 0 written as 0, 0xff. */
+  private void putTerminated(byte[] bytes, int start, int len) throws IOException {
+    if (cursor.ignored) {
+      return;
+    }
+    int mask = cursor.descending ? 0xff : 0;
+    for (int i = start; i < start + len; i++) {
+      ensure(2);
+      byte b = bytes[i];
+      buf[pos++] = (byte) (b ^ mask);
+      if (b == 0) {
+        buf[pos++] = (byte) (0xff ^ mask);
+      }
+    }
+    ensure(2);
+    buf[pos++] = (byte) mask;
+    buf[pos++] = (byte) (1 ^ mask);
+  }
+
+  @Override
+  public void writeNull() throws IOException {
+    cursor.next(Schema.Type.NULL);
+  }
+
+  @Override
+  public void writeBoolean(boolean b) throws IOException {
+    cursor.next(Schema.Type.BOOLEAN);
+    put(b ? 1 : 0, 1);
+  }
+
+  @Override
+  public void writeInt(int n) throws IOException {
+    cursor.next(Schema.Type.INT);
+    put(n ^ Integer.MIN_VALUE, 4);
+  }
+
+  @Override
+  public void writeLong(long n) throws IOException {
+    cursor.next(Schema.Type.LONG);
+    put(n ^ Long.MIN_VALUE, 8);
+  }
+
+  @Override
+  public void writeFloat(float f) throws IOException {
+    cursor.next(Schema.Type.FLOAT);
+    int bits = Float.floatToIntBits(f);
+    put(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE, 4);
+  }
+
+  @Override
+  public void writeDouble(double d) throws IOException {
+    cursor.next(Schema.Type.DOUBLE);
+    long bits = Double.doubleToLongBits(d);
+    put(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE, 8);
+  }
+
+  @Override
+  public void writeString(Utf8 utf8) throws IOException {
+    cursor.next(Schema.Type.STRING);
+    putTerminated(utf8.getBytes(), 0, utf8.getByteLength());
+  }
+
+  @Override
+  public void writeBytes(ByteBuffer bytes) throws IOException {
+    if (bytes.hasArray()) {
+      writeBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    } else {
+      byte[] b = new byte[bytes.remaining()];
+      bytes.duplicate().get(b);
+      writeBytes(b, 0, b.length);
+    }
+  }
+
+  @Override
+  public void writeBytes(byte[] bytes, int start, int len) throws IOException {
+    cursor.next(Schema.Type.BYTES);
+    putTerminated(bytes, start, len);
+  }
+
+  @Override
+  public void writeFixed(byte[] bytes, int start, int len) throws IOException {
+    Schema schema = cursor.next(Schema.Type.FIXED);
+    if (len != schema.getFixedSize()) {
+      throw new AvroTypeException(
+          "Incorrect length for fixed binary: expected " + schema.getFixedSize() + " but received " + len + " bytes.");
+    }
+    if (cursor.ignored) {
+      return;
+    }
+    int mask = cursor.descending ? 0xff : 0;
+    for (int i = start; i < start + len; i++) {
+      ensure(1);
+      buf[pos++] = (byte) (bytes[i] ^ mask);
+    }
+  }
+
+  @Override
+  public void writeEnum(int e) throws IOException {
+    Schema schema = cursor.next(Schema.Type.ENUM);
+    if (e < 0 || e >= schema.getEnumSymbols().size()) {
+      throw new AvroTypeException("Enumeration out of range: max is " + schema.getEnumSymbols().size() + " but received " + e);
+    }
+    put(e ^ Integer.MIN_VALUE, 4);
+  }
+
+  @Override
+  public void writeArrayStart() throws IOException {
+    cursor.startArray(cursor.next(Schema.Type.ARRAY));
+  }
+
+  @Override
+  public void setItemCount(long itemCount) throws IOException {
+  }
+
+  @Override
+  public void startItem() throws IOException {
+    cursor.startItem();
+    put(1, 1);
+  }
+
+  @Override
+  public void writeArrayEnd() throws IOException {
+    cursor.endArray();
+    put(0, 1);
+  }
+
+  @Override
+  public void writeMapStart() throws IOException {
+    throw new AvroTypeException("Can't order maps!");
+  }
+
+  @Override
+  public void writeMapEnd() throws IOException {
+    throw new AvroTypeException("Can't order maps!");
+  }
+
+  @Override
+  public void writeIndex(int unionIndex) throws IOException {
+    Schema union = cursor.next(Schema.Type.UNION);
+    put(unionIndex, union.getTypes().size() <= 256 ? 1 : 4);
+    cursor.branch(union, unionIndex);
+  }
+}
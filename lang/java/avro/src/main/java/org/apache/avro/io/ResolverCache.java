@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.Schema;
+
+/**
+ * A size-bounded cache of resolvers, as returned by
+ * {@link ResolvingDecoder#resolve(Schema, Schema)}, shared by all threads.
+ * Resolvers are immutable, so each use only needs a new {@link ResolvingDecoder}
+ * around a cached resolver, which is cheap.
+ * <p/>
+ * Entries are keyed by the identities of the writer's and reader's schemas, as a
+ * resolver refers to the reader's schema objects: a reader built on an equal
+ * but distinct schema gets its own resolver. The keys refer to the schemas
+ * weakly. When the cache is full, entries whose schemas were collected are
+ * removed first, then arbitrary ones.
+ *
+ * @see org.apache.avro.generic.GenericDatumReader
+ */
+public class ResolverCache {
+  /** System property that sets the size of the shared cache. */
+  public static final String MAX_SIZE_PROP = "org.apache.avro.resolvercache.size";
+  static final int DEFAULT_MAX_SIZE = 1024;
+
+  private static final ResolverCache SHARED = new ResolverCache(Integer.getInteger(MAX_SIZE_PROP, DEFAULT_MAX_SIZE));
+
+  private final int maxSize;
+  private final ConcurrentHashMap<Key, Object> resolvers = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** Return the cache shared by the whole process. */
+  public static ResolverCache get() {
+    return SHARED;
+  }
+
+  /** Create a cache that holds at most <i>maxSize</i> resolvers. */
+  public ResolverCache(int maxSize) {
+    if (maxSize < 1)
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Return the resolver for a pair of schemas, creating it if needed. The
+   * writer's schema is first rewritten with the reader's aliases, as
+   * {@link Schema#applyAliases(Schema, Schema)} does.
+   */
+  public Object getResolver(Schema writer, Schema reader) throws IOException {
+    Key key = new Key(writer, reader);
+    Object resolver = resolvers.get(key);
+    if (resolver != null) {
+      hits.increment();
+      return resolver;
+    }
+    misses.increment();
+    // concurrent misses may resolve the same pair more than once; they all
+    // produce equivalent resolvers, so keep whichever is stored first
+    resolver = ResolvingDecoder.resolve(Schema.applyAliases(writer, reader), reader);
+    Object previous = resolvers.putIfAbsent(key, resolver);
+    if (previous != null)
+      return previous;
+    if (resolvers.size() > maxSize)
+      evict(key);
+    return resolver;
+  }
+
+  /**
+   * Return a new {@link ResolvingDecoder} for a pair of schemas, using a cached
+   * resolver.
+   */
+  public ResolvingDecoder resolvingDecoder(Schema writer, Schema reader, Decoder in) throws IOException {
+    return new ResolvingDecoder(getResolver(writer, reader), in);
+  }
+
+  private void evict(Key keep) {
+    for (Key key : resolvers.keySet()) {
+      if (key.isCleared() && resolvers.remove(key) != null)
+        evictions.increment();
+    }
+    Iterator<Key> keys = resolvers.keySet().iterator();
+    while (resolvers.size() > maxSize && keys.hasNext()) {
+      Key key = keys.next();
+      if (!key.equals(keep) && resolvers.remove(key) != null)
+        evictions.increment();
+    }
+  }
+
+  /** Return the number of lookups that found a cached resolver. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Return the number of lookups that had to create a resolver. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Return the number of resolvers removed to keep the cache within bounds. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Return the number of cached resolvers. */
+  public int size() {
+    return resolvers.size();
+  }
+
+  /** Return the greatest number of resolvers this cache holds. */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** Remove all cached resolvers. Statistics are kept. */
+  public void clear() {
+    resolvers.clear();
+  }
+
+  private static final class Key {
+    private final WeakReference<Schema> writer;
+    private final WeakReference<Schema> reader;
+    private final int hashCode;
+
+    Key(Schema writer, Schema reader) {
+      this.writer = new WeakReference<>(writer);
+      this.reader = new WeakReference<>(reader);
+      this.hashCode = System.identityHashCode(writer) * 31 + System.identityHashCode(reader);
+    }
+
+    boolean isCleared() {
+      return writer.get() == null || reader.get() == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key that = (Key) o;
+      Schema w = writer.get();
+      Schema r = reader.get();
+      // a cleared key only equals itself
+      return w != null && r != null && w == that.writer.get() && r == that.reader.get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
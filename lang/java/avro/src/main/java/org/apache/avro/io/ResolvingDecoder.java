@@ -22,6 +22,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.io.parsing.ResolvingGrammarGenerator;
 import org.apache.avro.io.parsing.Symbol;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -60,7 +61,7 @@ public class ResolvingDecoder extends ValidatingDecoder {
    * @param in       The underlying decoder.
    * @throws IOException
    */
-  private ResolvingDecoder(Object resolver, Decoder in) throws IOException {
+  ResolvingDecoder(Object resolver, Decoder in) throws IOException {
     super((Symbol) resolver, in);
   }
 
@@ -219,6 +220,18 @@ public class ResolvingDecoder extends ValidatingDecoder {
     }
   }
 
+  @Override
+  public Utf8 readInternedString(Utf8Interner interner) throws IOException {
+    Symbol actual = parser.advance(Symbol.STRING);
+    if (actual == Symbol.BYTES) {
+      ByteBuffer bytes = in.readBytes(null);
+      return interner.intern(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    } else {
+      assert actual == Symbol.STRING;
+      return in.readInternedString(interner);
+    }
+  }
+
   @Override
   public void skipString() throws IOException {
     Symbol actual = parser.advance(Symbol.STRING);
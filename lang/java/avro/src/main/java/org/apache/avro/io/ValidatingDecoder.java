@@ -27,6 +27,7 @@ import org.apache.avro.io.parsing.Parser;
 import org.apache.avro.io.parsing.Symbol;
 import org.apache.avro.io.parsing.ValidatingGrammarGenerator;
 import org.apache.avro.util.Utf8;
+import org.apache.avro.util.Utf8Interner;
 
 /**
  * An implementation of {@link Decoder} that ensures that the sequence of
@@ -112,6 +113,12 @@ public class ValidatingDecoder extends ParsingDecoder implements Parser.ActionHa
     return in.readString();
   }
 
+  @Override
+  public Utf8 readInternedString(Utf8Interner interner) throws IOException {
+    parser.advance(Symbol.STRING);
+    return in.readInternedString(interner);
+  }
+
   @Override
   public void skipString() throws IOException {
     parser.advance(Symbol.STRING);
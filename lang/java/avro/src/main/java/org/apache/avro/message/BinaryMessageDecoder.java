@@ -21,11 +21,17 @@ package org.apache.avro.message;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -47,7 +53,9 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BinaryMessageDecoder<D> extends MessageDecoder.BaseDecoder<D> {
 
-  private static final ThreadLocal<byte[]> HEADER_BUFFER = ThreadLocal.withInitial(() -> new byte[10]);
+  private static final int HEADER_LENGTH = 10;
+
+  private static final ThreadLocal<byte[]> HEADER_BUFFER = ThreadLocal.withInitial(() -> new byte[HEADER_LENGTH]);
 
   private static final ThreadLocal<ByteBuffer> FP_BUFFER = ThreadLocal.withInitial(() -> {
     byte[] header = HEADER_BUFFER.get();
@@ -161,6 +169,135 @@ public class BinaryMessageDecoder<D> extends MessageDecoder.BaseDecoder<D> {
     return decoder.decode(stream, reuse);
   }
 
+  /**
+   * Decodes a batch of messages, each in its own buffer.
+   * <p>
+   * Messages are grouped by schema fingerprint, so the schema of each group is
+   * looked up once and its messages are decoded with the same reader. A message
+   * that cannot be decoded, because its header is bad, its schema is unknown, or
+   * its payload is invalid, is reported in the results and the rest of the batch
+   * is still decoded.
+   * <p>
+   * The positions of the buffers are not changed.
+   *
+   * @param messages buffers that each contain one encoded message
+   * @param reuse    the results of a previous batch to refill, reusing its
+   *                 datums, or null
+   * @return the results, in the order of {@code messages}
+   */
+  public MessageBatch<D> decodeAll(List<ByteBuffer> messages, MessageBatch<D> reuse) {
+    MessageBatch<D> batch = reuse != null ? reuse : new MessageBatch<>();
+    int size = messages.size();
+    batch.reset(size);
+    // group the messages by fingerprint in one pass: each group holds its first
+    // and last message, and next links the messages of a group in order
+    Map<Long, int[]> groups = new LinkedHashMap<>();
+    int[] next = new int[size];
+    for (int i = 0; i < size; i += 1) {
+      ByteBuffer message = messages.get(i);
+      next[i] = -1;
+      try {
+        long fp = readFingerprint(message);
+        int[] group = groups.get(fp);
+        if (group == null) {
+          groups.put(fp, new int[] { i, i });
+        } else {
+          next[group[1]] = i;
+          group[1] = i;
+        }
+      } catch (BadHeaderException e) {
+        batch.fail(i, e);
+      }
+    }
+
+    BinaryDecoder decoder = null;
+    for (Map.Entry<Long, int[]> group : groups.entrySet()) {
+      DatumReader<D> reader = null;
+      RuntimeException missing = null;
+      try {
+        reader = getDecoder(group.getKey()).getReader();
+      } catch (RuntimeException e) {
+        missing = e;
+      }
+      for (int j = group.getValue()[0]; j >= 0; j = next[j]) {
+        if (missing != null) {
+          batch.fail(j, missing);
+          continue;
+        }
+        ByteBuffer payload = messages.get(j).duplicate();
+        payload.position(payload.position() + HEADER_LENGTH);
+        decoder = DecoderFactory.get().binaryDecoder(payload, decoder);
+        try {
+          batch.set(j, reader.read(batch.reuse(j), decoder));
+        } catch (IOException | RuntimeException e) {
+          batch.fail(j, e);
+        }
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Decodes a batch of messages from one buffer, as
+   * {@link #decodeAll(List, MessageBatch)} does. Each message is preceded by its
+   * length, written as an Avro {@code long}, as
+   * {@link org.apache.avro.io.Encoder#writeBytes(ByteBuffer)} writes it.
+   * <p>
+   * The position of the buffer is not changed.
+   *
+   * @param messages a buffer that contains length-delimited encoded messages
+   * @param reuse    the results of a previous batch to refill, reusing its
+   *                 datums, or null
+   * @return the results, in the order of the messages in the buffer
+   * @throws BadHeaderException if a message's length is invalid; messages cannot
+   *                            be found after it
+   */
+  public MessageBatch<D> decodeDelimited(ByteBuffer messages, MessageBatch<D> reuse) {
+    List<ByteBuffer> slices = new ArrayList<>();
+    ByteBuffer remaining = messages.duplicate();
+    while (remaining.hasRemaining()) {
+      long length = readLength(remaining);
+      if (length < 0 || length > remaining.remaining()) {
+        throw new BadHeaderException("Invalid message length: " + length);
+      }
+      ByteBuffer slice = remaining.slice();
+      slice.limit((int) length);
+      slices.add(slice);
+      remaining.position(remaining.position() + (int) length);
+    }
+    return decodeAll(slices, reuse);
+  }
+
+  private static long readFingerprint(ByteBuffer message) {
+    if (message.remaining() < HEADER_LENGTH) {
+      throw new BadHeaderException("Not enough header bytes");
+    }
+    int start = message.position();
+    byte b0 = message.get(start);
+    byte b1 = message.get(start + 1);
+    if (BinaryMessageEncoder.V1_HEADER[0] != b0 || BinaryMessageEncoder.V1_HEADER[1] != b1) {
+      throw new BadHeaderException(String.format("Unrecognized header bytes: 0x%02X 0x%02X", b0, b1));
+    }
+    long fp = message.getLong(start + 2);
+    return message.order() == ByteOrder.LITTLE_ENDIAN ? fp : Long.reverseBytes(fp);
+  }
+
+  /** Reads a zig-zag varint length, advancing the buffer's position. */
+  private static long readLength(ByteBuffer buffer) {
+    long n = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!buffer.hasRemaining()) {
+        throw new BadHeaderException("Not enough length bytes");
+      }
+      int b = buffer.get() & 0xff;
+      n |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return (n >>> 1) ^ -(n & 1);
+      }
+    }
+    throw new BadHeaderException("Invalid message length");
+  }
+
   /**
    * Reads a buffer from a stream, making multiple read calls if necessary.
    *
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.avro.message;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link SchemaStore} that caches the schemas found by another store.
+ * <p>
+ * At most {@code maxSize} schemas are kept; when the cache is full, the least
+ * recently used schema is evicted. Fingerprints that the other store does not
+ * know are remembered for {@code missTtl}, so a stream of messages with an
+ * unknown schema does not cause a lookup for every message. Concurrent lookups
+ * of the same fingerprint share a single lookup in the other store.
+ * <p>
+ * {@link #findByFingerprintAsync(long)} looks schemas up using the
+ * {@link Executor} passed to the constructor, so the caller is not blocked.
+ * Exceptions thrown by the other store are passed to the caller and are not
+ * cached.
+ * <p>
+ * This class is thread-safe.
+ */
+public class CachingSchemaStore implements SchemaStore {
+
+  private final SchemaStore delegate;
+  private final long missTtlNanos;
+  private final Executor executor;
+  private final LongSupplier nanoClock;
+
+  private final Map<Long, Schema> schemas;
+  private final Map<Long, Long> missExpirations;
+  private final Map<Long, CompletableFuture<Schema>> loading = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a cache in front of a {@link SchemaStore}. Asynchronous lookups use
+   * the common {@link ForkJoinPool}.
+   *
+   * @param delegate the {@link SchemaStore} to find schemas in
+   * @param maxSize  the greatest number of schemas to cache
+   * @param missTtl  how long to remember that a fingerprint is unknown
+   */
+  public CachingSchemaStore(SchemaStore delegate, int maxSize, Duration missTtl) {
+    this(delegate, maxSize, missTtl, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a cache in front of a {@link SchemaStore}.
+   *
+   * @param delegate the {@link SchemaStore} to find schemas in
+   * @param maxSize  the greatest number of schemas to cache
+   * @param missTtl  how long to remember that a fingerprint is unknown
+   * @param executor the {@link Executor} used for asynchronous lookups
+   */
+  public CachingSchemaStore(SchemaStore delegate, int maxSize, Duration missTtl, Executor executor) {
+    this(delegate, maxSize, missTtl, executor, System::nanoTime);
+  }
+
+  CachingSchemaStore(SchemaStore delegate, int maxSize, Duration missTtl, Executor executor, LongSupplier nanoClock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    }
+    if (missTtl.isNegative()) {
+      throw new IllegalArgumentException("Miss TTL must not be negative: " + missTtl);
+    }
+    this.delegate = Objects.requireNonNull(delegate, "SchemaStore cannot be null");
+    this.missTtlNanos = missTtl.toNanos();
+    this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+    this.nanoClock = nanoClock;
+    this.schemas = lruMap(maxSize);
+    this.missExpirations = lruMap(maxSize);
+  }
+
+  private static <V> Map<Long, V> lruMap(int maxSize) {
+    return new LinkedHashMap<Long, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Adds a schema to this cache, so it can be found without a lookup in the
+   * other store.
+   *
+   * @param schema a {@link Schema}
+   */
+  public void addSchema(Schema schema) {
+    long fp = SchemaNormalization.parsingFingerprint64(schema);
+    synchronized (this) {
+      schemas.put(fp, schema);
+      missExpirations.remove(fp);
+    }
+  }
+
+  /**
+   * Removes a fingerprint from this cache, whether its schema was found or not,
+   * so the next lookup goes to the other store.
+   *
+   * @param fingerprint an AVRO-CRC-64 fingerprint long
+   */
+  public synchronized void invalidate(long fingerprint) {
+    schemas.remove(fingerprint);
+    missExpirations.remove(fingerprint);
+  }
+
+  /** Return the number of cached schemas. */
+  public synchronized int size() {
+    return schemas.size();
+  }
+
+  @Override
+  public Schema findByFingerprint(long fingerprint) {
+    CompletableFuture<Schema> cached = lookUp(fingerprint);
+    if (cached != null) {
+      return cached.getNow(null);
+    }
+    CompletableFuture<Schema> future = new CompletableFuture<>();
+    CompletableFuture<Schema> existing = loading.putIfAbsent(fingerprint, future);
+    if (existing != null) {
+      return join(existing);
+    }
+    load(fingerprint, future);
+    return join(future);
+  }
+
+  @Override
+  public CompletableFuture<Schema> findByFingerprintAsync(long fingerprint) {
+    CompletableFuture<Schema> cached = lookUp(fingerprint);
+    if (cached != null) {
+      return cached;
+    }
+    CompletableFuture<Schema> future = new CompletableFuture<>();
+    CompletableFuture<Schema> existing = loading.putIfAbsent(fingerprint, future);
+    if (existing != null) {
+      return existing;
+    }
+    try {
+      executor.execute(() -> load(fingerprint, future));
+    } catch (RuntimeException e) {
+      loading.remove(fingerprint, future);
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /** Return a completed future if the fingerprint is cached, otherwise null. */
+  private synchronized CompletableFuture<Schema> lookUp(long fingerprint) {
+    Schema schema = schemas.get(fingerprint);
+    if (schema != null) {
+      return CompletableFuture.completedFuture(schema);
+    }
+    Long expiration = missExpirations.get(fingerprint);
+    if (expiration != null) {
+      if (nanoClock.getAsLong() - expiration < 0) {
+        return CompletableFuture.completedFuture(null);
+      }
+      missExpirations.remove(fingerprint);
+    }
+    return null;
+  }
+
+  private void load(long fingerprint, CompletableFuture<Schema> future) {
+    try {
+      Schema schema = delegate.findByFingerprint(fingerprint);
+      synchronized (this) {
+        if (schema != null) {
+          schemas.put(fingerprint, schema);
+        } else if (missTtlNanos > 0) {
+          missExpirations.put(fingerprint, nanoClock.getAsLong() + missTtlNanos);
+        }
+      }
+      loading.remove(fingerprint, future);
+      future.complete(schema);
+    } catch (Throwable e) {
+      loading.remove(fingerprint, future);
+      future.completeExceptionally(e);
+    }
+  }
+
+  private static Schema join(CompletableFuture<Schema> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.avro.message;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SchemaStore} that finds schemas in the {@code .avsc} files of a
+ * directory. This is meant for local testing; wrap it in a
+ * {@link CachingSchemaStore} to bound the cost of unknown fingerprints.
+ * <p>
+ * Each file holds one schema. Files are read when the store is created, and
+ * files added to the directory afterwards are read when a fingerprint is not
+ * found. Files are not read again if they change.
+ * <p>
+ * This class is thread-safe.
+ */
+public class DirectorySchemaStore implements SchemaStore {
+
+  private final File directory;
+  private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+  private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a store for the schema files in a directory.
+   *
+   * @param directory a directory of {@code .avsc} files
+   * @throws AvroRuntimeException if the directory cannot be listed or a file
+   *                              cannot be parsed
+   */
+  public DirectorySchemaStore(File directory) {
+    if (!directory.isDirectory()) {
+      throw new AvroRuntimeException("Not a directory: " + directory);
+    }
+    this.directory = directory;
+    scan();
+  }
+
+  @Override
+  public Schema findByFingerprint(long fingerprint) {
+    Schema schema = schemas.get(fingerprint);
+    if (schema == null) {
+      scan();
+      schema = schemas.get(fingerprint);
+    }
+    return schema;
+  }
+
+  /** Reads the files that were added to the directory since the last scan. */
+  private synchronized void scan() {
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(".avsc"));
+    if (files == null) {
+      throw new AvroRuntimeException("Cannot list schema directory: " + directory);
+    }
+    for (File file : files) {
+      if (loaded.contains(file.getName())) {
+        continue;
+      }
+      Schema schema;
+      try {
+        schema = new Schema.Parser().parse(file);
+      } catch (IOException e) {
+        throw new AvroRuntimeException("Cannot read schema file: " + file, e);
+      }
+      schemas.put(SchemaNormalization.parsingFingerprint64(schema), schema);
+      loaded.add(file.getName());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.avro.message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of decoding a batch of messages with
+ * {@link BinaryMessageDecoder#decodeAll(List, MessageBatch)} or
+ * {@link BinaryMessageDecoder#decodeDelimited(java.nio.ByteBuffer, MessageBatch)}.
+ * <p>
+ * Results are indexed in the order of the messages in the batch. Each message
+ * has either a datum or the exception that was thrown while decoding it, so one
+ * bad message does not lose the rest of the batch.
+ * <p>
+ * A batch can be passed back to the decoder to be refilled. Its datums are then
+ * reused, by index, for the next batch.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <D> a datum class
+ */
+public class MessageBatch<D> {
+
+  private final List<D> datums = new ArrayList<>();
+  private final List<Exception> errors = new ArrayList<>();
+  private int size = 0;
+  private int errorCount = 0;
+
+  /** Return the number of messages in the batch. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return the datum decoded from a message, or null if decoding the message
+   * failed.
+   */
+  public D get(int index) {
+    checkIndex(index);
+    return datums.get(index);
+  }
+
+  /**
+   * Return the exception thrown while decoding a message, or null if it was
+   * decoded.
+   */
+  public Exception getError(int index) {
+    checkIndex(index);
+    return errors.get(index);
+  }
+
+  /** Return whether a message was decoded. */
+  public boolean isDecoded(int index) {
+    return getError(index) == null;
+  }
+
+  /** Return the number of messages that could not be decoded. */
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  /** Return whether any message could not be decoded. */
+  public boolean hasErrors() {
+    return errorCount > 0;
+  }
+
+  /** Return the decoded datums, skipping messages that failed. */
+  public List<D> getDecoded() {
+    List<D> decoded = new ArrayList<>(size - errorCount);
+    for (int i = 0; i < size; i++) {
+      if (errors.get(i) == null) {
+        decoded.add(datums.get(i));
+      }
+    }
+    return decoded;
+  }
+
+  /** Prepares for a new batch of messages; datums are kept to be reused. */
+  void reset(int newSize) {
+    while (datums.size() < newSize) {
+      datums.add(null);
+      errors.add(null);
+    }
+    for (int i = 0; i < newSize; i++) {
+      errors.set(i, null);
+    }
+    this.size = newSize;
+    this.errorCount = 0;
+  }
+
+  /** Return the datum to reuse for a message, or null. */
+  D reuse(int index) {
+    return datums.get(index);
+  }
+
+  void set(int index, D datum) {
+    datums.set(index, datum);
+  }
+
+  void fail(int index, Exception error) {
+    if (errors.get(index) == null) {
+      errorCount += 1;
+    }
+    datums.set(index, null);
+    errors.set(index, error);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
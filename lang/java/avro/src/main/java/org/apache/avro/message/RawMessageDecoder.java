@@ -83,6 +83,10 @@ public class RawMessageDecoder<D> extends MessageDecoder.BaseDecoder<D> {
     this.reader = model.createDatumReader(writeSchema1, readSchema1);
   }
 
+  DatumReader<D> getReader() {
+    return reader;
+  }
+
   @Override
   public D decode(InputStream stream, D reuse) {
     BinaryDecoder decoder = DecoderFactory.get().directBinaryDecoder(stream, DECODER.get());
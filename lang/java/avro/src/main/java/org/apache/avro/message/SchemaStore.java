@@ -22,6 +22,7 @@ package org.apache.avro.message;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaNormalization;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -37,6 +38,26 @@ public interface SchemaStore {
    */
   Schema findByFingerprint(long fingerprint);
 
+  /**
+   * Retrieves a schema by its AVRO-CRC-64 fingerprint without blocking the
+   * caller, if the store supports it.
+   * <p>
+   * The default implementation calls {@link #findByFingerprint(long)} on the
+   * calling thread and returns a completed future.
+   *
+   * @param fingerprint an AVRO-CRC-64 fingerprint long
+   * @return a future Schema with the given fingerprint, or null
+   */
+  default CompletableFuture<Schema> findByFingerprintAsync(long fingerprint) {
+    CompletableFuture<Schema> future = new CompletableFuture<>();
+    try {
+      future.complete(findByFingerprint(fingerprint));
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
   /**
    * A map-based cache of schemas by AVRO-CRC-64 fingerprint.
    * <p>
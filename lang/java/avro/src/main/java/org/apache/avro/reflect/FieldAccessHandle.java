@@ -0,0 +1,720 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+/**
+ * Accesses fields through method handles. This replaces
+ * {@link FieldAccessUnsafe} where {@code sun.misc.Unsafe} is missing or
+ * disabled, and for the fields of Java records. Like it, primitive fields are
+ * read and written without boxing.
+ * <p/>
+ * The JIT inlines a method handle call as fully as an {@code Unsafe} access
+ * only when the handle is a constant, such as the value of a static final
+ * field. So each accessor class below is a template: for each field, its class
+ * file is defined again as a hidden class, whose static initializer takes the
+ * handles for that field. Hidden classes need Java 15 or later; on older JVMs
+ * this access cannot be created, and {@link ReflectionUtil} falls back to
+ * {@link FieldAccessReflect}. Hidden classes are unloaded with their accessors.
+ * <p/>
+ * Each handle is adapted to take the record as an {@link Object}, so it can be
+ * called with {@link MethodHandle#invokeExact}.
+ */
+class FieldAccessHandle extends FieldAccess {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /** Lookup.defineHiddenClass, or null before Java 15. */
+  private static final MethodHandle DEFINE_HIDDEN_CLASS;
+  private static final Object NO_OPTIONS;
+  static {
+    MethodHandle define = null;
+    Object options = null;
+    try {
+      Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+      options = Array.newInstance(option, 0);
+      define = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineHiddenClass",
+          MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class, options.getClass()))
+          .asFixedArity();
+    } catch (ReflectiveOperationException e) {
+      // before Java 15
+    }
+    DEFINE_HIDDEN_CLASS = define;
+    NO_OPTIONS = options;
+  }
+
+  private static final Map<Class<?>, byte[]> TEMPLATES = new ConcurrentHashMap<>();
+
+  // The handles of the accessor class being defined, which its static
+  // initializer reads. Guarded by the class lock.
+  private static MethodHandle pendingGetter;
+  private static MethodHandle pendingSetter;
+
+  FieldAccessHandle() {
+    if (DEFINE_HIDDEN_CLASS == null)
+      throw new UnsupportedOperationException("Method handle field access needs Java 15 or later");
+  }
+
+  @Override
+  protected FieldAccessor getAccessor(Field field) {
+    AvroEncode enc = field.getAnnotation(AvroEncode.class);
+    if (enc != null)
+      try {
+        return new HandleCustomEncodedField(define(HandleObjectField.class, field, Object.class),
+            enc.using().getDeclaredConstructor().newInstance());
+      } catch (Exception e) {
+        throw new AvroRuntimeException("Could not instantiate custom Encoding");
+      }
+    Class<?> c = field.getType();
+    if (c == int.class)
+      return define(HandleIntField.class, field, c);
+    else if (c == long.class)
+      return define(HandleLongField.class, field, c);
+    else if (c == byte.class)
+      return define(HandleByteField.class, field, c);
+    else if (c == float.class)
+      return define(HandleFloatField.class, field, c);
+    else if (c == double.class)
+      return define(HandleDoubleField.class, field, c);
+    else if (c == char.class)
+      return define(HandleCharField.class, field, c);
+    else if (c == boolean.class)
+      return define(HandleBooleanField.class, field, c);
+    else if (c == short.class)
+      return define(HandleShortField.class, field, c);
+    else
+      return define(HandleObjectField.class, field, Object.class);
+  }
+
+  /**
+   * Defines a hidden copy of a template accessor class whose handles access a
+   * field as values of the given type, and returns an instance of it.
+   */
+  private static HandleCachedField define(Class<? extends HandleCachedField> template, Field field, Class<?> type) {
+    MethodHandle[] handles = handles(field, type);
+    byte[] bytes = TEMPLATES.computeIfAbsent(template, FieldAccessHandle::classFile);
+    try {
+      MethodHandles.Lookup lookup;
+      synchronized (FieldAccessHandle.class) {
+        pendingGetter = handles[0];
+        pendingSetter = handles[1];
+        try {
+          lookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(LOOKUP, bytes, true, NO_OPTIONS);
+        } finally {
+          pendingGetter = null;
+          pendingSetter = null;
+        }
+      }
+      return (HandleCachedField) lookup
+          .findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Field.class)).invoke(field);
+    } catch (Throwable t) {
+      throw new AvroRuntimeException("Could not define an accessor for field " + field, t);
+    }
+  }
+
+  static synchronized MethodHandle pendingGetter() {
+    return pendingGetter;
+  }
+
+  static synchronized MethodHandle pendingSetter() {
+    return pendingSetter;
+  }
+
+  private static byte[] classFile(Class<?> c) {
+    String name = c.getName();
+    try (InputStream in = c.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      if (in == null)
+        throw new AvroRuntimeException("Cannot find the class file of " + name);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+        out.write(buffer, 0, n);
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new AvroRuntimeException("Cannot read the class file of " + name, e);
+    }
+  }
+
+  /**
+   * Returns handles that get and set a field as values of the given type, and
+   * take the record as an {@link Object}.
+   */
+  static MethodHandle[] handles(Field f, Class<?> type) {
+    MethodHandle getter;
+    MethodHandle setter;
+    try {
+      f.setAccessible(true);
+      getter = LOOKUP.unreflectGetter(f);
+    } catch (IllegalAccessException | RuntimeException e) {
+      // Accessors are made for every field of a class, so only fail when
+      // this one is used.
+      getter = MethodHandles.dropArguments(MethodHandles.throwException(f.getType(), AvroRuntimeException.class)
+          .bindTo(new AvroRuntimeException("Cannot access field " + f, e)), 0, f.getDeclaringClass());
+    }
+    try {
+      setter = LOOKUP.unreflectSetter(f);
+    } catch (IllegalAccessException | RuntimeException e) {
+      // the fields of Java records are final, and can only be read
+      setter = MethodHandles.dropArguments(MethodHandles.throwException(void.class, AvroRuntimeException.class)
+          .bindTo(new AvroRuntimeException("Cannot set field " + f, e)), 0, f.getDeclaringClass(), f.getType());
+    }
+    return new MethodHandle[] { getter.asType(MethodType.methodType(type, Object.class)),
+        setter.asType(MethodType.methodType(void.class, Object.class, type)) };
+  }
+
+  /**
+   * Converts what a field handle threw into the exceptions that
+   * {@link Field#get(Object)} and {@link Field#set(Object, Object)} throw.
+   */
+  static RuntimeException wrap(Field field, Throwable t) {
+    if (t instanceof ClassCastException)
+      return new IllegalArgumentException("Can not set " + field.getType().getName() + " field "
+          + field.getDeclaringClass().getName() + "." + field.getName(), t);
+    if (t instanceof RuntimeException)
+      return (RuntimeException) t;
+    if (t instanceof Error)
+      throw (Error) t;
+    return new AvroRuntimeException(t);
+  }
+
+  /**
+   * The base of the template accessor classes. Each template keeps its handles
+   * in static final fields, set from {@link #pendingGetter()} and
+   * {@link #pendingSetter()} when a hidden copy of it is defined, and is never
+   * used itself.
+   */
+  abstract static class HandleCachedField extends FieldAccessor {
+    protected final Field field;
+    protected final boolean isStringable;
+
+    HandleCachedField(Field f) {
+      this.field = f;
+      this.isStringable = f.isAnnotationPresent(Stringable.class);
+    }
+
+    @Override
+    protected Field getField() {
+      return field;
+    }
+
+    @Override
+    protected boolean supportsIO() {
+      return true;
+    }
+
+    @Override
+    protected boolean isStringable() {
+      return isStringable;
+    }
+  }
+
+  final static class HandleIntField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleIntField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (int) (Integer) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (int) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      int value = in.readInt();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      int value;
+      try {
+        value = (int) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeInt(value);
+    }
+  }
+
+  final static class HandleFloatField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleFloatField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (float) (Float) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (float) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      float value = in.readFloat();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      float value;
+      try {
+        value = (float) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeFloat(value);
+    }
+  }
+
+  final static class HandleShortField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleShortField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (short) (Short) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (short) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      short value = (short) in.readInt();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      short value;
+      try {
+        value = (short) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeInt(value);
+    }
+  }
+
+  final static class HandleByteField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleByteField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (byte) (Byte) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (byte) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      byte value = (byte) in.readInt();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      byte value;
+      try {
+        value = (byte) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeInt(value);
+    }
+  }
+
+  final static class HandleBooleanField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleBooleanField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (boolean) (Boolean) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (boolean) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      boolean value = in.readBoolean();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      boolean value;
+      try {
+        value = (boolean) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeBoolean(value);
+    }
+  }
+
+  final static class HandleCharField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleCharField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (char) (Character) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (char) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      char value = (char) in.readInt();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      char value;
+      try {
+        value = (char) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeInt(value);
+    }
+  }
+
+  final static class HandleLongField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleLongField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (long) (Long) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (long) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      long value = in.readLong();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      long value;
+      try {
+        value = (long) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeLong(value);
+    }
+  }
+
+  final static class HandleDoubleField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleDoubleField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, (double) (Double) value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (double) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      double value = in.readDouble();
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      double value;
+      try {
+        value = (double) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+      out.writeDouble(value);
+    }
+  }
+
+  final static class HandleObjectField extends HandleCachedField {
+    private static final MethodHandle GETTER = pendingGetter();
+    private static final MethodHandle SETTER = pendingSetter();
+
+    HandleObjectField(Field f) {
+      super(f);
+    }
+
+    @Override
+    protected void set(Object object, Object value) {
+      try {
+        SETTER.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected Object get(Object object) {
+      try {
+        return (Object) GETTER.invokeExact(object);
+      } catch (Throwable t) {
+        throw wrap(field, t);
+      }
+    }
+
+    @Override
+    protected boolean supportsIO() {
+      return false;
+    }
+  }
+
+  /** Encodes the value that an object field accessor gets and sets. */
+  final static class HandleCustomEncodedField extends FieldAccessor {
+
+    private final HandleCachedField accessor;
+    private final CustomEncoding<?> encoding;
+
+    HandleCustomEncodedField(HandleCachedField accessor, CustomEncoding<?> encoding) {
+      this.accessor = accessor;
+      this.encoding = encoding;
+    }
+
+    @Override
+    protected Object get(Object object) throws IllegalAccessException {
+      return accessor.get(object);
+    }
+
+    @Override
+    protected void set(Object object, Object value) throws IllegalAccessException, IOException {
+      accessor.set(object, value);
+    }
+
+    @Override
+    protected void read(Object object, Decoder in) throws IOException {
+      try {
+        set(object, encoding.read(in));
+      } catch (IllegalAccessException e) {
+        throw new AvroRuntimeException(e);
+      }
+    }
+
+    @Override
+    protected Object readValue(Decoder in) throws IOException {
+      return encoding.read(in);
+    }
+
+    @Override
+    protected void write(Object object, Encoder out) throws IOException {
+      try {
+        encoding.write(get(object), out);
+      } catch (IllegalAccessException e) {
+        throw new AvroRuntimeException(e);
+      }
+    }
+
+    @Override
+    protected Field getField() {
+      return accessor.getField();
+    }
+
+    @Override
+    protected boolean supportsIO() {
+      return true;
+    }
+
+    @Override
+    protected boolean isStringable() {
+      return accessor.isStringable();
+    }
+
+    @Override
+    protected boolean isCustomEncoded() {
+      return true;
+    }
+  }
+}
@@ -37,6 +37,14 @@ abstract class FieldAccessor {
   protected void write(Object object, Encoder out) throws IOException {
   }
 
+  /**
+   * Read a value of this field without setting it, for fields that are
+   * {@link #isCustomEncoded() custom encoded}.
+   */
+  protected Object readValue(Decoder in) throws IOException {
+    throw new UnsupportedOperationException("Not custom encoded: " + getField());
+  }
+
   protected boolean supportsIO() {
     return false;
   }
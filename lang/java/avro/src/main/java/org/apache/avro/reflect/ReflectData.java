@@ -39,6 +39,10 @@ import org.apache.avro.util.ClassUtils;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -58,9 +62,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /** Utilities to use existing Java classes and interfaces via reflection. */
@@ -364,35 +369,122 @@ public class ReflectData extends SpecificData {
   static class ClassAccessorData {
     private final Class<?> clazz;
     private final Map<String, FieldAccessor> byName = new HashMap<>();
-    // getAccessorsFor is already synchronized, no need to wrap
-    final Map<Schema, FieldAccessor[]> bySchema = new WeakHashMap<>();
+    // The components and the canonical constructor of a Java record, which
+    // is created with all its field values. Null for other classes.
+    private final String[] components;
+    private final Class<?>[] componentTypes;
+    private final MethodHandle canonicalConstructor;
+    // Copied on write, so that readers and writers of every record look up
+    // accessors without taking a lock. Schemas are held weakly.
+    volatile AccessorsEntry[] bySchema = new AccessorsEntry[0];
 
     private ClassAccessorData(Class<?> c) {
       clazz = c;
+      boolean javaRecord = ReflectionUtil.isJavaRecord(c);
+      FieldAccess access = javaRecord ? ReflectionUtil.getRecordFieldAccess() : ReflectionUtil.getFieldAccess();
       for (Field f : getFields(c, false)) {
         if (f.isAnnotationPresent(AvroIgnore.class)) {
           continue;
         }
-        FieldAccessor accessor = ReflectionUtil.getFieldAccess().getAccessor(f);
+        FieldAccessor accessor = access.getAccessor(f);
         AvroName avroname = f.getAnnotation(AvroName.class);
         byName.put((avroname != null ? avroname.value() : f.getName()), accessor);
       }
+      components = javaRecord ? ReflectionUtil.getRecordComponentNames(c) : null;
+      componentTypes = javaRecord ? ReflectionUtil.getRecordComponentTypes(c) : null;
+      canonicalConstructor = javaRecord ? getCanonicalConstructor(c, componentTypes) : null;
+    }
+
+    private static MethodHandle getCanonicalConstructor(Class<?> c, Class<?>[] types) {
+      MethodHandle constructor;
+      try {
+        Constructor<?> canonical = c.getDeclaredConstructor(types);
+        canonical.setAccessible(true);
+        constructor = MethodHandles.lookup().unreflectConstructor(canonical);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // records may still be written, so only fail when one is read
+        constructor = MethodHandles.dropArguments(MethodHandles.throwException(c, AvroRuntimeException.class)
+            .bindTo(new AvroRuntimeException("Cannot construct " + c, e)), 0, types);
+      }
+      return constructor.asSpreader(Object[].class, types.length)
+          .asType(MethodType.methodType(Object.class, Object[].class));
     }
 
     /**
      * Return the field accessors as an array, indexed by the field index of the
      * given schema.
      */
-    private synchronized FieldAccessor[] getAccessorsFor(Schema schema) {
-      // if synchronized is removed from this method, adjust bySchema appropriately
-      FieldAccessor[] result = bySchema.get(schema);
+    private FieldAccessor[] getAccessorsFor(Schema schema) {
+      return getEntryFor(schema).accessors;
+    }
+
+    /**
+     * Return what creates Java records from the field values of the given
+     * schema, or null if this class is not a record.
+     */
+    private RecordConstructor getRecordConstructorFor(Schema schema) {
+      return canonicalConstructor == null ? null : getEntryFor(schema).constructor;
+    }
+
+    private AccessorsEntry getEntryFor(Schema schema) {
+      AccessorsEntry result = findEntry(bySchema, schema);
       if (result == null) {
-        result = createAccessorsFor(schema);
-        bySchema.put(schema, result);
+        synchronized (this) {
+          AccessorsEntry[] entries = bySchema;
+          result = findEntry(entries, schema);
+          if (result == null) {
+            FieldAccessor[] accessors = createAccessorsFor(schema);
+            result = new AccessorsEntry(schema, accessors,
+                canonicalConstructor == null ? null : createRecordConstructor(accessors));
+            List<AccessorsEntry> live = new ArrayList<>(entries.length + 1);
+            for (AccessorsEntry entry : entries) {
+              if (entry.get() != null) {
+                live.add(entry);
+              }
+            }
+            live.add(result);
+            bySchema = live.toArray(new AccessorsEntry[0]);
+          }
+        }
       }
       return result;
     }
 
+    private static AccessorsEntry findEntry(AccessorsEntry[] entries, Schema schema) {
+      // the same schema instance is usually passed again, so only compare
+      // schemas deeply when no entry holds it
+      for (AccessorsEntry entry : entries) {
+        if (entry.get() == schema) {
+          return entry;
+        }
+      }
+      for (AccessorsEntry entry : entries) {
+        if (schema.equals(entry.get())) {
+          return entry;
+        }
+      }
+      return null;
+    }
+
+    private RecordConstructor createRecordConstructor(FieldAccessor[] accessors) {
+      int[] positions = new int[components.length];
+      Object[] defaults = new Object[components.length];
+      for (int i = 0; i < components.length; i++) {
+        positions[i] = -1;
+        for (int pos = 0; pos < accessors.length; pos++) {
+          if (accessors[pos] != null && accessors[pos].getField().getName().equals(components[i])) {
+            positions[i] = pos;
+            break;
+          }
+        }
+        if (positions[i] < 0 && componentTypes[i].isPrimitive()) {
+          // components without a field get the zero value of their type
+          defaults[i] = java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(componentTypes[i], 1), 0);
+        }
+      }
+      return new RecordConstructor(canonicalConstructor, accessors, positions, defaults);
+    }
+
     private FieldAccessor[] createAccessorsFor(Schema schema) {
       List<Schema.Field> avroFields = schema.getFields();
       FieldAccessor[] result = new FieldAccessor[avroFields.size()];
@@ -411,6 +503,69 @@ public class ReflectData extends SpecificData {
     }
   }
 
+  static final class AccessorsEntry extends WeakReference<Schema> {
+    private final FieldAccessor[] accessors;
+    private final RecordConstructor constructor;
+
+    AccessorsEntry(Schema schema, FieldAccessor[] accessors, RecordConstructor constructor) {
+      super(schema);
+      this.accessors = accessors;
+      this.constructor = constructor;
+    }
+  }
+
+  /**
+   * Creates instances of a Java record from the values of the fields of a
+   * schema, indexed by their position, by calling its canonical constructor.
+   */
+  static final class RecordConstructor {
+    private final MethodHandle constructor;
+    private final FieldAccessor[] accessors;
+    // the schema position of the value of each component, or -1 if none
+    private final int[] positions;
+    private final Object[] defaults;
+
+    RecordConstructor(MethodHandle constructor, FieldAccessor[] accessors, int[] positions, Object[] defaults) {
+      this.constructor = constructor;
+      this.accessors = accessors;
+      this.positions = positions;
+      this.defaults = defaults;
+    }
+
+    /** Return the accessors of the fields, indexed by their position. */
+    FieldAccessor[] getAccessors() {
+      return accessors;
+    }
+
+    Object newInstance(Object[] values) {
+      Object[] args = defaults.clone();
+      for (int i = 0; i < positions.length; i++) {
+        if (positions[i] >= 0) {
+          args[i] = values[positions[i]];
+        }
+      }
+      try {
+        return (Object) constructor.invokeExact(args);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new AvroRuntimeException(t);
+      }
+    }
+  }
+
+  /**
+   * Return what creates the Java records of a schema, or null if its class is
+   * not a Java record.
+   */
+  RecordConstructor getRecordConstructor(Schema schema) {
+    if (schema.getLogicalType() != null && getConversionFor(schema.getLogicalType()) != null)
+      return null;
+    Class<?> c = getClass(schema);
+    ClassAccessorData data = c == null ? null : getClassAccessorData(c);
+    return data == null ? null : data.getRecordConstructorFor(schema);
+  }
+
   private ClassAccessorData getClassAccessorData(Class<?> c) {
     return ACCESSOR_CACHE.get(c);
   }
@@ -707,6 +862,8 @@ public class ReflectData extends SpecificData {
         Union union = c.getAnnotation(Union.class);
         if (union != null) { // union annotated
           return getAnnotatedUnion(union, names);
+        } else if (isSealedUnion(c)) { // sealed interface or abstract class
+          return getSealedUnion(c, names);
         } else if (isStringable(c)) { // Stringable
           Schema result = Schema.create(Schema.Type.STRING);
           result.addProp(CLASS_PROP, c.getName());
@@ -791,7 +948,7 @@ public class ReflectData extends SpecificData {
       return;
     Class<?> c = (Class<?>) element;
     Union union = c.getAnnotation(Union.class);
-    if (union != null) // element is annotated union
+    if (union != null || isSealedUnion(c)) // element is a union
       schema.addProp(ELEMENT_PROP, c.getName());
   }
 
@@ -803,6 +960,31 @@ public class ReflectData extends SpecificData {
     return Schema.createUnion(branches);
   }
 
+  // a sealed interface or abstract class is a union of its permitted subclasses.
+  // Enums whose constants have bodies are sealed too, but remain enums.
+  private static boolean isSealedUnion(Class<?> c) {
+    return !c.isEnum() && (c.isInterface() || Modifier.isAbstract(c.getModifiers()))
+        && ReflectionUtil.getPermittedSubclasses(c) != null;
+  }
+
+  // construct a union from the classes that extend a sealed class
+  private Schema getSealedUnion(Class<?> c, Map<String, Schema> names) {
+    List<Schema> branches = new ArrayList<>();
+    for (Class<?> branch : getSealedBranches(c, new LinkedHashSet<>()))
+      branches.add(createSchema(branch, names));
+    return Schema.createUnion(branches);
+  }
+
+  private static Set<Class<?>> getSealedBranches(Class<?> c, Set<Class<?>> branches) {
+    for (Class<?> subclass : ReflectionUtil.getPermittedSubclasses(c)) {
+      if (isSealedUnion(subclass)) // unions can't be nested
+        getSealedBranches(subclass, branches);
+      else
+        branches.add(subclass);
+    }
+    return branches;
+  }
+
   // construct a schema from a union annotation
   private Schema getAnnotatedArray(org.apache.avro.reflect.Array array, Map<String, Schema> names) {
     List<Schema> branches = new ArrayList<>();
@@ -253,6 +253,28 @@ public class ReflectDatumReader<T> extends SpecificDatumReader<T> {
     return value;
   }
 
+  @Override
+  protected Object readRecord(Object old, Schema expected, ResolvingDecoder in) throws IOException {
+    ReflectData.RecordConstructor constructor = ((ReflectData) getData()).getRecordConstructor(expected);
+    if (constructor == null) {
+      return super.readRecord(old, expected, in);
+    }
+    // Java records are immutable, so read all their values before creating one
+    FieldAccessor[] accessors = constructor.getAccessors();
+    Object[] values = new Object[accessors.length];
+    for (Field field : in.readFieldOrder()) {
+      FieldAccessor accessor = accessors[field.pos()];
+      if (accessor == null) {
+        read(null, field.schema(), in);
+      } else if (accessor.isCustomEncoded()) {
+        values[field.pos()] = accessor.readValue(in);
+      } else {
+        values[field.pos()] = readValue(accessor, field, null, in);
+      }
+    }
+    return constructor.newInstance(values);
+  }
+
   @Override
   protected void readField(Object record, Field field, Object oldDatum, ResolvingDecoder in, Object state)
       throws IOException {
@@ -264,31 +286,9 @@ public class ReflectDatumReader<T> extends SpecificDatumReader<T> {
           accessor.read(record, in);
           return;
         }
-        if (accessor.isStringable()) {
-          try {
-            String asString = (String) read(null, field.schema(), in);
-            accessor.set(record,
-                asString == null ? null : newInstanceFromString(accessor.getField().getType(), asString));
-            return;
-          } catch (Exception e) {
-            throw new AvroRuntimeException("Failed to read Stringable", e);
-          }
-        }
-        LogicalType logicalType = field.schema().getLogicalType();
-        if (logicalType != null) {
-          Conversion<?> conversion = getData().getConversionByClass(accessor.getField().getType(), logicalType);
-          if (conversion != null) {
-            try {
-              accessor.set(record, convert(readWithoutConversion(oldDatum, field.schema(), in), field.schema(),
-                  logicalType, conversion));
-            } catch (IllegalAccessException e) {
-              throw new AvroRuntimeException("Failed to set " + field);
-            }
-            return;
-          }
-        }
+        Object value = readValue(accessor, field, oldDatum, in);
         try {
-          accessor.set(record, readWithoutConversion(oldDatum, field.schema(), in));
+          accessor.set(record, value);
           return;
         } catch (IllegalAccessException e) {
           throw new AvroRuntimeException("Failed to set " + field);
@@ -297,4 +297,24 @@ public class ReflectDatumReader<T> extends SpecificDatumReader<T> {
     }
     super.readField(record, field, oldDatum, in, state);
   }
+
+  private Object readValue(FieldAccessor accessor, Field field, Object oldDatum, ResolvingDecoder in)
+      throws IOException {
+    if (accessor.isStringable()) {
+      try {
+        String asString = (String) read(null, field.schema(), in);
+        return asString == null ? null : newInstanceFromString(accessor.getField().getType(), asString);
+      } catch (Exception e) {
+        throw new AvroRuntimeException("Failed to read Stringable", e);
+      }
+    }
+    LogicalType logicalType = field.schema().getLogicalType();
+    if (logicalType != null) {
+      Conversion<?> conversion = getData().getConversionByClass(accessor.getField().getType(), logicalType);
+      if (conversion != null) {
+        return convert(readWithoutConversion(oldDatum, field.schema(), in), field.schema(), logicalType, conversion);
+      }
+    }
+    return readWithoutConversion(oldDatum, field.schema(), in);
+  }
 }
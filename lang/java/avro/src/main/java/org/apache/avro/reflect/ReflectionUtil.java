@@ -24,6 +24,7 @@ import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -56,7 +57,7 @@ public class ReflectionUtil {
     // so it is monomorphic and the JIT can inline
     FieldAccess access = null;
     try {
-      if (null == System.getProperty("avro.disable.unsafe")) {
+      if (null == System.getProperty("avro.disable.unsafe") && !isUnsafeDeprecated()) {
         FieldAccess unsafeAccess = load("org.apache.avro.reflect.FieldAccessUnsafe", FieldAccess.class);
         if (validate(unsafeAccess)) {
           access = unsafeAccess;
@@ -64,6 +65,15 @@ public class ReflectionUtil {
       }
     } catch (Throwable ignored) {
     }
+    if (access == null) {
+      try {
+        FieldAccess handleAccess = load("org.apache.avro.reflect.FieldAccessHandle", FieldAccess.class);
+        if (validate(handleAccess)) {
+          access = handleAccess;
+        }
+      } catch (Throwable ignored) {
+      }
+    }
     if (access == null) {
       try {
         FieldAccess reflectAccess = load("org.apache.avro.reflect.FieldAccessReflect", FieldAccess.class);
@@ -77,6 +87,20 @@ public class ReflectionUtil {
     fieldAccess = access;
   }
 
+  /**
+   * Whether this JVM deprecates the memory access methods of
+   * {@code sun.misc.Unsafe}, as Java 23 and later do, so that method handles
+   * should be used instead.
+   */
+  static boolean isUnsafeDeprecated() {
+    String version = System.getProperty("java.specification.version", "");
+    try {
+      return !version.startsWith("1.") && Integer.parseInt(version) >= 23;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
   private static <T> T load(String name, Class<T> type) throws Exception {
     return ReflectionUtil.class.getClassLoader().loadClass(name).asSubclass(type).getDeclaredConstructor()
         .newInstance();
@@ -86,6 +110,82 @@ public class ReflectionUtil {
     return fieldAccess;
   }
 
+  /**
+   * Return the access to use for the fields of Java records. {@code Unsafe}
+   * cannot access them, and they can only be read, so method handles are used.
+   */
+  static FieldAccess getRecordFieldAccess() {
+    return fieldAccess instanceof FieldAccessHandle ? fieldAccess : RecordFieldAccess.ACCESS;
+  }
+
+  private static final class RecordFieldAccess {
+    private static final FieldAccess ACCESS = new FieldAccessHandle();
+  }
+
+  // Java records and sealed classes are only known since Java 16 and 17, so
+  // their methods are looked up and are null on older JVMs.
+  private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+  private static final Method GET_RECORD_COMPONENTS = findMethod(Class.class, "getRecordComponents");
+  private static final Method GET_PERMITTED_SUBCLASSES = findMethod(Class.class, "getPermittedSubclasses");
+  private static final Method COMPONENT_NAME;
+  private static final Method COMPONENT_TYPE;
+  static {
+    Class<?> component = null;
+    try {
+      component = Class.forName("java.lang.reflect.RecordComponent");
+    } catch (ClassNotFoundException ignored) {
+    }
+    COMPONENT_NAME = component == null ? null : findMethod(component, "getName");
+    COMPONENT_TYPE = component == null ? null : findMethod(component, "getType");
+  }
+
+  private static Method findMethod(Class<?> c, String name) {
+    try {
+      return c.getMethod(name);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static Object invoke(Method method, Object target) {
+    try {
+      return method.invoke(target);
+    } catch (ReflectiveOperationException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
+  /** Return whether a class is a Java record. */
+  static boolean isJavaRecord(Class<?> c) {
+    return IS_RECORD != null && (Boolean) invoke(IS_RECORD, c);
+  }
+
+  /** Return the names of the components of a Java record, in order. */
+  static String[] getRecordComponentNames(Class<?> c) {
+    Object[] components = (Object[]) invoke(GET_RECORD_COMPONENTS, c);
+    String[] names = new String[components.length];
+    for (int i = 0; i < components.length; i++)
+      names[i] = (String) invoke(COMPONENT_NAME, components[i]);
+    return names;
+  }
+
+  /** Return the types of the components of a Java record, in order. */
+  static Class<?>[] getRecordComponentTypes(Class<?> c) {
+    Object[] components = (Object[]) invoke(GET_RECORD_COMPONENTS, c);
+    Class<?>[] types = new Class<?>[components.length];
+    for (int i = 0; i < components.length; i++)
+      types[i] = (Class<?>) invoke(COMPONENT_TYPE, components[i]);
+    return types;
+  }
+
+  /**
+   * Return the classes permitted to extend a sealed class or interface, or null
+   * if it is not sealed.
+   */
+  static Class<?>[] getPermittedSubclasses(Class<?> c) {
+    return GET_PERMITTED_SUBCLASSES == null ? null : (Class<?>[]) invoke(GET_PERMITTED_SUBCLASSES, c);
+  }
+
   private static boolean validate(FieldAccess access) throws Exception {
     return new AccessorTestClass().validate(access);
   }
@@ -163,7 +263,7 @@ public class ReflectionUtil {
     return reuse;
   }
 
-  private static <D> Supplier<D> getConstructorAsSupplier(Class<D> clazz) {
+  public static <D> Supplier<D> getConstructorAsSupplier(Class<D> clazz) {
     try {
       MethodHandles.Lookup lookup = MethodHandles.lookup();
       MethodHandle constructorHandle = lookup.findConstructor(clazz, MethodType.methodType(void.class));
@@ -18,6 +18,7 @@
 package org.apache.avro.specific;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
@@ -27,6 +28,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.LinkedHashMap;
 import java.nio.ByteBuffer;
 import java.lang.reflect.Constructor;
@@ -47,6 +50,7 @@ import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.reflect.ReflectionUtil;
 
 /** Utilities for generated Java classes and interfaces. */
 public class SpecificData extends GenericData {
@@ -55,21 +59,76 @@ public class SpecificData extends GenericData {
 
   private static final Class<?>[] NO_ARG = new Class[] {};
   private static final Class<?>[] SCHEMA_ARG = new Class[] { Schema.class };
-  private static final ClassValue<Constructor> CTOR_CACHE = new ClassValue<Constructor>() {
+  private static final ClassValue<Function<Schema, Object>> FACTORY_CACHE = new ClassValue<Function<Schema, Object>>() {
     @Override
-    protected Constructor computeValue(Class<?> c) {
+    @SuppressWarnings("unchecked")
+    protected Function<Schema, Object> computeValue(Class<?> c) {
       boolean useSchema = SchemaConstructable.class.isAssignableFrom(c);
+      if (!useSchema) {
+        Supplier<?> generated = getGeneratedFactory(c);
+        if (generated != null)
+          return s -> generated.get();
+      }
+      if (isLinkable(c, useSchema)) {
+        if (useSchema) {
+          Function<Schema, ?> ctor = ReflectionUtil.getConstructorAsFunction(Schema.class, c);
+          // the function only produces values, so it is safe to widen its result type
+          if (ctor != null)
+            return (Function<Schema, Object>) ctor;
+        } else {
+          Supplier<?> ctor = ReflectionUtil.getConstructorAsSupplier(c);
+          if (ctor != null)
+            return s -> ctor.get();
+        }
+      }
+      Constructor meth;
       try {
-        Constructor meth = c.getDeclaredConstructor(useSchema ? SCHEMA_ARG : NO_ARG);
+        meth = c.getDeclaredConstructor(useSchema ? SCHEMA_ARG : NO_ARG);
         meth.setAccessible(true);
-        return meth;
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
+      return s -> {
+        try {
+          return meth.newInstance(useSchema ? new Object[] { s } : null);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      };
     }
-
   };
 
+  /**
+   * Return the factory that a generated class declares in its public static
+   * <code>FACTORY$</code> field, or null if it has none.
+   */
+  private static Supplier<?> getGeneratedFactory(Class<?> c) {
+    try {
+      Field field = c.getDeclaredField("FACTORY$");
+      if (Modifier.isStatic(field.getModifiers()) && Supplier.class.isAssignableFrom(field.getType()))
+        return (Supplier<?>) field.get(null);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      // fall through
+    }
+    return null;
+  }
+
+  /**
+   * Whether a constructor can be bound to a lambda. The class must be visible
+   * from this class loader, or the lambda would fail to link.
+   */
+  private static boolean isLinkable(Class<?> c, boolean useSchema) {
+    if (!Modifier.isPublic(c.getModifiers()) || Modifier.isAbstract(c.getModifiers()))
+      return false;
+    try {
+      if (!Modifier.isPublic(c.getConstructor(useSchema ? SCHEMA_ARG : NO_ARG).getModifiers()))
+        return false;
+      return Class.forName(c.getName(), false, SpecificData.class.getClassLoader()) == c;
+    } catch (NoSuchMethodException | ClassNotFoundException | LinkageError | SecurityException e) {
+      return false;
+    }
+  }
+
   public static final String CLASS_PROP = "java-class";
   public static final String KEY_CLASS_PROP = "java-key-class";
   public static final String ELEMENT_PROP = "java-element-class";
@@ -460,19 +519,13 @@ public class SpecificData extends GenericData {
   /**
    * Create an instance of a class. If the class implements
    * {@link SchemaConstructable}, call a constructor with a
-   * {@link org.apache.avro.Schema} parameter, otherwise use a no-arg constructor.
+   * {@link org.apache.avro.Schema} parameter, otherwise use the factory in a
+   * generated class's <code>FACTORY$</code> field or a no-arg constructor.
+   * Constructors are bound to lambdas when possible, so that creating an
+   * instance is not a reflective call.
    */
-  @SuppressWarnings("unchecked")
   public static Object newInstance(Class c, Schema s) {
-    boolean useSchema = SchemaConstructable.class.isAssignableFrom(c);
-    Object result;
-    try {
-      Constructor meth = CTOR_CACHE.get(c);
-      result = meth.newInstance(useSchema ? new Object[] { s } : null);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    return result;
+    return FACTORY_CACHE.get(c).apply(s);
   }
 
   @Override
@@ -504,17 +557,8 @@ public class SpecificData extends GenericData {
       return super.getNewRecordSupplier(schema);
     }
 
-    boolean useSchema = SchemaConstructable.class.isAssignableFrom(c);
-    Constructor meth = (Constructor) CTOR_CACHE.get(c);
-    Object[] params = useSchema ? new Object[] { schema } : (Object[]) null;
-
-    return (old, sch) -> {
-      try {
-        return c.isInstance(old) ? old : meth.newInstance(params);
-      } catch (ReflectiveOperationException e) {
-        throw new RuntimeException(e);
-      }
-    };
+    Function<Schema, Object> factory = FACTORY_CACHE.get(c);
+    return (old, sch) -> c.isInstance(old) ? old : factory.apply(schema);
   }
 
   /**
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.util;
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of canonical {@link Utf8} instances, keyed by their bytes.
+ * Looking up bytes that are already in the table returns the same instance
+ * without allocating, and its {@link Utf8#toString()} returns the same
+ * {@link String}. This suits strings with few distinct values that are read
+ * many times.
+ * <p/>
+ * The table is direct-mapped: a value whose slot is taken by another value
+ * replaces it. Values longer than {@link #MAX_LENGTH} bytes are never interned.
+ * Instances may be shared by threads.
+ * <p/>
+ * Interned instances are shared, so they refuse to be modified and decoders
+ * never reuse them; see {@link #isInterned(Utf8)}.
+ */
+public class Utf8Interner {
+  /** The default number of slots in a table. */
+  public static final int DEFAULT_SIZE = 1024;
+
+  /** Longer values are returned as new instances. */
+  public static final int MAX_LENGTH = 256;
+
+  private final Entry[] table;
+  private final int mask;
+
+  public Utf8Interner() {
+    this(DEFAULT_SIZE);
+  }
+
+  /** Create a table with at least <i>size</i> slots. */
+  public Utf8Interner(int size) {
+    if (size < 1)
+      throw new IllegalArgumentException("Table size must be positive: " + size);
+    int slots = Integer.highestOneBit(size);
+    if (slots < size)
+      slots <<= 1;
+    this.table = new Entry[slots];
+    this.mask = slots - 1;
+  }
+
+  /**
+   * Return true if <i>value</i> was interned by a table. Such instances are
+   * shared, so code that reuses a {@link Utf8} must allocate a new one instead.
+   */
+  public static boolean isInterned(Utf8 value) {
+    return value instanceof Interned;
+  }
+
+  /** Return the canonical instance for a range of bytes. */
+  public Utf8 intern(byte[] bytes, int start, int length) {
+    if (length > MAX_LENGTH)
+      return new Utf8(Arrays.copyOfRange(bytes, start, start + length));
+    int hash = hash(bytes, start, length);
+    int slot = hash & mask;
+    Entry entry = table[slot];
+    if (entry != null && entry.hash == hash && entry.matches(bytes, start, length))
+      return entry.value;
+    Utf8 value = new Interned(Arrays.copyOfRange(bytes, start, start + length));
+    value.toString(); // cache the string before the instance is shared
+    table[slot] = new Entry(hash, value);
+    return value;
+  }
+
+  private static int hash(byte[] bytes, int start, int length) {
+    int h = 0;
+    for (int i = start; i < start + length; i++)
+      h = h * 31 + bytes[i];
+    return h ^ (h >>> 16);
+  }
+
+  // Interned values are shared, so they throw rather than change.
+  private static final class Interned extends Utf8 {
+    Interned(byte[] bytes) {
+      super(bytes);
+    }
+
+    @Override
+    public Utf8 setByteLength(int newLength) {
+      throw new UnsupportedOperationException("Interned strings cannot be modified");
+    }
+
+    @Override
+    public Utf8 set(String string) {
+      throw new UnsupportedOperationException("Interned strings cannot be modified");
+    }
+
+    @Override
+    public Utf8 set(Utf8 other) {
+      throw new UnsupportedOperationException("Interned strings cannot be modified");
+    }
+  }
+
+  // Entries are immutable, so they are safely published through the table
+  // without synchronization.
+  private static final class Entry {
+    private final int hash;
+    private final Utf8 value;
+
+    Entry(int hash, Utf8 value) {
+      this.hash = hash;
+      this.value = value;
+    }
+
+    boolean matches(byte[] bytes, int start, int length) {
+      if (value.getByteLength() != length)
+        return false;
+      byte[] b = value.getBytes();
+      for (int i = 0; i < length; i++) {
+        if (b[i] != bytes[start + i])
+          return false;
+      }
+      return true;
+    }
+  }
+}
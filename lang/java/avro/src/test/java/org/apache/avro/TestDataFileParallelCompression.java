@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.util.RandomData;
+import org.junit.Test;
+
+public class TestDataFileParallelCompression {
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"s\",\"type\":\"string\"}," + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"int\"}}]}");
+  private static final int COUNT = 2000;
+  private static final byte[] SYNC = new byte[16];
+
+  private byte[] write(CodecFactory codec, int threads, List<Long> syncs) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<Object> w = new DataFileWriter<>(new GenericDatumWriter<>())) {
+      w.setCodec(codec).setSyncInterval(1024).setCompressionThreads(threads);
+      w.create(SCHEMA, out, SYNC);
+      int i = 0;
+      for (Object datum : new RandomData(SCHEMA, COUNT, 42)) {
+        w.append(datum);
+        if (++i % 300 == 0) {
+          syncs.add(w.sync());
+        }
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testSameBytesAsSerial() throws IOException {
+    List<Long> serialSyncs = new ArrayList<>();
+    List<Long> parallelSyncs = new ArrayList<>();
+    byte[] serial = write(CodecFactory.deflateCodec(6), 1, serialSyncs);
+    byte[] parallel = write(CodecFactory.deflateCodec(6), 4, parallelSyncs);
+    assertArrayEquals(serial, parallel);
+    assertEquals(serialSyncs, parallelSyncs);
+  }
+
+  @Test
+  public void testReadBack() throws IOException {
+    List<Long> syncs = new ArrayList<>();
+    byte[] bytes = write(CodecFactory.xzCodec(1), 3, syncs);
+    try (DataFileReader<Object> r = new DataFileReader<>(new SeekableByteArrayInput(bytes),
+        new GenericDatumReader<>())) {
+      int i = 0;
+      for (Object expected : new RandomData(SCHEMA, COUNT, 42)) {
+        assertEquals(expected, r.next());
+        i++;
+      }
+      assertEquals(COUNT, i);
+
+      // positions returned by sync() are block boundaries
+      r.seek(syncs.get(1));
+      int skipped = 0;
+      for (Object expected : new RandomData(SCHEMA, COUNT, 42)) {
+        if (skipped++ < 600) {
+          continue;
+        }
+        assertEquals(expected, r.next());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreads() {
+    new DataFileWriter<>(new GenericDatumWriter<>()).setCompressionThreads(0);
+  }
+}
@@ -17,15 +17,24 @@
  */
 package org.apache.avro;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
 import java.lang.management.OperatingSystemMXBean;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.junit.Test;
 import com.sun.management.UnixOperatingSystemMXBean;
 
@@ -54,6 +63,55 @@ public class TestDataFileReader {
         + openFilesAfterOperation + ")", openFilesBeforeOperation >= openFilesAfterOperation);
   }
 
+  @Test
+  public void testSyncAcrossWindows() throws IOException {
+    // blocks of varying size, so that sync markers fall at all offsets of the
+    // windows scanned by sync()
+    Schema schema = Schema.create(Schema.Type.BYTES);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<Long> syncs = new ArrayList<>();
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.create(schema, out);
+      syncs.add(writer.sync());
+      for (int i = 0; i < 300; i++) {
+        writer.append(ByteBuffer.wrap(new byte[i * 97 % 4099]));
+        syncs.add(writer.sync());
+      }
+    }
+    byte[] file = out.toByteArray();
+    try (DataFileReader<Object> reader = new DataFileReader<>(new SeekableByteArrayInput(file),
+        new GenericDatumReader<>())) {
+      int next = 0;
+      for (long position = 0; position < file.length; position += 61) {
+        while (next < syncs.size() && syncs.get(next) - 16 < position)
+          next++;
+        reader.sync(position);
+        long expected = next < syncs.size() ? syncs.get(next) : file.length;
+        assertEquals("sync from " + position, expected, reader.previousSync());
+      }
+    }
+  }
+
+  @Test
+  public void testSchemasAreNotShared() throws IOException {
+    // schemas are mutable, so each reader must have its own
+    Schema schema = Schema.create(Schema.Type.INT);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.create(schema, out);
+      writer.append(1);
+    }
+    byte[] file = out.toByteArray();
+    try (
+        DataFileReader<Object> first = new DataFileReader<>(new SeekableByteArrayInput(file),
+            new GenericDatumReader<>());
+        DataFileReader<Object> second = new DataFileReader<>(new SeekableByteArrayInput(file),
+            new GenericDatumReader<>())) {
+      first.getSchema().addProp("avro.java.string", "String");
+      assertNull(second.getSchema().getProp("avro.java.string"));
+    }
+  }
+
   private long getNumberOfOpenFileDescriptors() {
     OperatingSystemMXBean osMxBean = ManagementFactory.getOperatingSystemMXBean();
     if (osMxBean instanceof UnixOperatingSystemMXBean) {
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.SchemaCompatibility.SchemaCompatibilityType;
+import org.apache.avro.SchemaCompatibility.SchemaPairCompatibility;
+import org.junit.Test;
+
+public class TestSchemaCompatibilityCache {
+  private static final String WRITER = "{\"type\":\"record\",\"name\":\"R\",\"fields\":[{\"name\":\"a\",\"type\":\"int\"}]}";
+  private static final String READER = "{\"type\":\"record\",\"name\":\"R\",\"fields\":[{\"name\":\"a\",\"type\":\"long\"},"
+      + "{\"name\":\"b\",\"type\":\"string\",\"default\":\"\"}]}";
+  private static final String NARROW = "{\"type\":\"record\",\"name\":\"R\",\"fields\":[{\"name\":\"a\",\"type\":\"int\"},"
+      + "{\"name\":\"c\",\"type\":\"string\"}]}";
+
+  private static Schema parse(String json) {
+    return new Schema.Parser().parse(json);
+  }
+
+  @Test
+  public void testResultsAreCached() {
+    SchemaCompatibilityCache cache = new SchemaCompatibilityCache(8);
+    Schema reader = parse(READER);
+    Schema writer = parse(WRITER);
+    SchemaPairCompatibility first = cache.checkReaderWriterCompatibility(reader, writer);
+    assertEquals(SchemaCompatibility.checkReaderWriterCompatibility(reader, writer), first);
+    assertSame(first, cache.checkReaderWriterCompatibility(reader, writer));
+
+    Schema otherReader = parse(READER);
+    Schema otherWriter = parse(WRITER);
+    SchemaPairCompatibility second = cache.checkReaderWriterCompatibility(otherReader, otherWriter);
+    assertSame(otherReader, second.getReader());
+    assertSame(otherWriter, second.getWriter());
+    assertEquals(SchemaCompatibilityType.COMPATIBLE, second.getType());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testIncompatible() {
+    SchemaCompatibilityCache cache = new SchemaCompatibilityCache(8);
+    Schema reader = parse(NARROW);
+    Schema writer = parse(WRITER);
+    SchemaPairCompatibility expected = SchemaCompatibility.checkReaderWriterCompatibility(reader, writer);
+    assertEquals(SchemaCompatibilityType.INCOMPATIBLE, expected.getType());
+    assertEquals(expected, cache.checkReaderWriterCompatibility(reader, writer));
+    assertEquals(expected.getResult(), cache.checkReaderWriterCompatibility(parse(NARROW), writer).getResult());
+    // the check is one-way
+    assertEquals(SchemaCompatibilityType.COMPATIBLE, cache.checkReaderWriterCompatibility(writer, reader).getType());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testSameCanonicalForm() {
+    SchemaCompatibilityCache cache = new SchemaCompatibilityCache(8);
+    Schema writer = parse(WRITER);
+    Schema documented = parse("{\"type\":\"record\",\"name\":\"R\",\"doc\":\"A record\",\"fields\":"
+        + "[{\"name\":\"a\",\"type\":\"int\",\"doc\":\"A field\"}]}");
+    SchemaPairCompatibility result = cache.checkReaderWriterCompatibility(documented, writer);
+    assertEquals(SchemaCompatibility.checkReaderWriterCompatibility(documented, writer), result);
+    assertEquals(SchemaCompatibility.checkReaderWriterCompatibility(writer, writer),
+        cache.checkReaderWriterCompatibility(writer, writer));
+  }
+
+  @Test
+  public void testEviction() {
+    SchemaCompatibilityCache cache = new SchemaCompatibilityCache(2);
+    Schema reader = parse(READER);
+    for (Schema.Type type : new Schema.Type[] { Schema.Type.INT, Schema.Type.LONG, Schema.Type.STRING }) {
+      cache.checkReaderWriterCompatibility(reader, Schema.create(type));
+    }
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(3, cache.getMissCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadSize() {
+    new SchemaCompatibilityCache(0);
+  }
+}
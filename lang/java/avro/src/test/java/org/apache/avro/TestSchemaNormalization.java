@@ -18,7 +18,10 @@
 package org.apache.avro;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
@@ -110,6 +113,44 @@ public class TestSchemaNormalization {
     }
   }
 
+  public static class TestCachedFingerprints {
+    private static final String RECORD = "{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+        + "{\"name\":\"a\",\"type\":\"int\"},{\"name\":\"next\",\"type\":[\"null\",\"R\"]}]}";
+
+    @Test
+    public void testFingerprintsAreStable() throws Exception {
+      Schema s = new Schema.Parser().parse(RECORD);
+      byte[] form = SchemaNormalization.toParsingForm(s).getBytes(UTF_8);
+      long fp = SchemaNormalization.parsingFingerprint64(s);
+      assertEquals(SchemaNormalization.fingerprint64(form), fp);
+      assertEquals(fp, SchemaNormalization.parsingFingerprint64(s));
+      for (String name : new String[] { "CRC-64-AVRO", "MD5", "SHA-256" }) {
+        byte[] expected = SchemaNormalization.fingerprint(name, form);
+        byte[] actual = SchemaNormalization.parsingFingerprint(name, s);
+        assertArrayEquals(expected, actual);
+        actual[0]++;
+        assertArrayEquals(expected, SchemaNormalization.parsingFingerprint(name, s));
+      }
+      // properties are not part of the canonical form
+      s.addProp("p", "v");
+      assertEquals(fp, SchemaNormalization.parsingFingerprint64(s));
+    }
+
+    @Test
+    public void testEqualsWithCachedFingerprints() {
+      Schema s1 = new Schema.Parser().parse(RECORD);
+      Schema s2 = new Schema.Parser().parse(RECORD);
+      Schema other = new Schema.Parser().parse(RECORD.replace("\"int\"", "\"long\""));
+      SchemaNormalization.parsingFingerprint64(s1);
+      SchemaNormalization.parsingFingerprint64(s2);
+      SchemaNormalization.parsingFingerprint64(other);
+      assertEquals(s1, s2);
+      assertNotEquals(s1, other);
+      s2.addProp("p", "v");
+      assertFalse(s1.equals(s2));
+    }
+  }
+
   private static String DATA_FILE = (System.getProperty("share.dir", "../../../share") + "/test/data/schema-tests.txt");
 
   private static BufferedReader data() throws IOException {
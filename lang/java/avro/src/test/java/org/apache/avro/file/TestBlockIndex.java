@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBlockIndex {
+  private static final Schema SCHEMA = SchemaBuilder.record("R").fields().requiredLong("id").requiredString("name")
+      .endRecord();
+  private static final int COUNT = 5000;
+
+  @Rule
+  public TemporaryFolder dir = new TemporaryFolder();
+
+  private static GenericRecord record(long id) {
+    GenericRecord r = new GenericData.Record(SCHEMA);
+    r.put("id", id);
+    r.put("name", "r" + id);
+    return r;
+  }
+
+  private File write(String sortField, CodecFactory codec) throws IOException {
+    File file = dir.newFile();
+    try (DataFileWriter<GenericRecord> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      if (sortField != null) {
+        w.setBlockIndex(sortField);
+      } else {
+        w.setBlockIndex(true);
+      }
+      w.setCodec(codec).setSyncInterval(512);
+      w.create(SCHEMA, file);
+      for (long i = 0; i < COUNT; i++) {
+        w.append(record(COUNT - i));
+      }
+    }
+    return file;
+  }
+
+  @Test
+  public void testSeekToRecord() throws IOException {
+    File file = write(null, CodecFactory.deflateCodec(1));
+    try (DataFileReader<GenericRecord> r = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      BlockIndex index = r.getBlockIndex();
+      assertNotNull(index);
+      assertTrue(index.getBlockCount() > 1);
+      assertEquals(COUNT, index.getRecordCount());
+      assertNull(index.getSortField());
+      for (long n : new long[] { 0, 1, 77, COUNT / 2, COUNT - 1 }) {
+        r.seekToRecord(n);
+        assertEquals(COUNT - n, r.next().get("id"));
+      }
+      r.seekToRecord(COUNT);
+      assertFalse(r.hasNext());
+    }
+  }
+
+  @Test
+  public void testBounds() throws IOException {
+    File file = write("id", CodecFactory.nullCodec());
+    try (DataFileReader<GenericRecord> r = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      BlockIndex index = r.getBlockIndex();
+      assertEquals("id", index.getSortField().name());
+      for (int b = 0; b < index.getBlockCount(); b++) {
+        long first = index.getFirstRecord(b);
+        long last = (b + 1 < index.getBlockCount() ? index.getFirstRecord(b + 1) : COUNT) - 1;
+        assertTrue(index.hasBounds(b));
+        assertEquals(COUNT - last, index.getMin(b));
+        assertEquals(COUNT - first, index.getMax(b));
+      }
+    }
+  }
+
+  @Test
+  public void testUnindexedReaders() throws IOException {
+    File file = write("name", CodecFactory.deflateCodec(1));
+    long count = 0;
+    try (DataFileStream<GenericRecord> r = new DataFileStream<>(new FileInputStream(file),
+        new GenericDatumReader<>())) {
+      while (r.hasNext()) {
+        assertEquals(COUNT - count++, r.next().get("id"));
+      }
+      assertFalse(r.hasNext());
+    }
+    assertEquals(COUNT, count);
+
+    // copying blocks must not copy the index
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<GenericRecord> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA));
+        DataFileStream<GenericRecord> in = new DataFileStream<>(new FileInputStream(file),
+            new GenericDatumReader<>())) {
+      w.create(SCHEMA, out);
+      w.appendAllFrom(in, false);
+    }
+    try (DataFileReader<GenericRecord> r = new DataFileReader<>(new SeekableByteArrayInput(out.toByteArray()),
+        new GenericDatumReader<>())) {
+      assertNull(r.getBlockIndex());
+      r.seekToRecord(COUNT - 3);
+      assertEquals(3L, r.next().get("id"));
+    }
+  }
+
+  @Test
+  public void testAppend() throws IOException {
+    File file = write("id", CodecFactory.deflateCodec(1));
+    long length = file.length();
+    try (DataFileWriter<GenericRecord> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.appendTo(file);
+      for (long i = 0; i < COUNT; i++) {
+        w.append(record(-i));
+      }
+    }
+    try (DataFileReader<GenericRecord> r = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      BlockIndex index = r.getBlockIndex();
+      assertEquals(2 * COUNT, index.getRecordCount());
+      assertTrue(index.getPosition() > length);
+      r.seekToRecord(COUNT - 1);
+      assertEquals(1L, r.next().get("id"));
+      assertEquals(0L, r.next().get("id"));
+      r.seekToRecord(2 * COUNT - 1);
+      assertEquals((long) -(COUNT - 1), r.next().get("id"));
+      assertFalse(r.hasNext());
+      r.sync(0);
+      long count = 0;
+      while (r.hasNext()) {
+        r.next();
+        count++;
+      }
+      assertEquals(2 * COUNT, count);
+    }
+  }
+
+  @Test
+  public void testAppendToUnindexed() throws IOException {
+    File file = dir.newFile();
+    try (DataFileWriter<GenericRecord> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.setSyncInterval(512).create(SCHEMA, file);
+      for (long i = 0; i < COUNT; i++) {
+        w.append(record(i));
+      }
+    }
+    try (DataFileWriter<GenericRecord> w = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+      w.setBlockIndex("id").appendTo(file);
+      w.append(record(COUNT));
+    }
+    try (DataFileReader<GenericRecord> r = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      BlockIndex index = r.getBlockIndex();
+      assertEquals(COUNT + 1, index.getRecordCount());
+      assertFalse(index.hasBounds(0));
+      assertTrue(index.hasBounds(index.getBlockCount() - 1));
+      for (long n = 0; n <= COUNT; n += 97) {
+        r.seekToRecord(n);
+        assertEquals(n, r.next().get("id"));
+      }
+    }
+  }
+}
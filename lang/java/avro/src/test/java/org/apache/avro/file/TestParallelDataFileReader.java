@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestParallelDataFileReader {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+  private static final int COUNT = 10000;
+  private static byte[] file;
+
+  @BeforeClass
+  public static void writeFile() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<Long> w = new DataFileWriter<>(new GenericDatumWriter<Long>(SCHEMA))) {
+      w.setCodec(CodecFactory.deflateCodec(1)).setSyncInterval(256);
+      w.create(SCHEMA, out);
+      for (long i = 0; i < COUNT; i++) {
+        w.append(i);
+      }
+    }
+    file = out.toByteArray();
+  }
+
+  private static DataFileStream<Long> open() throws IOException {
+    return new DataFileStream<>(new ByteArrayInputStream(file), new GenericDatumReader<>());
+  }
+
+  @Test
+  public void testOrdered() throws IOException {
+    try (ParallelDataFileReader<Long> r = new ParallelDataFileReader<>(open(), GenericDatumReader::new, 4)) {
+      long expected = 0;
+      for (Long datum : r) {
+        assertEquals(expected++, (long) datum);
+      }
+      assertEquals(COUNT, expected);
+      assertFalse(r.hasNext());
+    }
+  }
+
+  @Test
+  public void testUnordered() throws IOException {
+    List<Long> datums;
+    try (ParallelDataFileReader<Long> r = new ParallelDataFileReader<>(open(), GenericDatumReader::new, 3, 5)) {
+      datums = r.stream().sorted().collect(Collectors.toList());
+    }
+    assertEquals(COUNT, datums.size());
+    for (int i = 0; i < COUNT; i++) {
+      assertEquals(i, (long) datums.get(i));
+    }
+  }
+
+  @Test
+  public void testStartsAtCurrentBlock() throws IOException {
+    DataFileStream<Long> in = open();
+    List<Long> skipped = new ArrayList<>();
+    // consume the first block, then load the second without reading from it
+    do {
+      skipped.add(in.next());
+    } while (skipped.size() < in.getBlockCount());
+    in.hasNext();
+    try (ParallelDataFileReader<Long> r = new ParallelDataFileReader<>(in, GenericDatumReader::new, 2)) {
+      long expected = skipped.size();
+      while (r.hasNext()) {
+        assertEquals(expected++, (long) r.next());
+      }
+      assertEquals(COUNT, expected);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMidBlock() throws IOException {
+    DataFileStream<Long> in = open();
+    in.next();
+    new ParallelDataFileReader<>(in, GenericDatumReader::new, 2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMixedModes() throws IOException {
+    try (ParallelDataFileReader<Long> r = new ParallelDataFileReader<>(open(), GenericDatumReader::new, 2)) {
+      r.hasNext();
+      r.stream();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestSeekableMappedFileInput {
+  private static final Schema SCHEMA = Schema.create(Schema.Type.LONG);
+  private static final int COUNT = 10000;
+
+  @Rule
+  public TemporaryFolder dir = new TemporaryFolder();
+
+  private final CodecFactory codec;
+  private File file;
+
+  public TestSeekableMappedFileInput(String name, CodecFactory codec) {
+    this.codec = codec;
+  }
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Collection<Object[]> codecs() {
+    return Arrays.asList(new Object[][] { { "null", CodecFactory.nullCodec() }, { "deflate", CodecFactory.deflateCodec(1) },
+        { "snappy", CodecFactory.snappyCodec() } });
+  }
+
+  @Before
+  public void writeFile() throws IOException {
+    file = dir.newFile();
+    try (DataFileWriter<Long> w = new DataFileWriter<>(new GenericDatumWriter<Long>(SCHEMA))) {
+      w.setCodec(codec).setSyncInterval(256);
+      w.create(SCHEMA, file);
+      for (long i = 0; i < COUNT; i++) {
+        w.append(i);
+      }
+    }
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    check(new SeekableMappedFileInput(file));
+  }
+
+  @Test
+  public void testBlocksAcrossSegments() throws IOException {
+    // small segments put many blocks across a boundary, which must be copied
+    check(new SeekableMappedFileInput(file, 1000));
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    long position;
+    long first;
+    try (DataFileReader<Long> r = new DataFileReader<>(new SeekableMappedFileInput(file, 1000),
+        new GenericDatumReader<>())) {
+      r.sync(file.length() / 2);
+      position = r.previousSync();
+      first = r.next();
+    }
+    try (DataFileReader<Long> r = new DataFileReader<>(new SeekableMappedFileInput(file), new GenericDatumReader<>())) {
+      r.seek(position);
+      assertEquals(first, (long) r.next());
+    }
+  }
+
+  private static void check(SeekableInput in) throws IOException {
+    try (DataFileReader<Long> r = new DataFileReader<>(in, new GenericDatumReader<>())) {
+      long expected = 0;
+      for (Long datum : r) {
+        assertEquals(expected++, (long) datum);
+      }
+      assertEquals(COUNT, expected);
+      assertFalse(r.hasNext());
+    }
+  }
+}
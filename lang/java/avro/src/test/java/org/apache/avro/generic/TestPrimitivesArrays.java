@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Test;
+
+public class TestPrimitivesArrays {
+
+  private static Schema arrayOf(Schema.Type type) {
+    return Schema.createArray(Schema.create(type));
+  }
+
+  @Test
+  public void testNewArray() {
+    GenericData data = GenericData.get();
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.INT)) instanceof PrimitivesArrays.IntArray);
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.LONG)) instanceof PrimitivesArrays.LongArray);
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.FLOAT)) instanceof PrimitivesArrays.FloatArray);
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.DOUBLE)) instanceof PrimitivesArrays.DoubleArray);
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.BOOLEAN)) instanceof PrimitivesArrays.BooleanArray);
+    assertTrue(data.newArray(null, 1, arrayOf(Schema.Type.STRING)) instanceof GenericData.Array);
+  }
+
+  @Test
+  public void testNewArrayWithConversion() {
+    Schema date = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+    Schema schema = Schema.createArray(date);
+    // without a conversion the elements are plain ints
+    assertTrue(GenericData.get().newArray(null, 1, schema) instanceof PrimitivesArrays.IntArray);
+
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new TimeConversions.DateConversion());
+    assertTrue(data.newArray(null, 1, schema) instanceof GenericData.Array);
+  }
+
+  @Test
+  public void testNewArrayReuse() {
+    GenericData data = GenericData.get();
+    Object longs = data.newArray(null, 1, arrayOf(Schema.Type.LONG));
+    ((PrimitivesArrays.LongArray) longs).addLong(1L);
+    assertSame(longs, data.newArray(longs, 1, arrayOf(Schema.Type.LONG)));
+    assertEquals(0, ((PrimitivesArrays.LongArray) longs).size());
+    assertTrue(data.newArray(longs, 1, arrayOf(Schema.Type.INT)) instanceof PrimitivesArrays.IntArray);
+  }
+
+  @Test
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void testOnlyElementsOfTheElementType() {
+    List ints = (List) GenericData.get().newArray(null, 1, arrayOf(Schema.Type.INT));
+    try {
+      ints.add(null);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      // expected
+    }
+    try {
+      ints.add(1L);
+      fail("Expected ClassCastException");
+    } catch (ClassCastException e) {
+      // expected
+    }
+    assertTrue(ints.isEmpty());
+
+    // the boxed array accepts both, as it always has
+    List boxed = new GenericData.Array<>(1, arrayOf(Schema.Type.INT));
+    boxed.add(null);
+    boxed.add(1L);
+    assertEquals(Arrays.asList(null, 1L), boxed);
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testWrongElementType() {
+    new PrimitivesArrays.IntArray(1, arrayOf(Schema.Type.LONG));
+  }
+
+  @Test
+  public void testPrimitiveAccessors() {
+    PrimitivesArrays.DoubleArray array = new PrimitivesArrays.DoubleArray(0, arrayOf(Schema.Type.DOUBLE));
+    for (int i = 0; i < 10; i++)
+      array.addDouble(i);
+    assertEquals(10, array.size());
+    assertEquals(3.0, array.getDouble(3), 0.0);
+    assertEquals(3.0, array.setDouble(3, 30.0), 0.0);
+    assertEquals(Double.valueOf(30.0), array.get(3));
+    array.add(0, -1.0);
+    assertEquals(-1.0, array.getDouble(0), 0.0);
+    assertEquals(Double.valueOf(-1.0), array.remove(0));
+    array.reverse();
+    assertEquals(9.0, array.getDouble(0), 0.0);
+
+    PrimitivesArrays.BooleanArray booleans = new PrimitivesArrays.BooleanArray(2, arrayOf(Schema.Type.BOOLEAN));
+    booleans.addBoolean(true);
+    booleans.add(false);
+    assertEquals(Arrays.asList(true, false), booleans);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    PrimitivesArrays.LongArray array = new PrimitivesArrays.LongArray(10, arrayOf(Schema.Type.LONG));
+    array.getLong(0);
+  }
+
+  @Test
+  public void testEqualsGenericArray() {
+    Schema schema = arrayOf(Schema.Type.INT);
+    GenericArray<Integer> boxed = new GenericData.Array<>(3, schema);
+    PrimitivesArrays.IntArray unboxed = new PrimitivesArrays.IntArray(3, schema);
+    for (int i = 0; i < 3; i++) {
+      boxed.add(i);
+      unboxed.addInt(i);
+    }
+    assertEquals(unboxed, boxed);
+    assertEquals(boxed.hashCode(), unboxed.hashCode());
+    assertEquals(0, GenericData.get().compare(boxed, unboxed, schema));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+        + "{\"name\":\"i\",\"type\":{\"type\":\"array\",\"items\":\"int\"}},"
+        + "{\"name\":\"l\",\"type\":{\"type\":\"array\",\"items\":\"long\"}},"
+        + "{\"name\":\"f\",\"type\":{\"type\":\"array\",\"items\":\"float\"}},"
+        + "{\"name\":\"d\",\"type\":{\"type\":\"array\",\"items\":\"double\"}},"
+        + "{\"name\":\"b\",\"type\":{\"type\":\"array\",\"items\":\"boolean\"}}]}");
+    GenericRecord record = new GenericData.Record(schema);
+    PrimitivesArrays.IntArray ints = new PrimitivesArrays.IntArray(0, schema.getField("i").schema());
+    PrimitivesArrays.LongArray longs = new PrimitivesArrays.LongArray(0, schema.getField("l").schema());
+    GenericArray<Float> floats = new GenericData.Array<>(0, schema.getField("f").schema());
+    PrimitivesArrays.DoubleArray doubles = new PrimitivesArrays.DoubleArray(0, schema.getField("d").schema());
+    PrimitivesArrays.BooleanArray booleans = new PrimitivesArrays.BooleanArray(0, schema.getField("b").schema());
+    for (int i = 0; i < 1000; i++) {
+      ints.addInt(i);
+      longs.addLong(i * 1000000007L);
+      floats.add(i / 3f);
+      doubles.addDouble(i / 7.0);
+      booleans.addBoolean(i % 3 == 0);
+    }
+    record.put("i", ints);
+    record.put("l", longs);
+    record.put("f", floats);
+    record.put("d", doubles);
+    record.put("b", booleans);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().blockingBinaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    byte[] bytes = out.toByteArray();
+
+    GenericData slow = new GenericData();
+    slow.setFastReaderEnabled(false);
+    GenericData fast = new GenericData();
+    fast.setFastReaderEnabled(true);
+    for (GenericData data : Arrays.asList(slow, fast)) {
+      GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema, schema, data);
+      GenericRecord read = reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+      assertEquals(record, read);
+      assertTrue(read.get("l") instanceof PrimitivesArrays.LongArray);
+      assertTrue(read.get("f") instanceof PrimitivesArrays.FloatArray);
+
+      // reading again reuses the arrays
+      Object previous = read.get("l");
+      read = reader.read(read, DecoderFactory.get().binaryDecoder(bytes, null));
+      assertSame(previous, read.get("l"));
+      assertEquals(record, read);
+    }
+  }
+
+  @Test
+  public void testManyBlocks() throws IOException {
+    // streaming writers may write an array in many small blocks
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    Schema.Type[] types = { Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE,
+        Schema.Type.BOOLEAN };
+    int count = 10000;
+    for (Schema.Type type : types) {
+      for (int i = 0; i < count; i += 2) {
+        encoder.writeLong(2);
+        for (int j = i; j < i + 2; j++) {
+          Object element = element(type, j);
+          if (element instanceof Integer)
+            encoder.writeInt((Integer) element);
+          else if (element instanceof Long)
+            encoder.writeLong((Long) element);
+          else if (element instanceof Float)
+            encoder.writeFloat((Float) element);
+          else if (element instanceof Double)
+            encoder.writeDouble((Double) element);
+          else
+            encoder.writeBoolean((Boolean) element);
+        }
+      }
+      encoder.writeLong(0);
+    }
+    encoder.flush();
+
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(out.toByteArray(), null);
+    for (Schema.Type type : types) {
+      GenericArray<?> array = (GenericArray<?>) new GenericDatumReader<>(arrayOf(type)).read(null, decoder);
+      assertEquals(count, array.size());
+      for (int i = 0; i < count; i++)
+        assertEquals(element(type, i), array.get(i));
+    }
+  }
+
+  private static Object element(Schema.Type type, int i) {
+    switch (type) {
+    case INT:
+      return i;
+    case LONG:
+      return (long) i;
+    case FLOAT:
+      return (float) i;
+    case DOUBLE:
+      return (double) i;
+    default:
+      return i % 2 == 0;
+    }
+  }
+
+  @Test
+  public void testPromotedElements() throws IOException {
+    Schema writer = arrayOf(Schema.Type.INT);
+    Schema reader = arrayOf(Schema.Type.LONG);
+    PrimitivesArrays.IntArray ints = new PrimitivesArrays.IntArray(0, writer);
+    for (int i = 0; i < 10; i++)
+      ints.addInt(i);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<Object>(writer).write(ints, encoder);
+    encoder.flush();
+
+    GenericData slow = new GenericData();
+    slow.setFastReaderEnabled(false);
+    GenericData fast = new GenericData();
+    fast.setFastReaderEnabled(true);
+    for (GenericData data : Arrays.asList(slow, fast)) {
+      Object read = new GenericDatumReader<>(writer, reader, data).read(null,
+          DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+      assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), read);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.RandomData;
+import org.junit.Test;
+
+public class TestBinaryComparator {
+
+  private static final Schema WIDE = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Wide\",\"fields\":["
+      + "{\"name\":\"b\",\"type\":\"boolean\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\",\"C\"]}},"
+      + "{\"name\":\"i\",\"type\":\"int\",\"order\":\"descending\"}," + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"f\",\"type\":\"float\"}," + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"fx\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":2}},"
+      + "{\"name\":\"ignored\",\"type\":\"string\",\"order\":\"ignore\"},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":{\"type\":\"array\",\"items\":\"string\"}},"
+      + "\"order\":\"ignore\"}," + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"int\"}},"
+      + "{\"name\":\"u\",\"type\":[\"null\",\"string\",\"long\"]}," + "{\"name\":\"by\",\"type\":\"bytes\"}]}");
+
+  /** Few distinct values, so that many keys are equal. */
+  private static final Schema NARROW = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Narrow\",\"fields\":["
+      + "{\"name\":\"i\",\"type\":\"int\"}," + "{\"name\":\"s\",\"type\":\"string\",\"order\":\"descending\"},"
+      + "{\"name\":\"l\",\"type\":\"long\"}]}");
+
+  private static byte[] encode(Schema schema, Object datum, boolean blocking) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = blocking ? EncoderFactory.get().blockingBinaryEncoder(out, null)
+        : EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<>(schema).write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static void check(Schema schema, List<Object> data, int keyLength) throws IOException {
+    BinaryComparator comparator = new BinaryComparator(schema);
+    List<byte[]> encoded = new ArrayList<>();
+    List<byte[]> keys = new ArrayList<>();
+    for (int i = 0; i < data.size(); i++) {
+      byte[] bytes = encode(schema, data.get(i), i % 2 == 0);
+      encoded.add(bytes);
+      byte[] key = new byte[keyLength + 2];
+      comparator.writeNormalizedKey(bytes, 0, bytes.length, key, 1, keyLength);
+      assertEquals(0, key[0]);
+      assertEquals(0, key[keyLength + 1]);
+      keys.add(key);
+      assertEquals(GenericData.get().hashCode(data.get(i), schema),
+          comparator.hashCode(bytes, 0, bytes.length));
+    }
+    int decidedByKey = 0;
+    for (int i = 0; i < data.size(); i++) {
+      for (int j = 0; j < data.size(); j++) {
+        byte[] b1 = encoded.get(i);
+        byte[] b2 = encoded.get(j);
+        int expected = Integer.signum(GenericData.get().compare(data.get(i), data.get(j), schema));
+        assertEquals(expected, Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length)));
+        assertEquals(expected, Integer.signum(BinaryData.compare(b1, 0, b1.length, b2, 0, b2.length, schema)));
+        int keyOrder = Integer.signum(BinaryData.compareBytes(keys.get(i), 1, keyLength, keys.get(j), 1, keyLength));
+        if (keyOrder != 0) {
+          assertEquals(expected, keyOrder);
+          decidedByKey++;
+        }
+      }
+    }
+    assertTrue(decidedByKey > 0);
+  }
+
+  @Test
+  public void testRandomData() throws IOException {
+    List<Object> data = new ArrayList<>();
+    for (Object datum : new RandomData(WIDE, 40, 1234L, true)) {
+      data.add(datum);
+    }
+    for (int keyLength : new int[] { 1, 4, 16, 64 }) {
+      check(WIDE, data, keyLength);
+    }
+  }
+
+  @Test
+  public void testTies() throws IOException {
+    List<Object> data = new ArrayList<>();
+    for (int i : new int[] { -1, 0, 1 }) {
+      for (String s : new String[] { "", "a", "a\u0000", "ab", "b" }) {
+        for (long l : new long[] { Long.MIN_VALUE, 5, Long.MAX_VALUE }) {
+          GenericRecord record = new GenericData.Record(NARROW);
+          record.put("i", i);
+          record.put("s", s);
+          record.put("l", l);
+          data.add(record);
+        }
+      }
+    }
+    for (int keyLength : new int[] { 2, 4, 6, 32 }) {
+      check(NARROW, data, keyLength);
+    }
+  }
+
+  @Test
+  public void testFloatKeys() throws IOException {
+    Schema schema = Schema.create(Schema.Type.DOUBLE);
+    List<Object> data = new ArrayList<>();
+    for (double d : new double[] { Double.NEGATIVE_INFINITY, -1e300, -1.0, -Double.MIN_VALUE, -0.0, 0.0,
+        Double.MIN_VALUE, 2.5, Double.POSITIVE_INFINITY, Double.NaN }) {
+      data.add(d);
+    }
+    check(schema, data, 8);
+    assertEquals(8, new BinaryComparator(schema).getNormalizedKeyLength());
+  }
+
+  @Test
+  public void testNormalizedKeyLength() {
+    Schema fixedWidth = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+        + "{\"name\":\"i\",\"type\":\"int\"}," + "{\"name\":\"s\",\"type\":\"string\",\"order\":\"ignore\"},"
+        + "{\"name\":\"b\",\"type\":\"boolean\"}," + "{\"name\":\"f\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":3}}]}");
+    assertEquals(8, new BinaryComparator(fixedWidth).getNormalizedKeyLength());
+    assertEquals(-1, new BinaryComparator(WIDE).getNormalizedKeyLength());
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testMapsCannotBeCompared() throws IOException {
+    Schema schema = Schema.createMap(Schema.create(Schema.Type.INT));
+    byte[] bytes = encode(schema, Collections.singletonMap("a", 1), false);
+    new BinaryComparator(schema).compare(bytes, 0, bytes.length, bytes, 0, bytes.length);
+  }
+
+  @Test
+  public void testIgnoredMapsAreSkipped() throws IOException {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+        + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"int\"},\"order\":\"ignore\"},"
+        + "{\"name\":\"i\",\"type\":\"int\"}]}");
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("k" + i, i);
+    }
+    GenericRecord r1 = new GenericData.Record(schema);
+    r1.put("m", map);
+    r1.put("i", 1);
+    GenericRecord r2 = new GenericData.Record(schema);
+    r2.put("m", Collections.emptyMap());
+    r2.put("i", 2);
+    // the blocking encoder writes the byte size of each block
+    for (boolean blocking : new boolean[] { false, true }) {
+      byte[] b1 = encode(schema, r1, blocking);
+      byte[] b2 = encode(schema, r2, blocking);
+      assertEquals(-1, BinaryData.compare(b1, 0, b1.length, b2, 0, b2.length, schema));
+      assertEquals(GenericData.get().hashCode(r1, schema), BinaryData.hashCode(b1, 0, b1.length, schema));
+      assertEquals(33, BinaryData.hashCode(b2, 0, b2.length, schema));
+    }
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testTruncatedData() throws IOException {
+    Schema schema = Schema.create(Schema.Type.STRING);
+    byte[] bytes = encode(schema, "abcdef", false);
+    new BinaryComparator(schema).compare(bytes, 0, bytes.length - 2, bytes, 0, bytes.length);
+  }
+
+  @Test
+  public void testCacheIsPerSchemaInstance() {
+    Schema schema = Schema.createArray(Schema.create(Schema.Type.LONG));
+    assertSame(BinaryComparator.get(schema), BinaryComparator.get(schema));
+    assertNotSame(BinaryComparator.get(schema), BinaryComparator.get(Schema.createArray(Schema.create(Schema.Type.LONG))));
+  }
+}
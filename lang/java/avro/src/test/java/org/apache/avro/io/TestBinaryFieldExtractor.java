@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.junit.Test;
+
+public class TestBinaryFieldExtractor {
+
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Event\",\"fields\":["
+      + "{\"name\":\"id\",\"type\":\"long\"}," + "{\"name\":\"tags\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+      + "{\"name\":\"scores\",\"type\":{\"type\":\"array\",\"items\":\"double\"}},"
+      + "{\"name\":\"attrs\",\"type\":{\"type\":\"map\",\"values\":\"int\"}},"
+      + "{\"name\":\"user\",\"type\":{\"type\":\"record\",\"name\":\"User\",\"fields\":["
+      + "{\"name\":\"name\",\"type\":\"string\"}," + "{\"name\":\"flag\",\"type\":\"boolean\"},"
+      + "{\"name\":\"address\",\"type\":[\"null\",{\"type\":\"record\",\"name\":\"Address\",\"fields\":["
+      + "{\"name\":\"zip\",\"type\":\"string\"}," + "{\"name\":\"geo\",\"type\":{\"type\":\"fixed\",\"name\":\"Geo\",\"size\":8}}"
+      + "]}]}]}}," + "{\"name\":\"kind\",\"type\":{\"type\":\"enum\",\"name\":\"Kind\",\"symbols\":[\"A\",\"B\"]}},"
+      + "{\"name\":\"payload\",\"type\":[\"null\",\"bytes\",\"float\"]}," + "{\"name\":\"route\",\"type\":\"string\"},"
+      + "{\"name\":\"trailer\",\"type\":{\"type\":\"array\",\"items\":\"User\"}}]}");
+
+  private static final Schema USER = SCHEMA.getField("user").schema();
+  private static final Schema ADDRESS = USER.getField("address").schema().getTypes().get(1);
+
+  private static GenericRecord user(String name, String zip) {
+    GenericRecord user = new GenericData.Record(USER);
+    user.put("name", name);
+    user.put("flag", true);
+    if (zip != null) {
+      GenericRecord address = new GenericData.Record(ADDRESS);
+      address.put("zip", zip);
+      address.put("geo", new GenericData.Fixed(ADDRESS.getField("geo").schema(), new byte[8]));
+      user.put("address", address);
+    }
+    return user;
+  }
+
+  private static GenericRecord event(long id, String zip, Object payload) {
+    GenericRecord event = new GenericData.Record(SCHEMA);
+    event.put("id", id);
+    event.put("tags", Arrays.asList("x", "y", "z"));
+    event.put("scores", Arrays.asList(1.0, 2.0, 3.0));
+    Map<String, Integer> attrs = new HashMap<>();
+    attrs.put("a", 1);
+    attrs.put("b", 2);
+    event.put("attrs", attrs);
+    event.put("user", user("user" + id, zip));
+    event.put("kind", new GenericData.EnumSymbol(SCHEMA.getField("kind").schema(), id % 2 == 0 ? "A" : "B"));
+    event.put("payload", payload);
+    event.put("route", "route" + id);
+    event.put("trailer", Collections.singletonList(user("t", "99999")));
+    return event;
+  }
+
+  private static byte[] encode(boolean blocking, GenericRecord... records) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = blocking ? EncoderFactory.get().blockingBinaryEncoder(out, null)
+        : EncoderFactory.get().binaryEncoder(out, null);
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(SCHEMA);
+    for (GenericRecord record : records) {
+      writer.write(record, encoder);
+    }
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testExtract() throws IOException {
+    BinaryFieldExtractor extractor = new BinaryFieldExtractor(SCHEMA, "route", "user.name", "kind", "id");
+    assertEquals(Arrays.asList("route", "user.name", "kind", "id"), extractor.getPaths());
+    for (boolean blocking : new boolean[] { false, true }) {
+      Object[] values = extractor.extract(encode(blocking, event(7, "12345", null)));
+      assertEquals(new Utf8("route7"), values[0]);
+      assertEquals(new Utf8("user7"), values[1]);
+      assertEquals("B", values[2].toString());
+      assertEquals(7L, values[3]);
+    }
+  }
+
+  @Test
+  public void testPathsThroughUnions() throws IOException {
+    BinaryFieldExtractor extractor = new BinaryFieldExtractor(SCHEMA, "user.address.zip", "payload");
+    Object[] values = extractor.extract(encode(false, event(1, "12345", ByteBuffer.wrap(new byte[] { 1, 2 }))));
+    assertEquals(new Utf8("12345"), values[0]);
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2 }), values[1]);
+
+    byte[] bytes = encode(false, event(2, null, 1.5f));
+    values = extractor.extract(bytes, 0, bytes.length, values);
+    assertNull(values[0]);
+    assertEquals(1.5f, values[1]);
+  }
+
+  @Test
+  public void testWholeValues() throws IOException {
+    GenericRecord event = event(3, "54321", null);
+    BinaryFieldExtractor extractor = new BinaryFieldExtractor(SCHEMA, "scores", "attrs", "user.address", "trailer");
+    Object[] values = extractor.extract(encode(true, event));
+    assertEquals(event.get("scores"), values[0]);
+    assertEquals(event.get("attrs").toString(), values[1].toString());
+    assertEquals(((GenericRecord) event.get("user")).get("address"), values[2]);
+    assertEquals(event.get("trailer"), values[3]);
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    for (boolean blocking : new boolean[] { false, true }) {
+      byte[] bytes = encode(blocking, event(1, "1", null), event(2, null, 2f), event(3, "3", null));
+      BinaryDecoder in = DecoderFactory.get().binaryDecoder(bytes, null);
+      BinaryFieldExtractor extractor = new BinaryFieldExtractor(SCHEMA, "id", "user.address.zip");
+      Object[] values = null;
+      for (long id = 1; id <= 3; id++) {
+        values = extractor.extract(in, values);
+        assertEquals(id, values[0]);
+        assertEquals(id == 2 ? null : new Utf8(Long.toString(id)), values[1]);
+      }
+      assertTrue(in.isEnd());
+    }
+  }
+
+  @Test
+  public void testBadPaths() {
+    List<String[]> bad = Arrays.asList(new String[] { "missing" }, new String[] { "user.missing" },
+        new String[] { "id.more" }, new String[] { "" }, new String[] { "user..name" }, new String[] { "id", "id" },
+        new String[] { "user", "user.name" }, new String[] { "user.name", "user" });
+    for (String[] paths : bad) {
+      try {
+        new BinaryFieldExtractor(SCHEMA, paths);
+        fail("Expected an exception for " + Arrays.toString(paths));
+      } catch (AvroRuntimeException | IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testSkipper() throws IOException {
+    for (boolean blocking : new boolean[] { false, true }) {
+      byte[] bytes = encode(blocking, event(1, "1", null), event(2, null, 2f));
+      BinaryDecoder in = DecoderFactory.get().binaryDecoder(bytes, null);
+      BinarySkipper skipper = BinarySkipper.forSchema(SCHEMA);
+      skipper.skip(in);
+      skipper.skip(in);
+      assertTrue(in.isEnd());
+    }
+  }
+}
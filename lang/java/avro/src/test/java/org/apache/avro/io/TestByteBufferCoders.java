@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestByteBufferCoders {
+
+  private static void writeValues(Encoder out) throws IOException {
+    out.writeBoolean(true);
+    out.writeInt(1);
+    out.writeInt(-100000);
+    out.writeLong(Long.MIN_VALUE);
+    out.writeFloat(1.5f);
+    out.writeDouble(-2.25);
+    out.writeString("abc");
+    out.writeBytes(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+    out.writeFixed(new byte[] { 4, 5 });
+    out.flush();
+  }
+
+  private static void readValues(Decoder in) throws IOException {
+    assertTrue(in.readBoolean());
+    assertEquals(1, in.readInt());
+    assertEquals(-100000, in.readInt());
+    assertEquals(Long.MIN_VALUE, in.readLong());
+    assertEquals(1.5f, in.readFloat(), 0);
+    assertEquals(-2.25, in.readDouble(), 0);
+    assertEquals("abc", in.readString());
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), in.readBytes(null));
+    byte[] fixed = new byte[2];
+    in.readFixed(fixed);
+    assertArrayEquals(new byte[] { 4, 5 }, fixed);
+  }
+
+  private static byte[] streamBytes() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeValues(EncoderFactory.get().binaryEncoder(out, null));
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testEncoderMatchesStreamEncoder() throws IOException {
+    byte[] expected = streamBytes();
+    for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(100), ByteBuffer.allocateDirect(100) }) {
+      BinaryEncoder encoder = EncoderFactory.get().byteBufferEncoder(buffer, null);
+      writeValues(encoder);
+      assertEquals(expected.length, buffer.position());
+      buffer.flip();
+      byte[] actual = new byte[buffer.remaining()];
+      buffer.get(actual);
+      assertArrayEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testDirectRoundTrip() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+    buffer.put((byte) 99); // data need not start at zero
+    writeValues(EncoderFactory.get().byteBufferEncoder(buffer, null));
+    buffer.flip();
+    buffer.get();
+    int position = buffer.position();
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(buffer, null);
+    readValues(decoder);
+    assertTrue(decoder.isEnd());
+    assertEquals(position, buffer.position());
+  }
+
+  @Test
+  public void testHeapRoundTrip() throws IOException {
+    byte[] bytes = streamBytes();
+    byte[] padded = new byte[bytes.length + 4];
+    System.arraycopy(bytes, 0, padded, 2, bytes.length);
+    ByteBuffer buffer = ByteBuffer.wrap(padded, 2, bytes.length).slice();
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(buffer, null);
+    readValues(decoder);
+    assertTrue(decoder.isEnd());
+  }
+
+  @Test
+  public void testLargerThanDecoderBuffer() throws IOException {
+    byte[] value = new byte[10000];
+    Arrays.fill(value, (byte) 'x');
+    String string = new String(value, StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(50000);
+    BinaryEncoder encoder = EncoderFactory.get().byteBufferEncoder(buffer, null);
+    for (int i = 0; i < 4; i++) {
+      encoder.writeString(string);
+      encoder.writeLong(i);
+    }
+    buffer.flip();
+    DecoderFactory factory = new DecoderFactory().configureDecoderBufferSize(32);
+    BinaryDecoder decoder = factory.binaryDecoder(buffer, null);
+    decoder.skipString();
+    assertEquals(0L, decoder.readLong());
+    for (int i = 1; i < 4; i++) {
+      assertEquals(string, decoder.readString());
+      assertEquals(i, decoder.readLong());
+    }
+    assertTrue(decoder.isEnd());
+  }
+
+  @Test
+  public void testReuse() throws IOException {
+    ByteBuffer first = ByteBuffer.allocateDirect(10);
+    ByteBuffer second = ByteBuffer.allocateDirect(10);
+    BinaryEncoder encoder = EncoderFactory.get().byteBufferEncoder(first, null);
+    encoder.writeInt(1);
+    assertSame(encoder, EncoderFactory.get().byteBufferEncoder(second, encoder));
+    encoder.writeInt(2);
+    assertEquals(1, first.position());
+    assertEquals(1, second.position());
+    first.flip();
+    second.flip();
+
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(first, null);
+    assertEquals(1, decoder.readInt());
+    assertSame(decoder, DecoderFactory.get().binaryDecoder(second, decoder));
+    assertEquals(2, decoder.readInt());
+    assertTrue(decoder.isEnd());
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testOverflow() throws IOException {
+    BinaryEncoder encoder = EncoderFactory.get().byteBufferEncoder(ByteBuffer.allocateDirect(4), null);
+    encoder.writeLong(Long.MAX_VALUE);
+  }
+
+  @Test(expected = EOFException.class)
+  public void testEOF() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(10);
+    EncoderFactory.get().byteBufferEncoder(buffer, null).writeString("abc");
+    buffer.flip();
+    buffer.limit(buffer.limit() - 1);
+    DecoderFactory.get().binaryDecoder(buffer, null).readString();
+  }
+}
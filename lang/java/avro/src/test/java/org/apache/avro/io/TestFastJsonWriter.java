@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.junit.Test;
+
+public class TestFastJsonWriter {
+
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Node\","
+      + "\"namespace\":\"ns\",\"fields\":[" + "{\"name\":\"i\",\"type\":\"int\"}," + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"f\",\"type\":\"float\"}," + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"b\",\"type\":\"boolean\"}," + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"bytes\",\"type\":\"bytes\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\",\"C\"]}},"
+      + "{\"name\":\"fx\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":4}},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"long\"}},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"string\"}},"
+      + "{\"name\":\"u\",\"type\":[\"string\",\"int\",\"E\"]},"
+      + "{\"name\":\"dec\",\"type\":{\"type\":\"bytes\",\"logicalType\":\"decimal\",\"precision\":9,\"scale\":2}},"
+      + "{\"name\":\"empty\",\"type\":{\"type\":\"record\",\"name\":\"Empty\",\"fields\":[]}},"
+      + "{\"name\":\"nul\",\"type\":\"null\"}," + "{\"name\":\"next\",\"type\":[\"null\",\"Node\"]}]}");
+
+  private static GenericRecord node(int i, String s, GenericRecord next) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("i", i);
+    record.put("l", i * 1000000007L);
+    record.put("f", i / 3f);
+    record.put("d", i / 7.0);
+    record.put("b", i % 2 == 0);
+    record.put("s", s);
+    record.put("bytes", ByteBuffer.wrap(new byte[] { (byte) i, 0, 34, (byte) 0xff }));
+    record.put("e", new GenericData.EnumSymbol(SCHEMA.getField("e").schema(), "B"));
+    record.put("fx", new GenericData.Fixed(SCHEMA.getField("fx").schema(), new byte[] { 1, 2, 92, (byte) i }));
+    record.put("a", Arrays.asList(1L, -2L, (long) i));
+    Map<String, Utf8> map = new LinkedHashMap<>();
+    map.put("k" + i, new Utf8(s));
+    map.put("\"quoted\"", new Utf8("v"));
+    record.put("m", map);
+    record.put("u", i % 3 == 0 ? (Object) i : i % 3 == 1 ? new Utf8("u" + i) : record.get("e"));
+    record.put("dec", new BigDecimal("12.34"));
+    record.put("empty", new GenericData.Record(SCHEMA.getField("empty").schema()));
+    record.put("next", next);
+    return record;
+  }
+
+  private static GenericData data() {
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    return data;
+  }
+
+  private static String jsonEncoder(Schema schema, GenericData data, Object datum, boolean includeNamespace)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonEncoder encoder = EncoderFactory.get().jsonEncoder(schema, out);
+    encoder.setIncludeNamespace(includeNamespace);
+    new GenericDatumWriter<>(schema, data).write(datum, encoder);
+    encoder.flush();
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String fastJson(Schema schema, GenericData data, Object datum, boolean includeNamespace)
+      throws IOException {
+    return new String(new FastJsonWriter<>(schema, data, includeNamespace).toByteArray(datum), StandardCharsets.UTF_8);
+  }
+
+  private static void assertSameJson(Schema schema, Object datum) throws IOException {
+    assertEquals(jsonEncoder(schema, data(), datum, true), fastJson(schema, data(), datum, true));
+    assertEquals(jsonEncoder(schema, data(), datum, false), fastJson(schema, data(), datum, false));
+  }
+
+  @Test
+  public void testRecordsMatchJsonEncoder() throws IOException {
+    GenericRecord list = null;
+    for (int i = 0; i < 5; i++) {
+      list = node(i, "node " + i, list);
+    }
+    assertSameJson(SCHEMA, list);
+  }
+
+  @Test
+  public void testStringEscapes() throws IOException {
+    String[] strings = { "", "plain", "quote \" and \\ backslash", "\b\t\n\f\r", "\u0000\u0001\u001f\u007f",
+        "caf\u00e9", "\u4e2d\u6587", "emoji \ud83d\ude00 pair", "</script>" };
+    for (String s : strings) {
+      assertSameJson(SCHEMA, node(1, s, null));
+      Schema stringSchema = Schema.create(Schema.Type.STRING);
+      assertSameJson(stringSchema, s);
+      assertSameJson(stringSchema, new Utf8(s));
+    }
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    Schema intSchema = Schema.create(Schema.Type.INT);
+    for (int i : new int[] { 0, 1, -1, 9, 10, -10, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+      assertSameJson(intSchema, i);
+    }
+    Schema longSchema = Schema.create(Schema.Type.LONG);
+    for (long l : new long[] { 0, 99, -100, Long.MAX_VALUE, Long.MIN_VALUE }) {
+      assertSameJson(longSchema, l);
+    }
+    Schema floatSchema = Schema.create(Schema.Type.FLOAT);
+    for (float f : new float[] { 0f, -0f, 1.5f, 1e-10f, 3.4e38f, Float.NaN, Float.NEGATIVE_INFINITY }) {
+      assertSameJson(floatSchema, f);
+    }
+    Schema doubleSchema = Schema.create(Schema.Type.DOUBLE);
+    for (double d : new double[] { 0.0, 0.1, -1e300, Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY }) {
+      assertSameJson(doubleSchema, d);
+    }
+  }
+
+  @Test
+  public void testTopLevelUnionAndCollections() throws IOException {
+    Schema union = new Schema.Parser()
+        .parse("[\"null\",{\"type\":\"array\",\"items\":\"int\"},{\"type\":\"map\",\"values\":\"boolean\"}]");
+    assertSameJson(union, null);
+    assertSameJson(union, Collections.emptyList());
+    assertSameJson(union, Arrays.asList(1, 2, 3));
+    assertSameJson(union, Collections.emptyMap());
+    assertSameJson(union, Collections.singletonMap("k", true));
+  }
+
+  @Test
+  public void testWriterIsReusable() throws IOException {
+    FastJsonWriter<GenericRecord> writer = new FastJsonWriter<>(SCHEMA, data());
+    GenericRecord big = null;
+    for (int i = 0; i < 100; i++) {
+      big = node(i, "node " + i, big);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(big, out);
+    writer.write(node(1, "small", null), out);
+    assertEquals(jsonEncoder(SCHEMA, data(), big, true) + jsonEncoder(SCHEMA, data(), node(1, "small", null), true),
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testWrongEnumSymbol() throws IOException {
+    Schema schema = SCHEMA.getField("e").schema();
+    new FastJsonWriter<>(schema).toByteArray(new GenericData.EnumSymbol(schema, "D"));
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testWrongFixedSize() throws IOException {
+    Schema schema = SCHEMA.getField("fx").schema();
+    new FastJsonWriter<>(schema).toByteArray(new GenericData.Fixed(schema, new byte[3]));
+  }
+
+  @Test
+  public void testUnpairedSurrogates() throws IOException {
+    Schema stringSchema = Schema.create(Schema.Type.STRING);
+    assertSameJson(stringSchema, "high \ud83d");
+    assertSameJson(stringSchema, "low \ude00 high \ud83d");
+  }
+
+  @Test
+  public void testMalformedUtf8() throws IOException {
+    Schema stringSchema = Schema.create(Schema.Type.STRING);
+    byte[] json = new FastJsonWriter<>(stringSchema).toByteArray(new Utf8(new byte[] { 'a', (byte) 0xff }));
+    assertArrayEquals(new byte[] { '"', 'a', (byte) 0xef, (byte) 0xbf, (byte) 0xbd, '"' }, json);
+    int[][] malformed = { { 0xff }, { 0x80 }, { 'a', 0xc3 }, { 0xe4, 0xb8 }, { 0xf0, 0x9f, 0x98 },
+        { 0xf0, 0x9f, 0x98, 'a' }, { 0xc0, 0x80 }, { 0xe0, 0x80, 0x80 }, { 0xed, 0xa0, 0x80 },
+        { 0xf4, 0x90, 0x80, 0x80 }, { 0xf8, 0x88, 0x80, 0x80, 0x80 }, { 0xc3, 0xa9, '"', 0xfe, 0xf0, 0x9f, 0x98, 0x80 } };
+    for (int[] values : malformed) {
+      byte[] bytes = new byte[values.length];
+      for (int i = 0; i < values.length; i++) {
+        bytes[i] = (byte) values[i];
+      }
+      // compare the bytes, as decoding them would replace raw malformed bytes too
+      byte[] expected = jsonEncoder(stringSchema, data(), new Utf8(bytes), true).getBytes(StandardCharsets.UTF_8);
+      assertArrayEquals(expected, new FastJsonWriter<>(stringSchema).toByteArray(new Utf8(bytes)));
+    }
+  }
+
+  @Test
+  public void testNullFieldIsNamed() throws IOException {
+    GenericRecord record = node(1, "s", null);
+    record.put("s", null);
+    try {
+      new FastJsonWriter<>(SCHEMA, data()).toByteArray(record);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("in field s"));
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.junit.Test;
+
+public class TestFastWriterBuilder {
+
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Node\",\"fields\":["
+      + "{\"name\":\"i\",\"type\":\"int\"}," + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"f\",\"type\":\"float\"}," + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"b\",\"type\":\"boolean\"}," + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"bytes\",\"type\":\"bytes\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\",\"C\"]}},"
+      + "{\"name\":\"fx\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":4}},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"long\"}},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"string\"}},"
+      + "{\"name\":\"u\",\"type\":[\"string\",\"int\"]},"
+      + "{\"name\":\"dec\",\"type\":{\"type\":\"bytes\",\"logicalType\":\"decimal\",\"precision\":9,\"scale\":2}},"
+      + "{\"name\":\"next\",\"type\":[\"null\",\"Node\"]}]}");
+
+  private static GenericRecord node(int i, GenericRecord next) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("i", i);
+    record.put("l", i * 1000000007L);
+    record.put("f", i / 3f);
+    record.put("d", i / 7.0);
+    record.put("b", i % 2 == 0);
+    record.put("s", "node " + i);
+    record.put("bytes", ByteBuffer.wrap(new byte[] { (byte) i, 2, 3 }));
+    record.put("e", new GenericData.EnumSymbol(SCHEMA.getField("e").schema(), "B"));
+    record.put("fx", new GenericData.Fixed(SCHEMA.getField("fx").schema(), new byte[] { 1, 2, 3, (byte) i }));
+    record.put("a", Arrays.asList(1L, 2L, (long) i));
+    Map<String, Utf8> map = new HashMap<>();
+    map.put("k" + i, new Utf8("v"));
+    record.put("m", map);
+    record.put("u", i % 2 == 0 ? (Object) "even" : (Object) i);
+    record.put("dec", new BigDecimal("12.34").add(BigDecimal.valueOf(i)));
+    record.put("next", next);
+    return record;
+  }
+
+  private static GenericData data(boolean fast) {
+    GenericData data = new GenericData();
+    data.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    return data.setFastWriterEnabled(fast);
+  }
+
+  private static byte[] write(GenericData data, Schema schema, Object datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<Object>(schema, data).write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testSameEncoding() throws IOException {
+    GenericRecord list = node(1, node(2, node(3, null)));
+    byte[] expected = write(data(false), SCHEMA, list);
+    byte[] actual = write(data(true), SCHEMA, list);
+    assertArrayEquals(expected, actual);
+
+    GenericRecord read = new GenericDatumReader<GenericRecord>(SCHEMA, SCHEMA, data(false)).read(null,
+        DecoderFactory.get().binaryDecoder(actual, null));
+    assertEquals(new BigDecimal("14.34"), ((GenericRecord) read.get("next")).get("dec"));
+  }
+
+  @Test
+  public void testWriterIsReused() throws IOException {
+    GenericData data = data(true);
+    FastWriterBuilder builder = data.getFastWriterBuilder();
+    assertSame(builder, data.getFastWriterBuilder());
+    GenericRecord record = node(1, null);
+    // record writers are shared between writers for the same schema
+    assertArrayEquals(write(data, SCHEMA, record), write(data, SCHEMA, record));
+  }
+
+  @Test
+  public void testOnlyGenericDataIsSupported() {
+    assertTrue(data(true).isFastWriterEnabled());
+    assertFalse(new SpecificData().setFastWriterEnabled(true).isFastWriterEnabled());
+    assertFalse(new ReflectData().setFastWriterEnabled(true).isFastWriterEnabled());
+  }
+
+  @Test
+  public void testPrimitiveSchemas() throws IOException {
+    GenericData data = data(true);
+    assertArrayEquals(write(data(false), Schema.create(Schema.Type.STRING), "x"),
+        write(data, Schema.create(Schema.Type.STRING), "x"));
+    Schema map = Schema.createMap(Schema.create(Schema.Type.INT));
+    assertArrayEquals(write(data(false), map, Collections.singletonMap("a", 1)),
+        write(data, map, Collections.singletonMap("a", 1)));
+  }
+
+  @Test
+  public void testNullFieldMessage() throws IOException {
+    GenericRecord record = node(1, null);
+    record.put("s", null);
+    String expected = null;
+    try {
+      write(data(false), SCHEMA, record);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      expected = e.getMessage();
+    }
+    try {
+      write(data(true), SCHEMA, record);
+      fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      assertEquals(expected, e.getMessage());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnresolvedUnion() throws IOException {
+    GenericRecord record = node(1, null);
+    record.put("u", 1L);
+    write(data(true), SCHEMA, record);
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testNotAnEnum() throws IOException {
+    GenericRecord record = node(1, null);
+    record.put("e", "B");
+    write(data(true), SCHEMA, record);
+  }
+
+  @Test
+  public void testSubclassIsNotSpecialized() throws IOException {
+    Schema schema = Schema.create(Schema.Type.STRING);
+    GenericDatumWriter<Object> writer = new GenericDatumWriter<Object>(schema, data(true)) {
+      @Override
+      protected void writeString(Object datum, Encoder out) throws IOException {
+        out.writeString(datum.toString().toUpperCase());
+      }
+    };
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    writer.write("abc", encoder);
+    encoder.flush();
+    assertArrayEquals(write(data(false), schema, "ABC"), out.toByteArray());
+  }
+}
@@ -17,7 +17,9 @@
  */
 package org.apache.avro.io;
 
+import org.apache.avro.AvroTypeException;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
 import org.junit.Assert;
@@ -75,4 +77,88 @@ public class TestJsonDecoder {
     Assert.assertEquals(200, in.readLong());
     in.skipArray();
   }
+
+  private static final String NESTED = "{\"type\":\"record\",\"name\":\"Outer\",\"fields\":["
+      + "{\"name\":\"id\",\"type\":\"long\"},"
+      + "{\"name\":\"inner\",\"type\":{\"type\":\"record\",\"name\":\"Inner\",\"fields\":["
+      + "{\"name\":\"x\",\"type\":\"int\"},{\"name\":\"s\",\"type\":\"string\",\"aliases\":[\"str\"]}]}},"
+      + "{\"name\":\"opt\",\"type\":[\"null\",\"Inner\"]},"
+      + "{\"name\":\"list\",\"type\":{\"type\":\"array\",\"items\":\"Inner\"}}]}";
+
+  @Test
+  public void testReadFieldsInInputOrder() throws Exception {
+    Schema schema = new Schema.Parser().parse(NESTED);
+    String data = "{\"list\":[{\"s\":\"b\",\"x\":2}],\"opt\":{\"Inner\":{\"str\":\"c\",\"x\":3}},"
+        + "\"inner\":{\"x\":1,\"s\":\"a\"},\"id\":7}";
+    JsonDecoder in = DecoderFactory.get().jsonDecoder(schema, data);
+    in.readRecordStart();
+    Assert.assertEquals(3, in.readFieldIndex());
+    Assert.assertEquals(1, in.readArrayStart());
+    in.readRecordStart();
+    Assert.assertEquals(1, in.readFieldIndex());
+    Assert.assertEquals("b", in.readString());
+    Assert.assertEquals(0, in.readFieldIndex());
+    Assert.assertEquals(2, in.readInt());
+    Assert.assertEquals(-1, in.readFieldIndex());
+    Assert.assertEquals(0, in.arrayNext());
+    Assert.assertEquals(2, in.readFieldIndex());
+    Assert.assertEquals(1, in.readIndex());
+    in.readRecordStart();
+    Assert.assertEquals(1, in.readFieldIndex()); // by alias
+    Assert.assertEquals("c", in.readString());
+    Assert.assertEquals(0, in.readFieldIndex());
+    Assert.assertEquals(3, in.readInt());
+    Assert.assertEquals(-1, in.readFieldIndex());
+    Assert.assertEquals(1, in.readFieldIndex());
+    // an inner record may still be read in schema order
+    Assert.assertEquals(1, in.readInt());
+    Assert.assertEquals("a", in.readString());
+    Assert.assertEquals(0, in.readFieldIndex());
+    Assert.assertEquals(7, in.readLong());
+    Assert.assertEquals(-1, in.readFieldIndex());
+  }
+
+  @Test
+  public void testFastReaderReadsFieldsInInputOrder() throws Exception {
+    Schema schema = new Schema.Parser().parse(NESTED);
+    String ordered = "{\"id\":7,\"inner\":{\"x\":1,\"s\":\"a\"},\"opt\":null,"
+        + "\"list\":[{\"x\":2,\"s\":\"b\"}]}";
+    String shuffled = "{\"list\":[{\"s\":\"b\",\"x\":2}],\"opt\":null,"
+        + "\"inner\":{\"s\":\"a\",\"x\":1},\"id\":7}";
+    GenericData data = new GenericData().setFastReaderEnabled(true);
+    DatumReader<GenericRecord> reader = new GenericDatumReader<>(schema, schema, data);
+    GenericRecord expected = reader.read(null, DecoderFactory.get().jsonDecoder(schema, ordered));
+    Assert.assertEquals(7L, expected.get("id"));
+    JsonDecoder in = DecoderFactory.get().jsonDecoder(schema, shuffled + ordered);
+    Assert.assertEquals(expected, reader.read(null, in));
+    Assert.assertEquals(expected, reader.read(null, in));
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testMissingField() throws Exception {
+    Schema schema = new Schema.Parser().parse(NESTED);
+    JsonDecoder in = DecoderFactory.get().jsonDecoder(schema.getField("inner").schema(), "{\"x\":1}");
+    in.readRecordStart();
+    Assert.assertEquals(0, in.readFieldIndex());
+    in.readInt();
+    in.readFieldIndex();
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testDuplicateField() throws Exception {
+    Schema schema = new Schema.Parser().parse(NESTED);
+    JsonDecoder in = DecoderFactory.get().jsonDecoder(schema.getField("inner").schema(), "{\"x\":1,\"x\":2}");
+    in.readRecordStart();
+    in.readFieldIndex();
+    in.readInt();
+    in.readFieldIndex();
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testUnknownField() throws Exception {
+    Schema schema = new Schema.Parser().parse(NESTED);
+    JsonDecoder in = DecoderFactory.get().jsonDecoder(schema.getField("inner").schema(), "{\"y\":1}");
+    in.readRecordStart();
+    in.readFieldIndex();
+  }
 }
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.RandomData;
+import org.apache.avro.util.Utf8;
+import org.junit.Test;
+
+public class TestOrderedKeyCoders {
+
+  private static final Schema WIDE = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Wide\",\"fields\":["
+      + "{\"name\":\"b\",\"type\":\"boolean\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\",\"C\"]}},"
+      + "{\"name\":\"i\",\"type\":\"int\",\"order\":\"descending\"}," + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"f\",\"type\":\"float\"}," + "{\"name\":\"d\",\"type\":\"double\",\"order\":\"descending\"},"
+      + "{\"name\":\"fx\",\"type\":{\"type\":\"fixed\",\"name\":\"F\",\"size\":2}},"
+      + "{\"name\":\"s\",\"type\":\"string\",\"order\":\"descending\"},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+      + "{\"name\":\"nested\",\"order\":\"descending\",\"type\":{\"type\":\"record\",\"name\":\"N\",\"fields\":["
+      + "{\"name\":\"x\",\"type\":\"long\",\"order\":\"descending\"},"
+      + "{\"name\":\"y\",\"type\":{\"type\":\"array\",\"items\":\"bytes\"}}]}},"
+      + "{\"name\":\"u\",\"type\":[\"null\",\"string\",\"long\"]}," + "{\"name\":\"by\",\"type\":\"bytes\"}]}");
+
+  private static final Schema IGNORING = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"k\",\"type\":\"string\"},"
+      + "{\"name\":\"skipped\",\"order\":\"ignore\",\"type\":{\"type\":\"record\",\"name\":\"S\",\"fields\":["
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"int\"}},"
+      + "{\"name\":\"u\",\"type\":[\"null\",\"string\"]}," + "{\"name\":\"d\",\"type\":\"double\"}]}},"
+      + "{\"name\":\"v\",\"type\":\"int\"}]}");
+
+  private static byte[] encode(Schema schema, Object datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OrderedKeyEncoder encoder = EncoderFactory.get().orderedKeyEncoder(schema, out);
+    new GenericDatumWriter<>(schema).write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static Object decode(Schema schema, byte[] bytes) throws IOException {
+    OrderedKeyDecoder decoder = DecoderFactory.get().orderedKeyDecoder(schema, bytes);
+    Object datum = new GenericDatumReader<>(schema).read(null, decoder);
+    assertTrue(decoder.isEnd());
+    return datum;
+  }
+
+  private static byte[] binary(Schema schema, Object datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<>(schema).write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  /** Checks that keys sort like {@link BinaryData#compare}, which follows the specification. */
+  private static void checkOrder(Schema schema, List<Object> data) throws IOException {
+    List<byte[]> keys = new ArrayList<>();
+    List<byte[]> binaries = new ArrayList<>();
+    for (Object datum : data) {
+      keys.add(encode(schema, datum));
+      binaries.add(binary(schema, datum));
+    }
+    for (int i = 0; i < data.size(); i++) {
+      for (int j = 0; j < data.size(); j++) {
+        byte[] k1 = keys.get(i);
+        byte[] k2 = keys.get(j);
+        assertEquals(Integer.signum(BinaryData.compare(binaries.get(i), 0, binaries.get(j), 0, schema)),
+            Integer.signum(BinaryData.compareBytes(k1, 0, k1.length, k2, 0, k2.length)));
+      }
+    }
+  }
+
+  @Test
+  public void testRandomData() throws IOException {
+    List<Object> data = new ArrayList<>();
+    for (Object datum : new RandomData(WIDE, 60, 4321L, true)) {
+      data.add(datum);
+      assertEquals(datum, decode(WIDE, encode(WIDE, datum)));
+    }
+    checkOrder(WIDE, data);
+  }
+
+  @Test
+  public void testStrings() throws IOException {
+    Schema schema = Schema.create(Schema.Type.STRING);
+    List<Object> data = new ArrayList<>();
+    for (String s : new String[] { "", "\u0000", "\u0000\u0000", "\u0000\u0001", "\u0001", "a", "a\u0000", "a\u0000b",
+        "ab", "b", "\u00e9", "\uffff" }) {
+      data.add(new Utf8(s));
+      assertEquals(new Utf8(s), decode(schema, encode(schema, new Utf8(s))));
+    }
+    checkOrder(schema, data);
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    Schema schema = new Schema.Parser().parse("[\"int\",\"long\",\"float\",\"double\"]");
+    List<Object> data = new ArrayList<>();
+    for (long l : new long[] { Long.MIN_VALUE, Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE, Long.MAX_VALUE }) {
+      data.add((int) l);
+      data.add(l);
+    }
+    for (double d : new double[] { Double.NEGATIVE_INFINITY, -1e300, -1.0, -Double.MIN_VALUE, -0.0, 0.0,
+        Double.MIN_VALUE, 2.5, Double.POSITIVE_INFINITY, Double.NaN }) {
+      data.add((float) d);
+      data.add(d);
+    }
+    for (Object datum : data) {
+      assertEquals(datum, decode(schema, encode(schema, datum)));
+    }
+    checkOrder(schema, data);
+  }
+
+  @Test
+  public void testArrays() throws IOException {
+    Schema schema = Schema.createArray(Schema.createArray(Schema.create(Schema.Type.BYTES)));
+    List<Object> data = new ArrayList<>();
+    data.add(Collections.emptyList());
+    data.add(Collections.singletonList(Collections.emptyList()));
+    data.add(Collections.singletonList(Collections.singletonList(ByteBuffer.wrap(new byte[0]))));
+    data.add(Collections.singletonList(Collections.singletonList(ByteBuffer.wrap(new byte[] { 0 }))));
+    data.add(Arrays.asList(Collections.emptyList(), Collections.emptyList()));
+    data.add(Collections.singletonList(Collections.singletonList(ByteBuffer.wrap(new byte[] { -1 }))));
+    for (Object datum : data) {
+      assertEquals(datum.toString(), decode(schema, encode(schema, datum)).toString());
+    }
+    checkOrder(schema, data);
+  }
+
+  @Test
+  public void testIgnoredFields() throws IOException {
+    Schema skipped = IGNORING.getField("skipped").schema();
+    GenericRecord inner = new GenericData.Record(skipped);
+    inner.put("a", Arrays.asList(1, 2, 3));
+    inner.put("u", "something");
+    inner.put("d", 1.5);
+    GenericRecord record = new GenericData.Record(IGNORING);
+    record.put("k", "key");
+    record.put("skipped", inner);
+    record.put("v", 7);
+
+    GenericRecord plain = new GenericData.Record(IGNORING);
+    plain.put("k", "key");
+    GenericRecord empty = new GenericData.Record(skipped);
+    empty.put("a", Collections.emptyList());
+    empty.put("d", 0.0);
+    plain.put("skipped", empty);
+    plain.put("v", 7);
+
+    byte[] bytes = encode(IGNORING, record);
+    assertArrayEquals(bytes, encode(IGNORING, plain));
+    assertEquals(plain, decode(IGNORING, bytes));
+  }
+
+  @Test
+  public void testReuse() throws IOException {
+    Schema schema = Schema.create(Schema.Type.LONG);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OrderedKeyEncoder encoder = EncoderFactory.get().orderedKeyEncoder(schema, out);
+    byte[] bytes = new byte[32];
+    for (long l = 0; l < 4; l++) {
+      out.reset();
+      encoder.configure(out).writeLong(l);
+      encoder.flush();
+      assertEquals(8, out.size());
+      System.arraycopy(out.toByteArray(), 0, bytes, (int) l * 8, 8);
+    }
+    OrderedKeyDecoder decoder = DecoderFactory.get().orderedKeyDecoder(schema, bytes, 0, 8);
+    for (long l = 0; l < 4; l++) {
+      assertEquals(l, decoder.configure(bytes, (int) l * 8, 8).readLong());
+      assertTrue(decoder.isEnd());
+    }
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testMapsCannotBeOrdered() {
+    EncoderFactory.get().orderedKeyEncoder(Schema.createMap(Schema.create(Schema.Type.INT)),
+        new ByteArrayOutputStream());
+  }
+}
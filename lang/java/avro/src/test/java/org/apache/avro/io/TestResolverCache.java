@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Test;
+
+public class TestResolverCache {
+
+  private static final String WRITER = "{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"a\",\"type\":\"int\"},{\"name\":\"b\",\"type\":\"string\"}]}";
+  private static final String READER = "{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+      + "{\"name\":\"b\",\"type\":\"string\"},{\"name\":\"c\",\"type\":\"long\",\"default\":7}]}";
+
+  private static Schema parse(String json) {
+    return new Schema.Parser().parse(json);
+  }
+
+  @Test
+  public void testHitsAndMisses() throws IOException {
+    ResolverCache cache = new ResolverCache(10);
+    Schema writer = parse(WRITER);
+    Schema reader = parse(READER);
+    Object resolver = cache.getResolver(writer, reader);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0, cache.getHitCount());
+
+    assertSame(resolver, cache.getResolver(writer, reader));
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+
+    // a resolver refers to the reader's schema objects, so equal schemas that
+    // are different instances do not share it
+    assertNotSame(resolver, cache.getResolver(writer, parse(READER)));
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testDefaultsAreKeyed() throws IOException {
+    ResolverCache cache = new ResolverCache(10);
+    cache.getResolver(parse(WRITER), parse(READER));
+    cache.getResolver(parse(WRITER), parse(READER.replace("7", "8")));
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testBounded() throws IOException {
+    ResolverCache cache = new ResolverCache(3);
+    Schema reader = parse(READER);
+    List<Schema> writers = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      writers.add(parse(WRITER.replace("\"R\"", "\"R\",\"doc\":\"" + i + "\"")));
+      cache.getResolver(writers.get(i), reader);
+      assertTrue(cache.size() <= 3);
+    }
+    assertEquals(10, cache.getMissCount());
+    assertEquals(7, cache.getEvictionCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new ResolverCache(0);
+  }
+
+  @Test
+  public void testResolvingDecoder() throws IOException {
+    Schema writer = parse(WRITER);
+    Schema reader = parse(READER);
+    byte[] bytes = write(writer, 42, "x");
+    ResolvingDecoder in = new ResolverCache(1).resolvingDecoder(writer, reader,
+        DecoderFactory.get().binaryDecoder(bytes, null));
+    Schema.Field[] order = in.readFieldOrder();
+    assertEquals("b", order[0].name());
+    assertEquals("x", in.readString());
+    assertEquals(7L, in.readLong());
+  }
+
+  @Test
+  public void testSharedAcrossThreads() throws Exception {
+    Schema writer = parse(WRITER);
+    Schema reader = parse(READER);
+    byte[] bytes = write(writer, 1, "shared");
+    GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>(writer, reader);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<GenericRecord>> results = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        results.add(executor.submit(() -> datumReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null))));
+      }
+      for (Future<GenericRecord> result : results) {
+        assertEquals("shared", result.get().get("b").toString());
+        assertEquals(7L, result.get().get("c"));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRecordsHaveTheReadersSchema() throws IOException {
+    String nested = "{\"type\":\"record\",\"name\":\"Outer\",\"fields\":["
+        + "{\"name\":\"inner\",\"type\":" + WRITER + "}]}";
+    Schema writer = parse(nested);
+    GenericRecord inner = new GenericData.Record(writer.getField("inner").schema());
+    inner.put("a", 1);
+    inner.put("b", "x");
+    GenericRecord outer = new GenericData.Record(writer);
+    outer.put("inner", inner);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(writer).write(outer, encoder);
+    encoder.flush();
+
+    // readers on equal but distinct schemas each get records of their own schema
+    for (int i = 0; i < 2; i++) {
+      Schema reader = parse(nested);
+      GenericRecord read = new GenericDatumReader<GenericRecord>(writer, reader).read(null,
+          DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+      assertSame(reader, read.getSchema());
+      assertSame(reader.getField("inner").schema(), ((GenericRecord) read.get("inner")).getSchema());
+    }
+  }
+
+  private static byte[] write(Schema schema, int a, String b) throws IOException {
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("a", a);
+    record.put("b", b);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.avro.message;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.*;
 
@@ -28,6 +29,8 @@ import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -242,4 +245,87 @@ public class TestBinaryMessageEncoding {
 
     decoder.decode(buffer);
   }
+
+  @Test
+  public void testDecodeAll() throws Exception {
+    MessageEncoder<Record> v1Encoder = new BinaryMessageEncoder<>(GenericData.get(), SCHEMA_V1);
+    MessageEncoder<Record> v2Encoder = new BinaryMessageEncoder<>(GenericData.get(), SCHEMA_V2);
+    BinaryMessageDecoder<Record> decoder = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA_V2);
+    decoder.addSchema(SCHEMA_V1);
+
+    List<ByteBuffer> buffers = new ArrayList<>();
+    for (int i = 0; i < V1_RECORDS.size(); i++) {
+      buffers.add(v2Encoder.encode(V2_RECORDS.get(i)));
+      buffers.add(v1Encoder.encode(V1_RECORDS.get(i)));
+    }
+
+    MessageBatch<Record> batch = decoder.decodeAll(buffers, null);
+    Assert.assertEquals(8, batch.size());
+    Assert.assertFalse(batch.hasErrors());
+    for (int i = 0; i < V1_RECORDS.size(); i++) {
+      Assert.assertEquals(V2_RECORDS.get(i), batch.get(2 * i));
+      Assert.assertEquals(V1_RECORDS.get(i).get("id"), ((Long) batch.get(2 * i + 1).get("id")).intValue());
+      Assert.assertEquals(0, buffers.get(i).position());
+    }
+
+    // results and datums are reused
+    Record first = batch.get(0);
+    Assert.assertSame(batch, decoder.decodeAll(buffers, batch));
+    Assert.assertSame(first, batch.get(0));
+    Assert.assertEquals(V2_RECORDS.get(0), batch.get(0));
+  }
+
+  @Test
+  public void testDecodeAllReportsFailures() throws Exception {
+    MessageEncoder<Record> v1Encoder = new BinaryMessageEncoder<>(GenericData.get(), SCHEMA_V1);
+    MessageEncoder<Record> v2Encoder = new BinaryMessageEncoder<>(GenericData.get(), SCHEMA_V2);
+    BinaryMessageDecoder<Record> decoder = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA_V2);
+
+    ByteBuffer badHeader = v2Encoder.encode(V2_RECORDS.get(1));
+    badHeader.array()[0] = 0x00;
+    ByteBuffer truncated = v2Encoder.encode(V2_RECORDS.get(2));
+    truncated.limit(truncated.limit() - 4);
+
+    List<ByteBuffer> buffers = Arrays.asList(v2Encoder.encode(V2_RECORDS.get(0)), badHeader,
+        v1Encoder.encode(V1_RECORDS.get(0)), truncated, v2Encoder.encode(V2_RECORDS.get(3)), ByteBuffer.allocate(3));
+
+    MessageBatch<Record> batch = decoder.decodeAll(buffers, null);
+    Assert.assertEquals(6, batch.size());
+    Assert.assertEquals(4, batch.getErrorCount());
+    Assert.assertEquals(V2_RECORDS.get(0), batch.get(0));
+    Assert.assertTrue(batch.getError(1) instanceof BadHeaderException);
+    Assert.assertTrue(batch.getError(2) instanceof MissingSchemaException);
+    Assert.assertNotNull(batch.getError(3));
+    Assert.assertNull(batch.get(3));
+    Assert.assertTrue(batch.isDecoded(4));
+    Assert.assertEquals(V2_RECORDS.get(3), batch.get(4));
+    Assert.assertTrue(batch.getError(5) instanceof BadHeaderException);
+    Assert.assertEquals(Arrays.asList(V2_RECORDS.get(0), V2_RECORDS.get(3)), batch.getDecoded());
+  }
+
+  @Test
+  public void testDecodeDelimited() throws Exception {
+    MessageEncoder<Record> encoder = new BinaryMessageEncoder<>(GenericData.get(), SCHEMA_V2);
+    BinaryMessageDecoder<Record> decoder = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA_V2);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder lengths = EncoderFactory.get().binaryEncoder(out, null);
+    for (Record record : V2_RECORDS) {
+      lengths.writeBytes(encoder.encode(record));
+    }
+    lengths.flush();
+
+    ByteBuffer messages = ByteBuffer.allocateDirect(out.size());
+    messages.put(out.toByteArray());
+    messages.flip();
+    MessageBatch<Record> batch = decoder.decodeDelimited(messages, null);
+    Assert.assertEquals(V2_RECORDS, batch.getDecoded());
+    Assert.assertEquals(0, messages.position());
+  }
+
+  @Test(expected = BadHeaderException.class)
+  public void testDecodeDelimitedBadLength() throws Exception {
+    BinaryMessageDecoder<Record> decoder = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA_V2);
+    decoder.decodeDelimited(ByteBuffer.wrap(new byte[] { 40, 1, 2 }), null);
+  }
 }
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.avro.message;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.SchemaNormalization;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestCachingSchemaStore {
+
+  private static final Schema SCHEMA_A = SchemaBuilder.record("A").fields().requiredInt("a").endRecord();
+  private static final Schema SCHEMA_B = SchemaBuilder.record("B").fields().requiredInt("b").endRecord();
+  private static final Schema SCHEMA_C = SchemaBuilder.record("C").fields().requiredInt("c").endRecord();
+
+  private static final long FP_A = SchemaNormalization.parsingFingerprint64(SCHEMA_A);
+  private static final long FP_B = SchemaNormalization.parsingFingerprint64(SCHEMA_B);
+  private static final long FP_C = SchemaNormalization.parsingFingerprint64(SCHEMA_C);
+
+  @Rule
+  public TemporaryFolder dir = new TemporaryFolder();
+
+  /** A store that counts lookups. */
+  private static class CountingStore extends SchemaStore.Cache {
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+      lookups.incrementAndGet();
+      return super.findByFingerprint(fingerprint);
+    }
+  }
+
+  @Test
+  public void testHitsAreCached() {
+    CountingStore delegate = new CountingStore();
+    delegate.addSchema(SCHEMA_A);
+    CachingSchemaStore store = new CachingSchemaStore(delegate, 10, Duration.ZERO);
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+    assertEquals(1, delegate.lookups.get());
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    CountingStore delegate = new CountingStore();
+    delegate.addSchema(SCHEMA_A);
+    delegate.addSchema(SCHEMA_B);
+    delegate.addSchema(SCHEMA_C);
+    CachingSchemaStore store = new CachingSchemaStore(delegate, 2, Duration.ZERO);
+    store.findByFingerprint(FP_A);
+    store.findByFingerprint(FP_B);
+    store.findByFingerprint(FP_A);
+    store.findByFingerprint(FP_C); // evicts B
+    assertEquals(2, store.size());
+    assertEquals(3, delegate.lookups.get());
+
+    store.findByFingerprint(FP_A);
+    assertEquals(3, delegate.lookups.get());
+    store.findByFingerprint(FP_B);
+    assertEquals(4, delegate.lookups.get());
+  }
+
+  @Test
+  public void testMissesExpire() {
+    CountingStore delegate = new CountingStore();
+    AtomicLong now = new AtomicLong();
+    CachingSchemaStore store = new CachingSchemaStore(delegate, 10, Duration.ofSeconds(5), Runnable::run, now::get);
+    assertNull(store.findByFingerprint(FP_A));
+    assertNull(store.findByFingerprint(FP_A));
+    assertEquals(1, delegate.lookups.get());
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+    delegate.addSchema(SCHEMA_A);
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+    assertEquals(2, delegate.lookups.get());
+  }
+
+  @Test
+  public void testAddSchemaAndInvalidate() {
+    CountingStore delegate = new CountingStore();
+    CachingSchemaStore store = new CachingSchemaStore(delegate, 10, Duration.ofHours(1));
+    assertNull(store.findByFingerprint(FP_A));
+    store.addSchema(SCHEMA_A);
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+    assertEquals(1, delegate.lookups.get());
+
+    store.invalidate(FP_A);
+    assertNull(store.findByFingerprint(FP_A));
+    assertEquals(2, delegate.lookups.get());
+  }
+
+  @Test
+  public void testErrorsAreNotCached() {
+    AtomicInteger calls = new AtomicInteger();
+    SchemaStore failing = fingerprint -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new AvroRuntimeException("unavailable");
+      }
+      return SCHEMA_A;
+    };
+    CachingSchemaStore store = new CachingSchemaStore(failing, 10, Duration.ofHours(1));
+    try {
+      store.findByFingerprint(FP_A);
+      fail("Expected AvroRuntimeException");
+    } catch (AvroRuntimeException e) {
+      assertEquals("unavailable", e.getMessage());
+    }
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+  }
+
+  @Test
+  public void testConcurrentLoadsAreCoalesced() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger lookups = new AtomicInteger();
+    SchemaStore slow = fingerprint -> {
+      lookups.incrementAndGet();
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new AvroRuntimeException(e);
+      }
+      return SCHEMA_A;
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      CachingSchemaStore store = new CachingSchemaStore(slow, 10, Duration.ZERO, executor);
+      CompletableFuture<Schema> async = store.findByFingerprintAsync(FP_A);
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      assertFalse(async.isDone());
+      assertSame(async, store.findByFingerprintAsync(FP_A));
+
+      List<Future<Schema>> waiting = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        waiting.add(executor.submit(() -> store.findByFingerprint(FP_A)));
+      }
+      release.countDown();
+      assertEquals(SCHEMA_A, async.get(10, TimeUnit.SECONDS));
+      for (Future<Schema> schema : waiting) {
+        assertEquals(SCHEMA_A, schema.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, lookups.get());
+      assertTrue(store.findByFingerprintAsync(FP_A).isDone());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testDefaultAsyncLookup() throws Exception {
+    SchemaStore.Cache cache = new SchemaStore.Cache();
+    cache.addSchema(SCHEMA_A);
+    assertEquals(SCHEMA_A, cache.findByFingerprintAsync(FP_A).get());
+    assertNull(cache.findByFingerprintAsync(FP_B).get());
+  }
+
+  @Test
+  public void testDirectorySchemaStore() throws IOException {
+    File schemas = dir.newFolder("schemas");
+    write(new File(schemas, "a.avsc"), SCHEMA_A);
+    write(new File(schemas, "b.txt"), SCHEMA_B);
+    DirectorySchemaStore store = new DirectorySchemaStore(schemas);
+    assertEquals(SCHEMA_A, store.findByFingerprint(FP_A));
+    assertNull(store.findByFingerprint(FP_B));
+
+    write(new File(schemas, "c.avsc"), SCHEMA_C);
+    assertEquals(SCHEMA_C, store.findByFingerprint(FP_C));
+  }
+
+  @Test(expected = AvroRuntimeException.class)
+  public void testDirectorySchemaStoreNotADirectory() throws IOException {
+    new DirectorySchemaStore(dir.newFile("schema.avsc"));
+  }
+
+  private static void write(File file, Schema schema) throws IOException {
+    try (Writer writer = new FileWriter(file)) {
+      writer.write(schema.toString(true));
+    }
+  }
+}
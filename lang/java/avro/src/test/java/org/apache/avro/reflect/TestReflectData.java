@@ -48,7 +48,7 @@ public class TestReflectData {
 
     System.gc(); // Not guaranteed, but seems to be reliable enough
 
-    assertThat("ReflectData cache should release references", classData.bySchema.size(), lessThan(numSchemas));
+    assertThat("ReflectData cache should release references", classData.bySchema.length, lessThan(numSchemas));
   }
 
   @Test
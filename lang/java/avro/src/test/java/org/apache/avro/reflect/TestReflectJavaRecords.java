@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.reflect;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests Java records and sealed interfaces. They are compiled when the tests
+ * run, as this module is built for Java 8.
+ */
+public class TestReflectJavaRecords {
+  private static final String SOURCE = "package records;\n" //
+      + "import java.util.List;\n" //
+      + "import org.apache.avro.reflect.*;\n" //
+      + "public class Shapes {\n" //
+      + "  public sealed interface Shape permits Circle, Polygon {}\n" //
+      + "  public record Circle(double radius) implements Shape {}\n" //
+      + "  public sealed interface Polygon extends Shape permits Square {}\n" //
+      + "  public record Square(int side, short sides) implements Polygon {}\n" //
+      + "  public record Drawing(String name, Shape main, List<Shape> others, @Nullable Shape extra,\n" //
+      + "      @Stringable java.math.BigDecimal scale) {}\n" //
+      // constants with bodies make an enum abstract and sealed
+      + "  public enum Op {\n" //
+      + "    PLUS { int apply(int a, int b) { return a + b; } },\n" //
+      + "    MINUS { int apply(int a, int b) { return a - b; } };\n" //
+      + "    abstract int apply(int a, int b);\n" //
+      + "  }\n" //
+      + "  public record Operation(Op op, List<Op> ops) {}\n" //
+      + "}\n";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ClassLoader loader;
+  private ReflectData data;
+
+  @Before
+  public void compile() throws Exception {
+    String version = System.getProperty("java.specification.version", "");
+    Assume.assumeTrue(!version.startsWith("1.") && Integer.parseInt(version) >= 17);
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Assume.assumeNotNull(compiler);
+
+    File dir = folder.newFolder();
+    File source = new File(new File(dir, "records"), "Shapes.java");
+    source.getParentFile().mkdirs();
+    Files.write(source.toPath(), SOURCE.getBytes(StandardCharsets.UTF_8));
+    String classPath = new File(ReflectData.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+        .getPath();
+    assertEquals(0, compiler.run(null, null, null, "-cp", classPath, "-d", dir.getPath(), source.getPath()));
+    loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+    data = new ReflectData(loader);
+  }
+
+  private Object create(String name, Object... args) throws Exception {
+    return loader.loadClass("records.Shapes$" + name).getConstructors()[0].newInstance(args);
+  }
+
+  private Object roundTrip(Schema schema, Object datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    new ReflectDatumWriter<>(schema, data).write(datum, encoder);
+    return new ReflectDatumReader<>(schema, schema, data).read(null,
+        DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+  }
+
+  @Test
+  public void testSealedUnion() throws Exception {
+    Schema union = data.getSchema(loader.loadClass("records.Shapes$Shape"));
+    assertEquals(Schema.Type.UNION, union.getType());
+    assertEquals(2, union.getTypes().size());
+    assertEquals("records.Shapes.Circle", union.getTypes().get(0).getFullName());
+    assertEquals("records.Shapes.Square", union.getTypes().get(1).getFullName());
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Object square = create("Square", 3, (short) 4);
+    Object drawing = create("Drawing", "d", square, Arrays.asList(create("Circle", 1.5), square), null,
+        new java.math.BigDecimal("0.5"));
+    Schema schema = data.getSchema(drawing.getClass());
+    Object read = roundTrip(schema, drawing);
+    assertSame(drawing.getClass(), read.getClass());
+    assertEquals(drawing, read);
+  }
+
+  @Test
+  public void testEnumWithConstantBodies() throws Exception {
+    Class<?> op = loader.loadClass("records.Shapes$Op");
+    Schema schema = data.getSchema(op);
+    assertEquals(Schema.Type.ENUM, schema.getType());
+    assertEquals(Arrays.asList("PLUS", "MINUS"), schema.getEnumSymbols());
+
+    Object[] constants = op.getEnumConstants();
+    Object operation = create("Operation", constants[1], Arrays.asList(constants));
+    Schema operationSchema = data.getSchema(operation.getClass());
+    assertNull(operationSchema.getField("ops").schema().getProp(ReflectData.ELEMENT_PROP));
+    assertEquals(operation, roundTrip(operationSchema, operation));
+  }
+
+  @Test
+  public void testMissingComponent() throws Exception {
+    Schema writer = new Schema.Parser()
+        .parse("{\"type\":\"record\",\"name\":\"Square\",\"namespace\":\"records.Shapes\","
+            + "\"fields\":[{\"name\":\"color\",\"type\":\"string\"},{\"name\":\"side\",\"type\":\"int\"}]}");
+    Schema reader = new Schema.Parser()
+        .parse("{\"type\":\"record\",\"name\":\"Square\",\"namespace\":\"records.Shapes\","
+            + "\"fields\":[{\"name\":\"side\",\"type\":\"int\"}]}");
+    GenericData.Record record = new GenericData.Record(writer);
+    record.put("color", "red");
+    record.put("side", 7);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    new GenericDatumWriter<>(writer).write(record, encoder);
+
+    Object read = new ReflectDatumReader<>(writer, reader, data).read(null,
+        DecoderFactory.get().binaryDecoder(out.toByteArray(), null));
+    assertEquals(create("Square", 7, (short) 0), read);
+  }
+}
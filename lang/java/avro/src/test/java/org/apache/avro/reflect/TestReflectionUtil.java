@@ -17,9 +17,17 @@
  */
 package org.apache.avro.reflect;
 
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
 
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.Test;
 
 public class TestReflectionUtil {
@@ -36,6 +44,102 @@ public class TestReflectionUtil {
     testerClass.getDeclaredMethod("checkUnsafe").invoke(testerClass.getDeclaredConstructor().newInstance());
   }
 
+  @Test
+  public void testHandleAccess() throws Exception {
+    FieldAccess access = new FieldAccessHandle();
+    Primitives from = new Primitives();
+    from.b = true;
+    from.by = -3;
+    from.c = 'x';
+    from.s = -300;
+    from.i = 70000;
+    from.l = -1L << 40;
+    from.f = 1.5f;
+    from.d = -2.25;
+    from.o = "value";
+
+    // read and write fields one by one, as ReflectDatumWriter does
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    Field[] fields = Primitives.class.getDeclaredFields();
+    for (Field field : fields) {
+      FieldAccessor accessor = access.getAccessor(field);
+      if (accessor.supportsIO())
+        accessor.write(from, encoder);
+      else
+        encoder.writeString((String) accessor.get(from));
+    }
+    encoder.flush();
+    Primitives to = new Primitives();
+    Decoder decoder = DecoderFactory.get().binaryDecoder(out.toByteArray(), null);
+    for (Field field : fields) {
+      FieldAccessor accessor = access.getAccessor(field);
+      if (accessor.supportsIO())
+        accessor.read(to, decoder);
+      else
+        accessor.set(to, decoder.readString());
+      assertEquals(accessor.get(from), accessor.get(to));
+    }
+
+    FieldAccessor accessor = access.getAccessor(Primitives.class.getDeclaredField("i"));
+    accessor.set(to, 5);
+    assertEquals(5, to.i);
+    try {
+      access.getAccessor(Primitives.class.getDeclaredField("o")).set(to, 5);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // as thrown by Field.set
+    }
+  }
+
+  @Test
+  public void testUnsafeDeprecated() {
+    String saved = System.getProperty("java.specification.version");
+    try {
+      System.setProperty("java.specification.version", "1.8");
+      assertFalse(ReflectionUtil.isUnsafeDeprecated());
+      System.setProperty("java.specification.version", "17");
+      assertFalse(ReflectionUtil.isUnsafeDeprecated());
+      System.setProperty("java.specification.version", "23");
+      assertTrue(ReflectionUtil.isUnsafeDeprecated());
+    } finally {
+      System.setProperty("java.specification.version", saved);
+    }
+  }
+
+  @Test
+  public void testHandleAccessorClassPerField() throws Exception {
+    FieldAccess access = new FieldAccessHandle();
+    FieldAccessor x = access.getAccessor(Point.class.getDeclaredField("x"));
+    FieldAccessor y = access.getAccessor(Point.class.getDeclaredField("y"));
+    // each accessor holds the handles for its field in its own class
+    assertNotSame(x.getClass(), y.getClass());
+    Point point = new Point();
+    x.set(point, 1);
+    y.set(point, 2);
+    assertEquals(1, point.x);
+    assertEquals(2, point.y);
+    assertEquals(1, x.get(point));
+    assertEquals(2, y.get(point));
+  }
+
+  private static final class Point {
+    private int x;
+    private int y;
+  }
+
+  private static final class Primitives {
+    private boolean b;
+    private byte by;
+    private char c;
+    private short s;
+    private int i;
+    private long l;
+    private float f;
+    private double d;
+    private String o;
+  }
+
   public static final class Tester {
     public Tester() {
     }
@@ -174,4 +174,57 @@ public class TestSpecificData {
       // Expected error
     }
   }
+
+  public static class GeneratedRecord extends TestRecord {
+    static int created;
+    public static final java.util.function.Supplier<GeneratedRecord> FACTORY$ = () -> {
+      created++;
+      return new GeneratedRecord();
+    };
+  }
+
+  public static class GeneratedSubclass extends GeneratedRecord {
+  }
+
+  public static class Constructable implements SpecificData.SchemaConstructable {
+    final Schema schema;
+
+    public Constructable(Schema schema) {
+      this.schema = schema;
+    }
+  }
+
+  static class Hidden {
+    private Hidden() {
+    }
+  }
+
+  @Test
+  public void testNewInstance() {
+    int created = GeneratedRecord.created;
+    assertTrue(SpecificData.newInstance(GeneratedRecord.class, null) instanceof GeneratedRecord);
+    assertEquals(created + 1, GeneratedRecord.created);
+    // a subclass does not inherit the factory
+    assertEquals(GeneratedSubclass.class, SpecificData.newInstance(GeneratedSubclass.class, null).getClass());
+    assertEquals(created + 1, GeneratedRecord.created);
+
+    assertEquals(TestRecord.class, SpecificData.newInstance(TestRecord.class, null).getClass());
+    assertEquals(Hidden.class, SpecificData.newInstance(Hidden.class, null).getClass());
+    Schema schema = Schema.create(Type.INT);
+    assertSame(schema, ((Constructable) SpecificData.newInstance(Constructable.class, schema)).schema);
+  }
+
+  @Test
+  public void testNewRecordReusesInstance() {
+    TestRecord record = new TestRecord();
+    SpecificData data = new SpecificData() {
+      @Override
+      public Class getClass(Schema schema) {
+        return TestRecord.class;
+      }
+    };
+    assertSame(record, data.newRecord(record, record.getSchema()));
+    assertNotSame(record, data.newRecord(null, record.getSchema()));
+    assertSame(record, data.getNewRecordSupplier(record.getSchema()).newInstance(record, record.getSchema()));
+  }
 }
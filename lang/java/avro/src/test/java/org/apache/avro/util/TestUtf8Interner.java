@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Test;
+
+public class TestUtf8Interner {
+
+  private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"Event\",\"fields\":["
+      + "{\"name\":\"country\",\"type\":\"string\"},{\"name\":\"id\",\"type\":\"string\"}]}";
+
+  @Test
+  public void testIntern() {
+    Utf8Interner interner = new Utf8Interner(4);
+    byte[] bytes = "xxabcxx".getBytes(StandardCharsets.UTF_8);
+    Utf8 abc = interner.intern(bytes, 2, 3);
+    assertEquals("abc", abc.toString());
+    assertSame(abc, interner.intern("abc".getBytes(StandardCharsets.UTF_8), 0, 3));
+    assertSame(abc.toString(), interner.intern(bytes, 2, 3).toString());
+    assertNotSame(abc, interner.intern(bytes, 2, 2));
+    assertEquals("", interner.intern(bytes, 0, 0).toString());
+  }
+
+  @Test
+  public void testLongValuesAreNotInterned() {
+    Utf8Interner interner = new Utf8Interner();
+    byte[] bytes = new byte[Utf8Interner.MAX_LENGTH + 1];
+    Arrays.fill(bytes, (byte) 'a');
+    Utf8 first = interner.intern(bytes, 0, bytes.length);
+    assertNotSame(first, interner.intern(bytes, 0, bytes.length));
+    assertEquals(first, interner.intern(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testBounded() {
+    Utf8Interner interner = new Utf8Interner(2);
+    for (int i = 0; i < 1000; i++) {
+      byte[] bytes = Integer.toString(i).getBytes(StandardCharsets.UTF_8);
+      assertEquals(Integer.toString(i), interner.intern(bytes, 0, bytes.length).toString());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new Utf8Interner(0);
+  }
+
+  @Test
+  public void testSetInterned() {
+    Schema schema = new Schema.Parser().parse(SCHEMA);
+    GenericData.setInterned(schema);
+    assertTrue(GenericData.isInterned(schema.getField("country").schema()));
+    assertTrue(GenericData.isInterned(schema.getField("id").schema()));
+    assertFalse(GenericData.isInterned(schema));
+  }
+
+  @Test
+  public void testGenericDatumReader() throws IOException {
+    for (boolean fast : new boolean[] { false, true }) {
+      Schema schema = new Schema.Parser().parse(SCHEMA);
+      GenericData.setInterned(schema.getField("country").schema());
+      byte[] bytes = write(schema, 3);
+      GenericData data = new GenericData().setFastReaderEnabled(fast);
+
+      GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema, schema, data);
+      Decoder in = DecoderFactory.get().binaryDecoder(bytes, null);
+      GenericRecord first = reader.read(null, in);
+      GenericRecord second = reader.read(null, in);
+      GenericRecord third = reader.read(first, in);
+      assertEquals(new Utf8("DE"), first.get("country"));
+      assertSame(first.get("country"), second.get("country"));
+      assertSame(second.get("country"), third.get("country"));
+      assertNotSame(first.get("id"), second.get("id"));
+      assertEquals(new Utf8("id2"), third.get("id"));
+    }
+  }
+
+  @Test
+  public void testStringType() throws IOException {
+    for (boolean fast : new boolean[] { false, true }) {
+      Schema schema = new Schema.Parser().parse(SCHEMA);
+      Schema country = schema.getField("country").schema();
+      GenericData.setStringType(country, GenericData.StringType.String);
+      GenericData.setInterned(country);
+      byte[] bytes = write(schema, 2);
+      GenericData data = new GenericData().setFastReaderEnabled(fast);
+
+      GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema, schema, data);
+      // an unbuffered decoder
+      Decoder in = DecoderFactory.get().directBinaryDecoder(new ByteArrayInputStream(bytes), null);
+      Object first = reader.read(null, in).get("country");
+      Object second = reader.read(null, in).get("country");
+      assertEquals("DE", first);
+      assertSame(first, second);
+    }
+  }
+
+  @Test
+  public void testInterningIsResolvedWhenReadingStarts() throws IOException {
+    for (boolean fast : new boolean[] { false, true }) {
+      Schema schema = new Schema.Parser().parse(SCHEMA);
+      byte[] bytes = write(schema, 4);
+      GenericData data = new GenericData().setFastReaderEnabled(fast);
+
+      GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema, schema, data);
+      Decoder in = DecoderFactory.get().binaryDecoder(bytes, null);
+      reader.read(null, in);
+      // marking the schema does not change a reader that has started reading
+      GenericData.setInterned(schema.getField("country").schema());
+      assertNotSame(reader.read(null, in).get("country"), reader.read(null, in).get("country"));
+    }
+  }
+
+  @Test
+  public void testInternedValuesAreNotReused() throws IOException {
+    for (boolean fast : new boolean[] { false, true }) {
+      Schema interned = new Schema.Parser().parse(SCHEMA);
+      GenericData.setInterned(interned);
+      GenericData data = new GenericData().setFastReaderEnabled(fast);
+      GenericRecord record = new GenericDatumReader<GenericRecord>(interned, interned, data)
+          .read(null, DecoderFactory.get().binaryDecoder(write(interned, 1), null));
+      Utf8 country = (Utf8) record.get("country");
+      assertTrue(Utf8Interner.isInterned(country));
+
+      // a reader that does not intern decodes into new instances
+      Schema plain = new Schema.Parser().parse(SCHEMA);
+      byte[] bytes = write(plain, 1, "FR");
+      record = new GenericDatumReader<GenericRecord>(plain, plain, data).read(record,
+          DecoderFactory.get().binaryDecoder(bytes, null));
+      assertEquals(new Utf8("FR"), record.get("country"));
+      assertEquals(new Utf8("DE"), country);
+      assertEquals("DE", country.toString());
+    }
+  }
+
+  @Test
+  public void testInternedValuesCannotBeModified() {
+    Utf8 value = new Utf8Interner().intern(new byte[] { 'a' }, 0, 1);
+    assertFalse(Utf8Interner.isInterned(new Utf8("a")));
+    try {
+      value.setByteLength(0);
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      value.set("b");
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    assertEquals("a", value.toString());
+  }
+
+  @Test
+  public void testEqualSchemaInstancesAreInterned() throws IOException {
+    Schema schema = new Schema.Parser().parse(SCHEMA);
+    GenericData.setInterned(schema);
+    Schema other = new Schema.Parser().parse(SCHEMA);
+    GenericData.setInterned(other);
+    Schema country = other.getField("country").schema();
+
+    StringReader reader = new StringReader(schema);
+    Decoder in = DecoderFactory.get().binaryDecoder(write(schema, 2), null);
+    Object first = reader.readString(country, in);
+    in.readString(null);
+    assertSame(first, reader.readString(country, in));
+  }
+
+  // Reads strings with schemas that are not within the reader's schema
+  private static class StringReader extends GenericDatumReader<Object> {
+    StringReader(Schema schema) {
+      super(schema);
+    }
+
+    Object readString(Schema schema, Decoder in) throws IOException {
+      return readString(null, schema, in);
+    }
+  }
+
+  private static byte[] write(Schema schema, int count) throws IOException {
+    return write(schema, count, "DE");
+  }
+
+  private static byte[] write(Schema schema, int count, String country) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(schema);
+    for (int i = 0; i < count; i++) {
+      GenericRecord record = new GenericData.Record(schema);
+      record.put("country", country);
+      record.put("id", "id" + i);
+      writer.write(record, encoder);
+    }
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
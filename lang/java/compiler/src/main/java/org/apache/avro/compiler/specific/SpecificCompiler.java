@@ -273,61 +273,37 @@ public class SpecificCompiler {
   }
 
   public Collection<String> getUsedConversionClasses(Schema schema) {
-    LinkedHashMap<String, Conversion<?>> classnameToConversion = new LinkedHashMap<>();
-    for (Conversion<?> conversion : specificData.getConversions()) {
-      classnameToConversion.put(conversion.getConvertedType().getCanonicalName(), conversion);
-    }
     Collection<String> result = new HashSet<>();
-    for (String className : getClassNamesOfPrimitiveFields(schema)) {
-      if (classnameToConversion.containsKey(className)) {
-        result.add(classnameToConversion.get(className).getClass().getCanonicalName());
-      }
-    }
-    return result;
-  }
-
-  private Set<String> getClassNamesOfPrimitiveFields(Schema schema) {
-    Set<String> result = new HashSet<>();
-    getClassNamesOfPrimitiveFields(schema, result, new HashSet<>());
+    getUsedConversionClasses(schema, result, new HashSet<>());
     return result;
   }
 
-  private void getClassNamesOfPrimitiveFields(Schema schema, Set<String> result, Set<Schema> seenSchemas) {
-    if (seenSchemas.contains(schema)) {
+  private void getUsedConversionClasses(Schema schema, Collection<String> result, Set<Schema> seenSchemas) {
+    if (!seenSchemas.add(schema)) {
       return;
     }
-    seenSchemas.add(schema);
+    // Generated code converts with MODEL$, so it needs every conversion that a
+    // logical type in the schema uses, even those sharing a converted type.
+    if (hasLogicalTypeConversion(schema)) {
+      result.add(specificData.getConversionFor(schema.getLogicalType()).getClass().getCanonicalName());
+    }
     switch (schema.getType()) {
     case RECORD:
       for (Schema.Field field : schema.getFields()) {
-        getClassNamesOfPrimitiveFields(field.schema(), result, seenSchemas);
+        getUsedConversionClasses(field.schema(), result, seenSchemas);
       }
       break;
     case MAP:
-      getClassNamesOfPrimitiveFields(schema.getValueType(), result, seenSchemas);
+      getUsedConversionClasses(schema.getValueType(), result, seenSchemas);
       break;
     case ARRAY:
-      getClassNamesOfPrimitiveFields(schema.getElementType(), result, seenSchemas);
+      getUsedConversionClasses(schema.getElementType(), result, seenSchemas);
       break;
     case UNION:
       for (Schema s : schema.getTypes())
-        getClassNamesOfPrimitiveFields(s, result, seenSchemas);
-      break;
-    case ENUM:
-    case FIXED:
-    case NULL:
-      break;
-    case STRING:
-    case BYTES:
-    case INT:
-    case LONG:
-    case FLOAT:
-    case DOUBLE:
-    case BOOLEAN:
-      result.add(javaType(schema));
+        getUsedConversionClasses(s, result, seenSchemas);
       break;
     default:
-      throw new RuntimeException("Unknown type: " + schema);
     }
   }
 
@@ -878,8 +854,19 @@ public class SpecificCompiler {
   private boolean isCustomCodable(Schema schema, Set<Schema> seen) {
     if (!seen.add(schema))
       return true;
-    if (schema.getLogicalType() != null)
-      return false;
+    if (hasLogicalTypeConversion(schema)) {
+      // Converted values are coded through their underlying primitive type
+      switch (schema.getType()) {
+      case RECORD:
+      case ENUM:
+      case ARRAY:
+      case MAP:
+      case UNION:
+        return false;
+      default:
+        return true;
+      }
+    }
     boolean result = true;
     switch (schema.getType()) {
     case RECORD:
@@ -893,11 +880,7 @@ public class SpecificCompiler {
       result = isCustomCodable(schema.getElementType(), seen);
       break;
     case UNION:
-      List<Schema> types = schema.getTypes();
-      // Only know how to handle "nulling" unions for now
-      if (types.size() != 2 || !types.contains(NULL_SCHEMA))
-        return false;
-      for (Schema s : types)
+      for (Schema s : schema.getTypes())
         result &= isCustomCodable(s, seen);
       break;
     default:
@@ -905,6 +888,124 @@ public class SpecificCompiler {
     return result;
   }
 
+  /**
+   * Utility for template use. Returns true if values of the schema are held in
+   * generated classes as the converted type of its logical type.
+   */
+  public boolean hasLogicalTypeConversion(Schema schema) {
+    return schema.getLogicalType() != null && getConvertedLogicalType(schema) != null;
+  }
+
+  /**
+   * Utility for template use. Returns true if the schema is a two-branch union
+   * with a null branch, which generated code holds as a nullable value of the
+   * other branch's type.
+   */
+  public boolean isNullableUnion(Schema schema) {
+    return schema.getType() == Schema.Type.UNION && schema.getTypes().size() == 2
+        && schema.getTypes().contains(NULL_SCHEMA);
+  }
+
+  /**
+   * Utility for template use. Returns true if the custom encoder of record.vm
+   * casts a value of a general union within a record's fields to an array or
+   * map type, which is an unchecked cast.
+   */
+  public boolean hasUncheckedCasts(Schema record) {
+    for (Schema.Field field : record.getFields())
+      if (hasUncheckedCasts(field.schema(), false))
+        return true;
+    return false;
+  }
+
+  private boolean hasUncheckedCasts(Schema schema, boolean generalUnionBranch) {
+    if (hasLogicalTypeConversion(schema))
+      return false;
+    switch (schema.getType()) {
+    case ARRAY:
+      return generalUnionBranch || hasUncheckedCasts(schema.getElementType(), false);
+    case MAP:
+      return generalUnionBranch || hasUncheckedCasts(schema.getValueType(), false);
+    case UNION:
+      boolean general = !isNullableUnion(schema);
+      for (Schema s : schema.getTypes())
+        if (hasUncheckedCasts(s, general))
+          return true;
+      return false;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the name of the constant that holds the
+   * schema of a field in the custom coders of record.vm.
+   */
+  public String fieldSchemaName(Schema.Field field) {
+    return "FIELD$" + field.pos();
+  }
+
+  /**
+   * Utility for template use. Returns the expressions, rooted at the constants
+   * named by {@link #fieldSchemaName}, of the schemas within a record's fields
+   * whose values the custom coders of record.vm convert. They are built the
+   * same way as the encode and decode macros build them.
+   */
+  public List<String> getLogicalSchemaExpressions(Schema record) {
+    List<String> expressions = new ArrayList<>();
+    for (Schema.Field field : record.getFields())
+      addLogicalSchemaExpressions(field.schema(), fieldSchemaName(field), expressions);
+    return expressions;
+  }
+
+  private void addLogicalSchemaExpressions(Schema schema, String expression, List<String> expressions) {
+    if (hasLogicalTypeConversion(schema)) {
+      expressions.add(expression);
+      return;
+    }
+    switch (schema.getType()) {
+    case ARRAY:
+      addLogicalSchemaExpressions(schema.getElementType(), expression + ".getElementType()", expressions);
+      break;
+    case MAP:
+      addLogicalSchemaExpressions(schema.getValueType(), expression + ".getValueType()", expressions);
+      break;
+    case UNION:
+      if (isNullableUnion(schema)) {
+        int i = getNonNullIndex(schema);
+        addLogicalSchemaExpressions(schema.getTypes().get(i), expression + ".getTypes().get(" + i + ")", expressions);
+      } else {
+        for (int i = 0; i < schema.getTypes().size(); i++)
+          addLogicalSchemaExpressions(schema.getTypes().get(i), expression + ".getTypes().get(" + i + ")",
+              expressions);
+      }
+      break;
+    default:
+    }
+  }
+
+  /**
+   * Utility for template use. Returns the name of the constant that holds the
+   * schema built by an expression from {@link #getLogicalSchemaExpressions}.
+   */
+  public String logicalSchemaName(String expression) {
+    return "LOGICAL$" + constantSuffix(expression);
+  }
+
+  /**
+   * Utility for template use. Returns the name of the constant that holds the
+   * conversion for the schema built by an expression from
+   * {@link #getLogicalSchemaExpressions}.
+   */
+  public String conversionName(String expression) {
+    return "CONVERSION$" + constantSuffix(expression);
+  }
+
+  private static String constantSuffix(String expression) {
+    return expression.replace("FIELD$", "").replace(".getElementType()", "_E").replace(".getValueType()", "_V")
+        .replaceAll("\\.getTypes\\(\\)\\.get\\((\\d+)\\)", "_$1");
+  }
+
   public boolean hasLogicalTypeField(Schema schema) {
     for (Schema.Field field : schema.getFields()) {
       if (field.schema().getLogicalType() != null) {
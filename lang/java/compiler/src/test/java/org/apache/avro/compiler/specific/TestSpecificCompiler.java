@@ -25,20 +25,32 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.equalTo;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import org.apache.avro.LogicalTypes;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericData.StringType;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.avro.util.Utf8;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
@@ -608,6 +620,97 @@ public class TestSpecificCompiler {
         new SpecificCompiler(unionTypesWithMultipleFields).compile());
   }
 
+  @Test
+  public void testCustomCodersForUnionsAndLogicalTypes() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Coded\","
+        + "\"namespace\":\"org.apache.avro.specific\",\"fields\":["
+        + "{\"name\":\"time\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-micros\"}},"
+        + "{\"name\":\"dates\",\"type\":{\"type\":\"array\",\"items\":"
+        + "[\"null\",{\"type\":\"int\",\"logicalType\":\"date\"}]}},"
+        + "{\"name\":\"any\",\"type\":[\"null\",\"string\",\"bytes\","
+        + "{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"},{\"type\":\"map\",\"values\":\"int\"},"
+        + "{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\"]},"
+        + "{\"type\":\"record\",\"name\":\"Inner\",\"fields\":[{\"name\":\"u\",\"type\":[\"int\",\"string\"]}]}]}]}");
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    assertTrue(compiler.isCustomCodable(schema));
+    assertEquals(new HashSet<>(Arrays.asList("org.apache.avro.data.TimeConversions.TimestampMicrosConversion",
+        "org.apache.avro.data.TimeConversions.DateConversion",
+        "org.apache.avro.data.TimeConversions.TimestampMillisConversion")),
+        compiler.getUsedConversionClasses(schema));
+    // the unchecked cast to the map branch of the union is suppressed
+    assertTrue(compiler.hasUncheckedCasts(schema));
+    File dir = new File(this.outputFile, name.getMethodName());
+    assertCompilesWithJavaCompiler(dir, compiler.compile());
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader())) {
+      Class<?> c = loader.loadClass("org.apache.avro.specific.Coded");
+      SpecificRecordBase inner = (SpecificRecordBase) loader.loadClass("org.apache.avro.specific.Inner")
+          .getConstructor().newInstance();
+      inner.put(0, new Utf8("u"));
+      Object symbol = loader.loadClass("org.apache.avro.specific.E").getEnumConstants()[1];
+      // a value of each branch of the general union
+      for (Object any : Arrays.asList(null, new Utf8("s"), ByteBuffer.wrap(new byte[] { 1, 2 }),
+          Instant.ofEpochMilli(5), Collections.singletonMap(new Utf8("k"), 1), symbol, inner)) {
+        SpecificRecordBase record = (SpecificRecordBase) c.getConstructor().newInstance();
+        record.put(0, Instant.ofEpochSecond(1, 2000));
+        record.put(1, Arrays.asList(null, LocalDate.ofEpochDay(3)));
+        record.put(2, any);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        record.customEncode(EncoderFactory.get().directBinaryEncoder(out, null));
+
+        SpecificRecordBase read = (SpecificRecordBase) c.getConstructor().newInstance();
+        read.customDecode(DecoderFactory.get().resolvingDecoder(schema, schema,
+            DecoderFactory.get().binaryDecoder(out.toByteArray(), null)));
+        assertEquals(record.get(0), read.get(0));
+        assertEquals(record.get(1), read.get(1));
+        assertEquals(record.get(2), read.get(2));
+      }
+    }
+  }
+
+  @Test
+  public void testUncheckedCasts() {
+    Schema mapBranch = new Schema.Parser()
+        .parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":[{\"name\":\"f\",\"type\":{\"type\":\"array\","
+            + "\"items\":[\"int\",\"string\",{\"type\":\"map\",\"values\":\"int\"}]}}]}");
+    assertTrue(new SpecificCompiler(mapBranch).hasUncheckedCasts(mapBranch));
+    Schema nullable = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"R\",\"fields\":["
+        + "{\"name\":\"f\",\"type\":[\"null\",{\"type\":\"array\",\"items\":\"int\"}]},"
+        + "{\"name\":\"g\",\"type\":[\"int\",\"string\"]}]}");
+    assertFalse(new SpecificCompiler(nullable).hasUncheckedCasts(nullable));
+  }
+
+  @Test
+  public void testCustomCodersForReservedFieldNames() throws Exception {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Reserved\","
+        + "\"namespace\":\"org.apache.avro.specific\",\"fields\":["
+        + "{\"name\":\"default\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}},"
+        + "{\"name\":\"public\",\"type\":[\"null\",{\"type\":\"array\",\"items\":"
+        + "{\"type\":\"int\",\"logicalType\":\"date\"}}]}]}");
+    SpecificCompiler compiler = new SpecificCompiler(schema);
+    assertTrue(compiler.isCustomCodable(schema));
+    assertEquals(Arrays.asList("FIELD$0", "FIELD$1.getTypes().get(1).getElementType()"),
+        compiler.getLogicalSchemaExpressions(schema));
+    assertEquals("LOGICAL$1_1_E", compiler.logicalSchemaName("FIELD$1.getTypes().get(1).getElementType()"));
+    File dir = new File(this.outputFile, name.getMethodName());
+    assertCompilesWithJavaCompiler(dir, compiler.compile());
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader())) {
+      Class<?> c = loader.loadClass("org.apache.avro.specific.Reserved");
+      SpecificRecordBase record = (SpecificRecordBase) c.getConstructor().newInstance();
+      record.put(0, Instant.ofEpochMilli(1234));
+      record.put(1, Arrays.asList(LocalDate.ofEpochDay(3), LocalDate.ofEpochDay(4)));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      record.customEncode(EncoderFactory.get().directBinaryEncoder(out, null));
+
+      SpecificRecordBase read = (SpecificRecordBase) c.getConstructor().newInstance();
+      read.customDecode(DecoderFactory.get().resolvingDecoder(schema, schema,
+          DecoderFactory.get().binaryDecoder(out.toByteArray(), null)));
+      assertEquals(record.get(0), read.get(0));
+      assertEquals(record.get(1), read.get(1));
+    }
+  }
+
   @Test
   public void testLogicalTypesWithMultipleFieldsDateTime() throws Exception {
     Schema logicalTypesWithMultipleFields = new Schema.Parser()
@@ -20,7 +20,7 @@ package org.apache.avro.hadoop.io;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
-import org.apache.avro.io.BinaryData;
+import org.apache.avro.io.BinaryComparator;
 import org.apache.avro.mapred.AvroKey;
 import org.apache.avro.mapreduce.AvroJob;
 import org.apache.hadoop.conf.Configuration;
@@ -39,6 +39,8 @@ public class AvroKeyComparator<T> extends Configured implements RawComparator<Av
   /** The schema of the Avro data in the key to compare. */
   private Schema mSchema;
   private GenericData mDataModel;
+  /** Compares the serialized keys, compiled once for the schema. */
+  private BinaryComparator mBinaryComparator;
 
   /** {@inheritDoc} */
   @Override
@@ -50,13 +52,14 @@ public class AvroKeyComparator<T> extends Configured implements RawComparator<Av
       // and the data model non-raw compare() implementation.
       mSchema = AvroJob.getMapOutputKeySchema(conf);
       mDataModel = AvroSerialization.createDataModel(conf);
+      mBinaryComparator = new BinaryComparator(mSchema);
     }
   }
 
   /** {@inheritDoc} */
   @Override
   public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
-    return BinaryData.compare(b1, s1, b2, s2, mSchema);
+    return mBinaryComparator.compare(b1, s1, l1, b2, s2, l2);
   }
 
   /** {@inheritDoc} */
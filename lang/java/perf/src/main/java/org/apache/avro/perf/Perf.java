@@ -46,6 +46,9 @@ public final class Perf {
     options.addOption(Option.builder().argName("warmupIterations").longOpt("wi").hasArg()
         .desc("The number of warmup iterations").numberOfArgs(1).build());
 
+    options.addOption(Option.builder().argName("threads").longOpt("threads").hasArg()
+        .desc("The number of threads to run each test with").numberOfArgs(1).build());
+
     options.addOption(Option.builder().argName("bulkWarmup").longOpt("bw").desc("Flag to enabled bulk warmup").build());
 
     options.addOption(
@@ -70,9 +73,10 @@ public final class Perf {
 
     final Integer measurementIterations = Integer.valueOf(cmd.getOptionValue("mi", "3"));
     final Integer warmupIterations = Integer.valueOf(cmd.getOptionValue("wi", "3"));
+    final Integer threads = Integer.valueOf(cmd.getOptionValue("threads", "1"));
 
     final ChainedOptionsBuilder runOpt = new OptionsBuilder().mode(Mode.Throughput).timeout(TimeValue.seconds(60))
-        .warmupIterations(warmupIterations).measurementIterations(measurementIterations).forks(1).threads(1)
+        .warmupIterations(warmupIterations).measurementIterations(measurementIterations).forks(1).threads(threads)
         .shouldDoGC(true);
 
     if (cmd.hasOption("builkWarmup")) {
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.perf.test.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link DataFileReader#sync(long)} from arbitrary positions, as done
+ * when opening a split. Blocks are large, so each call scans on average half a
+ * block for the next sync marker.
+ */
+public class SyncTest {
+  private static final int SPLITS = 16;
+
+  @Benchmark
+  @OperationsPerInvocation(SPLITS)
+  public long sync(final TestStateSync state) throws Exception {
+    final DataFileReader<Object> reader = state.reader;
+    long total = 0;
+    for (long position : state.positions) {
+      reader.sync(position);
+      total += reader.previousSync();
+    }
+    return total;
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateSync extends BasicState {
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int BLOCKS = 16;
+
+    private byte[] file;
+    private long[] positions;
+    private DataFileReader<Object> reader;
+
+    public TestStateSync() {
+      super();
+    }
+
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws IOException {
+      Schema schema = Schema.create(Schema.Type.BYTES);
+      byte[] datum = new byte[1024];
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+        writer.setSyncInterval(BLOCK_SIZE).create(schema, out);
+        for (int i = 0; i < BLOCKS * BLOCK_SIZE / datum.length; i++) {
+          super.getRandom().nextBytes(datum);
+          writer.append(ByteBuffer.wrap(datum));
+        }
+      }
+      this.file = out.toByteArray();
+      this.positions = new long[SPLITS];
+      for (int i = 0; i < SPLITS; i++) {
+        positions[i] = (long) i * file.length / SPLITS;
+      }
+      this.reader = new DataFileReader<>(new SeekableByteArrayInput(file), new GenericDatumReader<>());
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDownTrial() throws IOException {
+      reader.close();
+    }
+  }
+}
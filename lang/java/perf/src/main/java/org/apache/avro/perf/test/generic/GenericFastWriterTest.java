@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.generic;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the schema-walking {@link GenericDatumWriter} with the specialized
+ * writer enabled by {@link GenericData#setFastWriterEnabled(boolean)}.
+ */
+public class GenericFastWriterTest {
+
+  private static final String RECORD_SCHEMA = "{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+      + "{ \"name\": \"f1\", \"type\": \n" + "{ \"type\": \"record\", \"name\": \"D\", \"fields\": [\n"
+      + "{\"name\": \"dbl\", \"type\": \"double\" }]\n" + "} },\n" + "{ \"name\": \"f2\", \"type\": \"D\" },\n"
+      + "{ \"name\": \"f3\", \"type\": [\"null\", \"string\"] },\n" + "{ \"name\": \"f4\", \"type\": \"int\" },\n"
+      + "{ \"name\": \"f5\", \"type\": \"long\" },\n"
+      + "{ \"name\": \"f6\", \"type\": { \"type\": \"array\", \"items\": \"int\" } }\n" + "] }";
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final GenericDatumWriter<Object> writer = state.writer;
+    for (final GenericRecord rec : state.testData) {
+      writer.write(rec, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encodeFast(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final GenericDatumWriter<Object> writer = state.fastWriter;
+    for (final GenericRecord rec : state.testData) {
+      writer.write(rec, e);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+
+    private final Schema schema;
+
+    private GenericRecord[] testData;
+    private Encoder encoder;
+    private GenericDatumWriter<Object> writer;
+    private GenericDatumWriter<Object> fastWriter;
+
+    public TestStateEncode() {
+      super();
+      this.schema = new Schema.Parser().parse(RECORD_SCHEMA);
+    }
+
+    /**
+     * Setup the trial data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.writer = new GenericDatumWriter<>(schema, new GenericData().setFastWriterEnabled(false));
+      this.fastWriter = new GenericDatumWriter<>(schema, new GenericData().setFastWriterEnabled(true));
+      this.testData = new GenericRecord[getBatchSize()];
+
+      final Schema doubleSchema = schema.getField("f1").schema();
+      final Random r = super.getRandom();
+      for (int i = 0; i < testData.length; i++) {
+        final GenericRecord rec = new GenericData.Record(schema);
+        for (int j = 0; j < 2; j++) {
+          final GenericRecord inner = new GenericData.Record(doubleSchema);
+          inner.put(0, r.nextDouble());
+          rec.put(j, inner);
+        }
+        rec.put(2, r.nextBoolean() ? null : "s" + r.nextInt());
+        rec.put(3, r.nextInt());
+        rec.put(4, r.nextLong());
+        rec.put(5, Arrays.asList(r.nextInt(), r.nextInt(), r.nextInt()));
+        testData[i] = rec;
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.generic;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.JsonDecoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes JSON whose fields are in the schema's order, and JSON whose fields
+ * are in the reverse order. The interpreted reader buffers fields that arrive
+ * early; the fast reader reads them in input order.
+ */
+public class GenericJsonDecodeTest {
+
+  private static final String RECORD_SCHEMA = "{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+      + "{ \"name\": \"f1\", \"type\": \"double\" },\n" + "{ \"name\": \"f2\", \"type\": \"double\" },\n"
+      + "{ \"name\": \"f3\", \"type\": \"int\" },\n" + "{ \"name\": \"f4\", \"type\": \"string\" },\n"
+      + "{ \"name\": \"f5\", \"type\": { \"type\": \"array\", \"items\": \"long\" } },\n"
+      + "{ \"name\": \"f6\", \"type\": \n" + "{ \"type\": \"record\", \"name\": \"D\", \"fields\": [\n"
+      + "{\"name\": \"a\", \"type\": \"int\" }, {\"name\": \"b\", \"type\": \"string\" }]\n" + "} }\n" + "] }";
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decodeOrdered(final TestStateDecode state, final Blackhole blackHole) throws Exception {
+    decode(state.reader, state.ordered, state, blackHole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decodeShuffled(final TestStateDecode state, final Blackhole blackHole) throws Exception {
+    decode(state.reader, state.shuffled, state, blackHole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decodeOrderedFast(final TestStateDecode state, final Blackhole blackHole) throws Exception {
+    decode(state.fastReader, state.ordered, state, blackHole);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decodeShuffledFast(final TestStateDecode state, final Blackhole blackHole) throws Exception {
+    decode(state.fastReader, state.shuffled, state, blackHole);
+  }
+
+  private static void decode(final GenericDatumReader<GenericRecord> reader, final String json,
+      final TestStateDecode state, final Blackhole blackHole) throws IOException {
+    final JsonDecoder d = state.decoder.configure(json);
+    GenericRecord rec = null;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      rec = reader.read(rec, d);
+      blackHole.consume(rec);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+
+    private final Schema schema;
+
+    private String ordered;
+    private String shuffled;
+    private JsonDecoder decoder;
+    private GenericDatumReader<GenericRecord> reader;
+    private GenericDatumReader<GenericRecord> fastReader;
+
+    public TestStateDecode() {
+      super();
+      this.schema = new Schema.Parser().parse(RECORD_SCHEMA);
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final StringBuilder inOrder = new StringBuilder();
+      final StringBuilder reversed = new StringBuilder();
+      final Random r = super.getRandom();
+      for (int i = 0; i < getBatchSize(); i++) {
+        final String[] fields = { "\"f1\":" + r.nextDouble(), "\"f2\":" + r.nextDouble(), "\"f3\":" + r.nextInt(),
+            "\"f4\":\"s" + r.nextInt() + "\"", "\"f5\":[" + r.nextLong() + "," + r.nextLong() + "]",
+            "\"f6\":{\"a\":" + r.nextInt() + ",\"b\":\"t" + r.nextInt() + "\"}" };
+        inOrder.append('{');
+        reversed.append('{');
+        for (int j = 0; j < fields.length; j++) {
+          inOrder.append(j == 0 ? "" : ",").append(fields[j]);
+          reversed.append(j == 0 ? "" : ",").append(fields[fields.length - 1 - j]);
+        }
+        inOrder.append('}');
+        reversed.append('}');
+      }
+      this.ordered = inOrder.toString();
+      this.shuffled = reversed.toString();
+      this.decoder = DecoderFactory.get().jsonDecoder(schema, ordered);
+      this.reader = new GenericDatumReader<>(schema, schema, new GenericData().setFastReaderEnabled(false));
+      this.fastReader = new GenericDatumReader<>(schema, schema, new GenericData().setFastReaderEnabled(true));
+    }
+  }
+}
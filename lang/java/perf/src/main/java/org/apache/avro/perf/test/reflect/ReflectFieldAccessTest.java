@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes a class with a field of each primitive type, so that most
+ * of the time goes to reading and writing fields. Compare runs with and without
+ * {@code -Davro.disable.unsafe=true}, which makes ReflectData access fields
+ * through method handles rather than {@code sun.misc.Unsafe}.
+ */
+public class ReflectFieldAccessTest {
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    for (final Primitives r : state.testData) {
+      state.datumWriter.write(r, state.encoder);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final Blackhole blackhole, final TestStateDecode state) throws Exception {
+    final Decoder d = state.decoder;
+    Primitives reuse = null;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      reuse = state.datumReader.read(reuse, d);
+      blackhole.consume(reuse);
+    }
+  }
+
+  public static final class Primitives {
+    private boolean b;
+    private byte by;
+    private char c;
+    private short s;
+    private int i;
+    private long l;
+    private float f;
+    private double d;
+
+    public Primitives() {
+    }
+
+    Primitives(Random r) {
+      b = r.nextBoolean();
+      by = (byte) r.nextInt();
+      c = (char) r.nextInt(128);
+      s = (short) r.nextInt();
+      i = r.nextInt();
+      l = r.nextLong();
+      f = r.nextFloat();
+      d = r.nextDouble();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+
+    private final Schema schema = ReflectData.get().getSchema(Primitives.class);
+
+    private Primitives[] testData;
+    private Encoder encoder;
+    private ReflectDatumWriter<Primitives> datumWriter;
+
+    /**
+     * Setup the trial data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.datumWriter = new ReflectDatumWriter<>(schema);
+      this.testData = new Primitives[getBatchSize()];
+
+      for (int i = 0; i < testData.length; i++) {
+        this.testData[i] = new Primitives(getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+
+    private final Schema schema = ReflectData.get().getSchema(Primitives.class);
+
+    private byte[] testData;
+    private Decoder decoder;
+    private ReflectDatumReader<Primitives> datumReader;
+
+    /**
+     * Generate test data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws IOException {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      Encoder encoder = super.newEncoder(true, baos);
+      ReflectDatumWriter<Primitives> writer = new ReflectDatumWriter<>(schema);
+
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(new Primitives(getRandom()), encoder);
+      }
+
+      this.testData = baos.toByteArray();
+      this.datumReader = new ReflectDatumReader<>(schema);
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.perf.test.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.avro.perf.test.BasicRecord;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes the same class from many threads at once, which share
+ * the field accessors that {@link ReflectData} caches for the class. Compare
+ * runs with different numbers of threads, for example
+ * {@code --test ReflectRecordConcurrentTest --threads 64}, to see how it
+ * scales.
+ */
+public class ReflectRecordConcurrentTest {
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final SharedState shared, final TestStateEncode state) throws Exception {
+    for (final BasicRecord r : state.testData) {
+      shared.datumWriter.write(r, state.encoder);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final Blackhole blackhole, final SharedState shared, final TestStateDecode state)
+      throws Exception {
+    final Decoder d = state.decoder;
+    BasicRecord reuse = null;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      reuse = shared.datumReader.read(reuse, d);
+      blackhole.consume(reuse);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SharedState {
+
+    private final Schema schema;
+    private final ReflectDatumWriter<BasicRecord> datumWriter;
+    private final ReflectDatumReader<BasicRecord> datumReader;
+
+    public SharedState() {
+      final String jsonText = ReflectData.get().getSchema(BasicRecord.class).toString();
+      this.schema = new Schema.Parser().parse(jsonText);
+      this.datumWriter = new ReflectDatumWriter<>(schema);
+      this.datumReader = new ReflectDatumReader<>(schema);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+
+    private BasicRecord[] testData;
+    private Encoder encoder;
+
+    /**
+     * Setup the trial data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new BasicRecord[getBatchSize()];
+
+      for (int i = 0; i < testData.length; i++) {
+        this.testData[i] = new BasicRecord(getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+
+    private byte[] testData;
+    private Decoder decoder;
+
+    /**
+     * Generate test data.
+     *
+     * @throws IOException Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial(final SharedState shared) throws IOException {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      Encoder encoder = super.newEncoder(true, baos);
+
+      for (int i = 0; i < getBatchSize(); i++) {
+        final BasicRecord r = new BasicRecord(getRandom());
+        shared.datumWriter.write(r, encoder);
+      }
+
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.avro.tool;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,11 +35,13 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.FastJsonWriter;
 import org.apache.avro.io.JsonEncoder;
 
 /** Reads a data file and dumps to JSON */
 public class DataFileReadTool implements Tool {
   private static final long DEFAULT_HEAD_COUNT = 10;
+  private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(StandardCharsets.UTF_8);
 
   @Override
   public String getName() {
@@ -92,13 +95,26 @@ public class DataFileReadTool implements Tool {
     }
     try (DataFileStream<Object> streamReader = new DataFileStream<>(inStream, reader)) {
       Schema schema = readerSchema != null ? readerSchema : streamReader.getSchema();
-      DatumWriter writer = new GenericDatumWriter<>(schema);
-      JsonEncoder encoder = EncoderFactory.get().jsonEncoder(schema, out, pretty);
-      for (long recordCount = 0; streamReader.hasNext() && recordCount < headCount; recordCount++) {
-        Object datum = streamReader.next();
-        writer.write(datum, encoder);
+      if (pretty) {
+        DatumWriter writer = new GenericDatumWriter<>(schema);
+        JsonEncoder encoder = EncoderFactory.get().jsonEncoder(schema, out, true);
+        for (long recordCount = 0; streamReader.hasNext() && recordCount < headCount; recordCount++) {
+          Object datum = streamReader.next();
+          writer.write(datum, encoder);
+        }
+        encoder.flush();
+      } else {
+        // the same output as a JsonEncoder, one record per line
+        FastJsonWriter<Object> writer = new FastJsonWriter<>(schema);
+        Object datum = null;
+        for (long recordCount = 0; streamReader.hasNext() && recordCount < headCount; recordCount++) {
+          datum = streamReader.next(datum);
+          if (recordCount > 0) {
+            out.write(LINE_SEPARATOR);
+          }
+          writer.write(datum, out);
+        }
       }
-      encoder.flush();
       out.println();
       out.flush();
     }
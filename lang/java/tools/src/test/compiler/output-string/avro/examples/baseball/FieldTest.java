@@ -18,10 +18,14 @@ public class FieldTest extends org.apache.avro.specific.SpecificRecordBase imple
   private static final long serialVersionUID = 4609235620572341636L;
   public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"FieldTest\",\"namespace\":\"avro.examples.baseball\",\"doc\":\"Test various field types\",\"fields\":[{\"name\":\"number\",\"type\":\"int\",\"doc\":\"The number of the player\"},{\"name\":\"last_name\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"timestamp\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}},{\"name\":\"timestampMicros\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-micros\"}},{\"name\":\"timeMillis\",\"type\":{\"type\":\"int\",\"logicalType\":\"time-millis\"}},{\"name\":\"timeMicros\",\"type\":{\"type\":\"long\",\"logicalType\":\"time-micros\"}}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  /** Creates new instances of this class for readers. */
+  public static final java.util.function.Supplier<FieldTest> FACTORY$ = FieldTest::new;
 
   private static SpecificData MODEL$ = new SpecificData();
 static {
     MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimestampMillisConversion());
+    MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimeMicrosConversion());
+    MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimestampMicrosConversion());
     MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimeMillisConversion());
   }
 
@@ -652,6 +656,126 @@ static {
     READER$.read(this, SpecificData.getDecoder(in));
   }
 
+  private static final org.apache.avro.Schema FIELD$0 = SCHEMA$.getField("number").schema();
+  private static final org.apache.avro.Schema FIELD$1 = SCHEMA$.getField("last_name").schema();
+  private static final org.apache.avro.Schema FIELD$2 = SCHEMA$.getField("timestamp").schema();
+  private static final org.apache.avro.Schema FIELD$3 = SCHEMA$.getField("timestampMicros").schema();
+  private static final org.apache.avro.Schema FIELD$4 = SCHEMA$.getField("timeMillis").schema();
+  private static final org.apache.avro.Schema FIELD$5 = SCHEMA$.getField("timeMicros").schema();
+  private static final org.apache.avro.Schema LOGICAL$2 = FIELD$2;
+  private static final org.apache.avro.Conversion<?> CONVERSION$2 = MODEL$.getConversionFor(LOGICAL$2.getLogicalType());
+  private static final org.apache.avro.Schema LOGICAL$3 = FIELD$3;
+  private static final org.apache.avro.Conversion<?> CONVERSION$3 = MODEL$.getConversionFor(LOGICAL$3.getLogicalType());
+  private static final org.apache.avro.Schema LOGICAL$4 = FIELD$4;
+  private static final org.apache.avro.Conversion<?> CONVERSION$4 = MODEL$.getConversionFor(LOGICAL$4.getLogicalType());
+  private static final org.apache.avro.Schema LOGICAL$5 = FIELD$5;
+  private static final org.apache.avro.Conversion<?> CONVERSION$5 = MODEL$.getConversionFor(LOGICAL$5.getLogicalType());
+
+  @Override protected boolean hasCustomCoders() { return true; }
+
+  @Override public void customEncode(org.apache.avro.io.Encoder out)
+    throws java.io.IOException
+  {
+    out.writeInt(this.number);
+
+    out.writeString(this.last_name);
+
+    {
+      java.lang.Object lv0 = org.apache.avro.Conversions.convertToRawType(this.timestamp, LOGICAL$2, LOGICAL$2.getLogicalType(), CONVERSION$2);
+      out.writeLong((java.lang.Long) lv0);
+    }
+
+    {
+      java.lang.Object lv0 = org.apache.avro.Conversions.convertToRawType(this.timestampMicros, LOGICAL$3, LOGICAL$3.getLogicalType(), CONVERSION$3);
+      out.writeLong((java.lang.Long) lv0);
+    }
+
+    {
+      java.lang.Object lv0 = org.apache.avro.Conversions.convertToRawType(this.timeMillis, LOGICAL$4, LOGICAL$4.getLogicalType(), CONVERSION$4);
+      out.writeInt((java.lang.Integer) lv0);
+    }
+
+    {
+      java.lang.Object lv0 = org.apache.avro.Conversions.convertToRawType(this.timeMicros, LOGICAL$5, LOGICAL$5.getLogicalType(), CONVERSION$5);
+      out.writeLong((java.lang.Long) lv0);
+    }
+
+  }
+
+  @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
+    throws java.io.IOException
+  {
+    org.apache.avro.Schema.Field[] fieldOrder = in.readFieldOrderIfDiff();
+    if (fieldOrder == null) {
+      this.number = in.readInt();
+
+      this.last_name = in.readString();
+
+      {
+        java.lang.Object lv0 = in.readLong();
+        this.timestamp = (java.time.Instant) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$2, LOGICAL$2.getLogicalType(), CONVERSION$2);
+      }
+
+      {
+        java.lang.Object lv0 = in.readLong();
+        this.timestampMicros = (java.time.Instant) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$3, LOGICAL$3.getLogicalType(), CONVERSION$3);
+      }
+
+      {
+        java.lang.Object lv0 = in.readInt();
+        this.timeMillis = (java.time.LocalTime) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$4, LOGICAL$4.getLogicalType(), CONVERSION$4);
+      }
+
+      {
+        java.lang.Object lv0 = in.readLong();
+        this.timeMicros = (java.time.LocalTime) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$5, LOGICAL$5.getLogicalType(), CONVERSION$5);
+      }
+
+    } else {
+      for (int i = 0; i < 6; i++) {
+        switch (fieldOrder[i].pos()) {
+        case 0:
+          this.number = in.readInt();
+          break;
+
+        case 1:
+          this.last_name = in.readString();
+          break;
+
+        case 2:
+          {
+            java.lang.Object lv0 = in.readLong();
+            this.timestamp = (java.time.Instant) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$2, LOGICAL$2.getLogicalType(), CONVERSION$2);
+          }
+          break;
+
+        case 3:
+          {
+            java.lang.Object lv0 = in.readLong();
+            this.timestampMicros = (java.time.Instant) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$3, LOGICAL$3.getLogicalType(), CONVERSION$3);
+          }
+          break;
+
+        case 4:
+          {
+            java.lang.Object lv0 = in.readInt();
+            this.timeMillis = (java.time.LocalTime) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$4, LOGICAL$4.getLogicalType(), CONVERSION$4);
+          }
+          break;
+
+        case 5:
+          {
+            java.lang.Object lv0 = in.readLong();
+            this.timeMicros = (java.time.LocalTime) org.apache.avro.Conversions.convertToLogicalType(lv0, LOGICAL$5, LOGICAL$5.getLogicalType(), CONVERSION$5);
+          }
+          break;
+
+        default:
+          throw new java.io.IOException("Corrupt ResolvingDecoder.");
+        }
+      }
+    }
+  }
 }
 
 
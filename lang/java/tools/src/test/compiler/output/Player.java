@@ -18,6 +18,8 @@ public class Player extends org.apache.avro.specific.SpecificRecordBase implemen
   private static final long serialVersionUID = 3865593031278745715L;
   public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Player\",\"namespace\":\"avro.examples.baseball\",\"doc\":\"選手 is Japanese for player.\",\"fields\":[{\"name\":\"number\",\"type\":\"int\",\"doc\":\"The number of the player\"},{\"name\":\"first_name\",\"type\":\"string\"},{\"name\":\"last_name\",\"type\":\"string\"},{\"name\":\"position\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"enum\",\"name\":\"Position\",\"symbols\":[\"P\",\"C\",\"B1\",\"B2\",\"B3\",\"SS\",\"LF\",\"CF\",\"RF\",\"DH\"]}}}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
+  /** Creates new instances of this class for readers. */
+  public static final java.util.function.Supplier<Player> FACTORY$ = Player::new;
 
   private static SpecificData MODEL$ = new SpecificData();
 
@@ -492,6 +494,11 @@ public class Player extends org.apache.avro.specific.SpecificRecordBase implemen
     READER$.read(this, SpecificData.getDecoder(in));
   }
 
+  private static final org.apache.avro.Schema FIELD$0 = SCHEMA$.getField("number").schema();
+  private static final org.apache.avro.Schema FIELD$1 = SCHEMA$.getField("first_name").schema();
+  private static final org.apache.avro.Schema FIELD$2 = SCHEMA$.getField("last_name").schema();
+  private static final org.apache.avro.Schema FIELD$3 = SCHEMA$.getField("position").schema();
+
   @Override protected boolean hasCustomCoders() { return true; }
 
   @Override public void customEncode(org.apache.avro.io.Encoder out)
@@ -532,7 +539,7 @@ public class Player extends org.apache.avro.specific.SpecificRecordBase implemen
       long size0 = in.readArrayStart();
       java.util.List<avro.examples.baseball.Position> a0 = this.position;
       if (a0 == null) {
-        a0 = new SpecificData.Array<avro.examples.baseball.Position>((int)size0, SCHEMA$.getField("position").schema());
+        a0 = new SpecificData.Array<avro.examples.baseball.Position>((int)size0, FIELD$3);
         this.position = a0;
       } else a0.clear();
       SpecificData.Array<avro.examples.baseball.Position> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<avro.examples.baseball.Position>)a0 : null);
@@ -563,7 +570,7 @@ public class Player extends org.apache.avro.specific.SpecificRecordBase implemen
           long size0 = in.readArrayStart();
           java.util.List<avro.examples.baseball.Position> a0 = this.position;
           if (a0 == null) {
-            a0 = new SpecificData.Array<avro.examples.baseball.Position>((int)size0, SCHEMA$.getField("position").schema());
+            a0 = new SpecificData.Array<avro.examples.baseball.Position>((int)size0, FIELD$3);
             this.position = a0;
           } else a0.clear();
           SpecificData.Array<avro.examples.baseball.Position> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<avro.examples.baseball.Position>)a0 : null);